@@ -0,0 +1,55 @@
+// Blocking-heavy load for comparing the thread modes of the servlet stack.
+// Every request reads or writes MongoDB, list reads bypass the project cache.
+//
+//   docker run --rm -i --network host -e VUS=800 grafana/k6 run - < loadtest/blocking-load.js
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const PROJECTS = Number(__ENV.PROJECTS || 2000);
+
+export const options = {
+    scenarios: {
+        blocking: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 800),
+            duration: __ENV.DURATION || '2m',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const headers = { 'Content-Type': 'application/json' };
+
+function project(i) {
+    return JSON.stringify({
+        title: `load test project ${i}`,
+        state: 'INITIATED',
+        complexity: 'MEDIUM',
+        tasks: [],
+    });
+}
+
+export function setup() {
+    const ids = [];
+    for (let i = 0; i < PROJECTS; i++) {
+        ids.push(http.post(`${BASE_URL}/projects`, project(i), { headers }).json('id'));
+    }
+    return { ids };
+}
+
+export default function (data) {
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    const roll = Math.random();
+    let response;
+    if (roll < 0.6) {
+        response = http.get(`${BASE_URL}/projects?limit=200`, { tags: { name: 'list' } });
+    } else if (roll < 0.9) {
+        response = http.post(`${BASE_URL}/projects/${id}/tasks`,
+            JSON.stringify({ title: 'load test task', done: false }), { headers, tags: { name: 'createTask' } });
+    } else {
+        response = http.put(`${BASE_URL}/projects/${id}`, project(id), { headers, tags: { name: 'update' } });
+    }
+    check(response, { 'status is 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
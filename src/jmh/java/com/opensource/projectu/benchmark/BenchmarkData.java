@@ -0,0 +1,49 @@
+package com.opensource.projectu.benchmark;
+
+import com.opensource.projectu.openapi.model.Complexity;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.State;
+import com.opensource.projectu.openapi.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+final class BenchmarkData {
+
+    static Project buildProject(List<Task> tasks) {
+        return Project.builder()
+                .id(UUID.randomUUID())
+                .title("Benchmark project")
+                .description("A project for benchmarking")
+                .tasks(tasks)
+                .state(State.IN_PROGRESS)
+                .complexity(Complexity.MEDIUM)
+                .estimatedDurationInHours(tasks.size())
+                .expectedResult("Numbers")
+                .createdAt(1649693507720L)
+                .startedAt("1649693507720")
+                .build();
+    }
+
+    static List<Task> buildTasks(int count) {
+        var tasks = new ArrayList<Task>(count);
+        for(int i = 0; i < count; i++) {
+            tasks.add(buildTask(i));
+        }
+        return tasks;
+    }
+
+    static Task buildTask(int number) {
+        return Task.builder()
+                .id(UUID.randomUUID())
+                .title("task" + number)
+                .description("task description" + number)
+                .done(number % 2 == 0)
+                .estimatedDurationInHours(number % 8)
+                .result("result" + number)
+                .build();
+    }
+
+    private BenchmarkData() {}
+}
@@ -0,0 +1,76 @@
+package com.opensource.projectu.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of the generated models with the same ObjectMapper settings as the web layer,
+ * which creates the models through their all-args constructor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonRoundTripBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    int taskCount;
+
+    ObjectMapper objectMapper;
+    Project project;
+    byte[] projectJson;
+    Task task;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT))
+                .build();
+        project = BenchmarkData.buildProject(BenchmarkData.buildTasks(taskCount));
+        projectJson = objectMapper.writeValueAsBytes(project);
+        task = BenchmarkData.buildTask(0);
+    }
+
+    @Benchmark
+    public byte[] serializeProject() throws IOException {
+        return objectMapper.writeValueAsBytes(project);
+    }
+
+    @Benchmark
+    public Project deserializeProject() throws IOException {
+        return objectMapper.readValue(projectJson, Project.class);
+    }
+
+    @Benchmark
+    public Project roundTripProject() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(project), Project.class);
+    }
+
+    /**
+     * Independent of the task count, run it alone with {@code -p taskCount=10}.
+     */
+    @Benchmark
+    public Task roundTripTask() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(task), Task.class);
+    }
+}
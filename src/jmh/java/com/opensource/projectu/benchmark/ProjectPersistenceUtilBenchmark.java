@@ -0,0 +1,73 @@
+package com.opensource.projectu.benchmark;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.util.ProjectPersistenceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task list operations of {@link ProjectPersistenceUtil}.
+ * The utilities replace the task list of the passed project, so every invocation works on a fresh project
+ * sharing the same task list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectPersistenceUtilBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    int taskCount;
+
+    List<Task> tasks;
+    Task newTask;
+    UUID lastTaskId;
+
+    @Setup
+    public void setup() {
+        tasks = BenchmarkData.buildTasks(taskCount);
+        newTask = BenchmarkData.buildTask(taskCount);
+        lastTaskId = tasks.get(taskCount - 1).getId();
+    }
+
+    @Benchmark
+    public Project addTaskToProject() {
+        return ProjectPersistenceUtil.addTaskToProject(project(), newTask);
+    }
+
+    @Benchmark
+    public Optional<Task> findTaskOfProjectById() {
+        return ProjectPersistenceUtil.findTaskOfProjectById(project(), lastTaskId);
+    }
+
+    @Benchmark
+    public Project removeTaskWithIdFromProject() {
+        return ProjectPersistenceUtil.removeTaskWithIdFromProject(lastTaskId, project());
+    }
+
+    @Benchmark
+    public Project overwriteTaskOfProject() {
+        return ProjectPersistenceUtil.overwriteTaskOfProject(lastTaskId, newTask, project());
+    }
+
+    private Project project() {
+        return BenchmarkData.buildProject(tasks);
+    }
+}
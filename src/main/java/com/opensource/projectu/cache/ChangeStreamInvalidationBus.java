@@ -0,0 +1,92 @@
+package com.opensource.projectu.cache;
+
+import com.opensource.projectu.openapi.model.ProjectChange;
+import com.opensource.projectu.repository.ProjectChangeFeed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the changes of the project collection read from its change stream, so every instance
+ * learns about the writes of all instances, whichever instance or client made them.
+ * Publishing is not needed, the change stream contains the writes of this instance as well.
+ */
+@Slf4j
+public class ChangeStreamInvalidationBus implements InvalidationBus {
+
+    private final ProjectChangeFeed changeFeed;
+    private final List<Consumer<ProjectInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private Disposable subscription;
+
+    public ChangeStreamInvalidationBus(ProjectChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * The change feed completes a subscriber falling too far behind. The missed changes are unknown,
+     * so every cached project is evicted before the changes are subscribed again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if(subscription == null) {
+            subscription = Flux.defer(() -> changeFeed.changes(Set.of(), null))
+                    .map(event -> toInvalidation(event.getChange()))
+                    .concatWith(Mono.fromSupplier(ProjectInvalidation::all))
+                    .repeat()
+                    .subscribe(this::deliver);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if(subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public void publish(ProjectInvalidation invalidation) {
+        // the change stream delivers the change to every instance
+    }
+
+    @Override
+    public void subscribe(Consumer<ProjectInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private void deliver(ProjectInvalidation invalidation) {
+        for(var listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Project invalidation {} failed: {}", invalidation, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A reset means that changes were missed, so every cached project may be stale.
+     */
+    static ProjectInvalidation toInvalidation(ProjectChange change) {
+        switch(change.getType()) {
+            case RESET:
+                return ProjectInvalidation.all();
+            case DELETED:
+                return ProjectInvalidation.deleted(change.getProjectId());
+            default:
+                return change.getVersion() == null
+                        ? ProjectInvalidation.evict(change.getProjectId())
+                        : ProjectInvalidation.changed(change.getProjectId(), change.getVersion());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.opensource.projectu.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts the invalidations of cached projects to the caches of every instance of the application.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Announces a change of a project made by this instance.
+     */
+    void publish(ProjectInvalidation invalidation);
+
+    /**
+     * Registers a listener for the changes made by any instance, including this one.
+     */
+    void subscribe(Consumer<ProjectInvalidation> listener);
+}
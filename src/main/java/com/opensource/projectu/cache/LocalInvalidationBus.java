@@ -0,0 +1,24 @@
+package com.opensource.projectu.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the invalidations to the listeners of this instance only.
+ * Suited for a single instance, or for several caches sharing the bus in tests.
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private final List<Consumer<ProjectInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ProjectInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<ProjectInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,159 @@
+package com.opensource.projectu.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.opensource.projectu.openapi.model.Project;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.opensource.projectu.util.ETagUtil.versionOf;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.findTaskOfProjectById;
+
+/**
+ * Bounded read-through cache of projects in front of the repository.
+ * Tasks are resolved through the cached project containing them, so invalidating a project
+ * also invalidates every task of it.
+ * Invalidations are broadcast to the caches of all instances by the {@link InvalidationBus}.
+ * The minimum versions they carry are remembered, so a project loaded before the invalidation arrived
+ * is not cached with an outdated version. Evictions without a version are counted, a project whose
+ * eviction was counted while it was loaded is returned but not cached.
+ */
+@Component
+public class ProjectCache {
+
+    private final Cache<UUID, Project> projects;
+    private final Cache<UUID, UUID> projectIdsByTaskId;
+    private final Cache<UUID, Long> minimumVersions;
+    private final Cache<UUID, Long> evictions;
+    private final AtomicLong evictionCount = new AtomicLong();
+    private volatile long lastEvictionOfAll;
+    private final InvalidationBus invalidationBus;
+
+    public ProjectCache(@Value("${projectu.cache.projects.maximum-size:1000}") long maximumSize,
+                        @Value("${projectu.cache.projects.expire-after-write:5m}") Duration expireAfterWrite,
+                        MeterRegistry meterRegistry, InvalidationBus invalidationBus) {
+        projects = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        projectIdsByTaskId = Caffeine.newBuilder()
+                .maximumSize(maximumSize * 10)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        minimumVersions = Caffeine.newBuilder()
+                .maximumSize(maximumSize * 10)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        evictions = Caffeine.newBuilder()
+                .maximumSize(maximumSize * 10)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, projects, "projects");
+        CaffeineCacheMetrics.monitor(meterRegistry, projectIdsByTaskId, "projectIdsByTaskId");
+
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    public Optional<Project> getProject(UUID id, Supplier<Optional<Project>> loader) {
+        var cachedProject = projects.getIfPresent(id);
+        if(cachedProject != null) {
+            return Optional.of(cachedProject);
+        }
+        var loadStart = evictionCount.get();
+        var loadedProject = loader.get();
+        loadedProject.ifPresent(project -> put(project, loadStart));
+        return loadedProject;
+    }
+
+    /**
+     * Returns the project containing the task with the given id.
+     */
+    public Optional<Project> getProjectOfTask(UUID taskId, Supplier<Optional<Project>> loader) {
+        var cachedProject = Optional.ofNullable(projectIdsByTaskId.getIfPresent(taskId))
+                .map(projects::getIfPresent)
+                .filter(project -> findTaskOfProjectById(project, taskId).isPresent());
+        if(cachedProject.isPresent()) {
+            return cachedProject;
+        }
+        var loadStart = evictionCount.get();
+        var loadedProject = loader.get();
+        loadedProject.ifPresent(project -> put(project, loadStart));
+        return loadedProject;
+    }
+
+    /**
+     * Evicts the project changed by this instance to the given version, here and in the caches of the other instances.
+     * Copies older than the version are not cached anymore, even if they were loaded before the change.
+     */
+    public void changed(UUID projectId, long version) {
+        invalidate(ProjectInvalidation.changed(projectId, version));
+    }
+
+    public void deleted(UUID projectId) {
+        invalidate(ProjectInvalidation.deleted(projectId));
+    }
+
+    /**
+     * Evicts the project changed by this instance to an unknown version, e.g. by a bulk write.
+     */
+    public void invalidate(UUID projectId) {
+        invalidate(ProjectInvalidation.evict(projectId));
+    }
+
+    /**
+     * The invalidation is applied here right away, the bus may deliver it to this instance only later.
+     */
+    private void invalidate(ProjectInvalidation invalidation) {
+        onInvalidation(invalidation);
+        invalidationBus.publish(invalidation);
+    }
+
+    void onInvalidation(ProjectInvalidation invalidation) {
+        var projectId = invalidation.getProjectId();
+        if(projectId == null) {
+            lastEvictionOfAll = evictionCount.incrementAndGet();
+            projects.invalidateAll();
+            return;
+        }
+        var minimumVersion = invalidation.getMinimumVersion();
+        if(minimumVersion == 0) {
+            evictions.put(projectId, evictionCount.incrementAndGet());
+            projects.invalidate(projectId);
+            return;
+        }
+        minimumVersions.asMap().merge(projectId, minimumVersion, Math::max);
+        projects.asMap().computeIfPresent(projectId,
+                (id, project) -> versionOf(project) < minimumVersion ? null : project);
+    }
+
+    /**
+     * The minimum version and the evictions are checked after the project is cached, so an invalidation arriving
+     * in between is not missed.
+     */
+    private void put(Project project, long loadStart) {
+        projects.put(project.getId(), project);
+        var minimumVersion = minimumVersions.getIfPresent(project.getId());
+        var lastEviction = Math.max(lastEvictionOfAll, evictions.asMap().getOrDefault(project.getId(), 0L));
+        if((minimumVersion != null && versionOf(project) < minimumVersion) || lastEviction > loadStart) {
+            projects.asMap().remove(project.getId(), project);
+            return;
+        }
+        if(project.getTasks() != null) {
+            project.getTasks().stream()
+                    .filter(task -> task.getId() != null)
+                    .forEach(task -> projectIdsByTaskId.put(task.getId(), project.getId()));
+        }
+    }
+}
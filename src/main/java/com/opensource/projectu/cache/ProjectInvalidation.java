@@ -0,0 +1,33 @@
+package com.opensource.projectu.cache;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * A change of a project which makes cached copies of it stale.
+ * Copies older than the minimum version are evicted and not cached anymore, any copy if the minimum version is 0.
+ * Without project id every cached project is evicted.
+ */
+@Value
+public class ProjectInvalidation {
+
+    UUID projectId;
+    long minimumVersion;
+
+    public static ProjectInvalidation evict(UUID projectId) {
+        return new ProjectInvalidation(projectId, 0);
+    }
+
+    public static ProjectInvalidation changed(UUID projectId, long version) {
+        return new ProjectInvalidation(projectId, version);
+    }
+
+    public static ProjectInvalidation deleted(UUID projectId) {
+        return new ProjectInvalidation(projectId, Long.MAX_VALUE);
+    }
+
+    public static ProjectInvalidation all() {
+        return new ProjectInvalidation(null, 0);
+    }
+}
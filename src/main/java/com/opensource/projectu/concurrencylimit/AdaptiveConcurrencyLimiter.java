@@ -0,0 +1,164 @@
+package com.opensource.projectu.concurrencylimit;
+
+import com.opensource.projectu.exception.DatabaseOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of repository calls in progress to the {@link GradientLimit} derived from their latency.
+ * When the database slows down, the calls beyond the limit wait up to {@code maxQueueWait} for a free slot
+ * and are rejected with {@link DatabaseOverloadedException} afterwards, or right away once {@code maxQueued}
+ * calls are waiting. So the requests within the limit keep their latency instead of all requests queueing
+ * in the connection pool. Waiting uses a lock instead of a monitor, so it does not pin virtual threads.
+ */
+public class AdaptiveConcurrencyLimiter implements MethodInterceptor {
+
+    private final GradientLimit gradientLimit;
+    private final long maxQueueWaitNanos;
+    private final int maxQueued;
+    private final LongSupplier nanoTime;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Counter rejectedCalls;
+
+    private int inFlight;
+    private int queued;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration maxQueueWait, int maxQueued,
+                                      MeterRegistry meterRegistry) {
+        this(initialLimit, minLimit, maxLimit, maxQueueWait, maxQueued, meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration maxQueueWait, int maxQueued,
+                               MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        gradientLimit = new GradientLimit(initialLimit, minLimit, maxLimit);
+        maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.maxQueued = maxQueued;
+        this.nanoTime = nanoTime;
+        rejectedCalls = Counter.builder("projectu.mongo.concurrency.rejected")
+                .description("Number of repository calls rejected because the database is overloaded")
+                .register(meterRegistry);
+        Gauge.builder("projectu.mongo.concurrency.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Number of repository calls allowed in progress")
+                .register(meterRegistry);
+        Gauge.builder("projectu.mongo.concurrency.in-flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Number of repository calls in progress")
+                .register(meterRegistry);
+        Gauge.builder("projectu.mongo.concurrency.queued", this, AdaptiveConcurrencyLimiter::queued)
+                .description("Number of repository calls waiting for a free slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Timeouts and lost connections are reported as dropped, other failures like duplicate keys
+     * still tell how fast the database answered.
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        var startedInFlight = acquire();
+        var start = nanoTime.getAsLong();
+        var dropped = false;
+        try {
+            return invocation.proceed();
+        } catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+            dropped = true;
+            throw e;
+        } finally {
+            release(nanoTime.getAsLong() - start, startedInFlight, dropped);
+        }
+    }
+
+    /**
+     * Returns the number of calls in progress including the acquiring one.
+     */
+    int acquire() {
+        lock.lock();
+        try {
+            if(inFlight >= gradientLimit.limit()) {
+                awaitSlot();
+            }
+            inFlight++;
+            // the limit may have grown by more than one slot, the next waiting call checks for another
+            if(queued > 0 && inFlight < gradientLimit.limit()) {
+                released.signal();
+            }
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long latencyNanos, int startedInFlight, boolean dropped) {
+        lock.lock();
+        try {
+            inFlight--;
+            gradientLimit.onSample(latencyNanos, startedInFlight, dropped);
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int limit() {
+        lock.lock();
+        try {
+            return gradientLimit.limit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitSlot() {
+        if(queued >= maxQueued || maxQueueWaitNanos <= 0) {
+            throw reject();
+        }
+        queued++;
+        try {
+            var remainingNanos = maxQueueWaitNanos;
+            while(inFlight >= gradientLimit.limit()) {
+                if(remainingNanos <= 0) {
+                    throw reject();
+                }
+                remainingNanos = released.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject();
+        } finally {
+            queued--;
+        }
+    }
+
+    private DatabaseOverloadedException reject() {
+        rejectedCalls.increment();
+        return new DatabaseOverloadedException();
+    }
+}
@@ -0,0 +1,65 @@
+package com.opensource.projectu.concurrencylimit;
+
+/**
+ * Derives the number of concurrent database calls from their latency, like TCP Vegas derives its window:
+ * while the latency stays near its long-term average, the database is not queueing and the limit grows
+ * by its square root; once the latency rises above it, the limit shrinks by the ratio of the two.
+ * Not thread-safe, the samples are passed under the lock of the limiter.
+ */
+final class GradientLimit {
+
+    /**
+     * Number of samples the long-term latency is averaged over.
+     */
+    static final int LONG_WINDOW = 600;
+
+    /**
+     * Latency up to this multiple of the long-term latency is not seen as queueing.
+     */
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double DRIFT_DECAY = 0.95;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double longLatency;
+    private long samples;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        limit = initialLimit;
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * The latency of a call started while the given number of calls was in progress. A dropped call timed out
+     * or lost its connection, which is the strongest sign of overload, so the limit is cut right away.
+     */
+    void onSample(long latencyNanos, int inFlight, boolean dropped) {
+        if(dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+        var latency = Math.max(1, latencyNanos);
+        samples++;
+        longLatency += (latency - longLatency) / Math.min(samples, LONG_WINDOW);
+        // the long-term latency follows the database down once it got permanently faster
+        if(longLatency > 2 * latency) {
+            longLatency *= DRIFT_DECAY;
+        }
+        // too few calls in progress to tell whether more are possible
+        if(inFlight < limit / 2) {
+            return;
+        }
+        var gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * longLatency / latency));
+        var newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+}
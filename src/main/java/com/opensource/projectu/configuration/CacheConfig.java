@@ -0,0 +1,32 @@
+package com.opensource.projectu.configuration;
+
+import com.opensource.projectu.cache.ChangeStreamInvalidationBus;
+import com.opensource.projectu.cache.InvalidationBus;
+import com.opensource.projectu.cache.LocalInvalidationBus;
+import com.opensource.projectu.repository.ProjectChangeFeed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects how the project caches of the instances learn about changes: only from the writes of their own
+ * instance (default), or from the change stream of the project collection, which requires a replica set
+ * but keeps the caches of several instances coherent.
+ */
+@Configuration
+public class CacheConfig {
+
+    static final String INVALIDATION_PROPERTY = "projectu.cache.invalidation";
+
+    @Bean
+    @ConditionalOnProperty(name = INVALIDATION_PROPERTY, havingValue = "local", matchIfMissing = true)
+    public InvalidationBus localInvalidationBus() {
+        return new LocalInvalidationBus();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = INVALIDATION_PROPERTY, havingValue = "change-stream")
+    public InvalidationBus changeStreamInvalidationBus(ProjectChangeFeed changeFeed) {
+        return new ChangeStreamInvalidationBus(changeFeed);
+    }
+}
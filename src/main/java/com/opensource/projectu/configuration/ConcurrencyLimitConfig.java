@@ -0,0 +1,56 @@
+package com.opensource.projectu.configuration;
+
+import com.opensource.projectu.concurrencylimit.AdaptiveConcurrencyLimiter;
+import com.opensource.projectu.repository.ProjectRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+
+import java.time.Duration;
+
+/**
+ * Puts the adaptive concurrency limit in front of every call of the {@link ProjectRepository},
+ * by wrapping the repository bean in a proxy. The limiter is looked up on the first call,
+ * so the post processor does not initialize the meter registry early.
+ */
+@Configuration
+@ConditionalOnProperty(name = "projectu.mongo.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${projectu.mongo.concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${projectu.mongo.concurrency-limit.min-limit:5}") int minLimit,
+            @Value("${projectu.mongo.concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${projectu.mongo.concurrency-limit.max-queue-wait:50ms}") Duration maxQueueWait,
+            @Value("${projectu.mongo.concurrency-limit.max-queued:100}") int maxQueued) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, maxQueueWait, maxQueued, meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedProjectRepository(ObjectProvider<AdaptiveConcurrencyLimiter> limiter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if(!(bean instanceof ProjectRepository)) {
+                    return bean;
+                }
+                var proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setInterfaces(ProjectRepository.class);
+                proxyFactory.addAdvice((MethodInterceptor) invocation ->
+                        ReflectionUtils.isObjectMethod(invocation.getMethod())
+                                ? invocation.proceed()
+                                : limiter.getObject().invoke(invocation));
+                return proxyFactory.getProxy();
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.opensource.projectu.configuration;
+
+import com.opensource.projectu.util.IdGenerator;
+import com.opensource.projectu.util.RandomIdGenerator;
+import com.opensource.projectu.util.TimeOrderedIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "projectu.id-generator", havingValue = "random", matchIfMissing = true)
+    public IdGenerator randomIdGenerator() {
+        return new RandomIdGenerator();
+    }
+
+    /**
+     * Only useful together with the standard UUID representation, see {@link TimeOrderedIdGenerator}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "projectu.id-generator", havingValue = "time-ordered")
+    public IdGenerator timeOrderedIdGenerator() {
+        return new TimeOrderedIdGenerator();
+    }
+}
@@ -0,0 +1,55 @@
+package com.opensource.projectu.configuration;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.reactive.server.WebFluxTagsContributor;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Tags the http.server.requests timers with the ProjectsApi/TasksApi operation which handled the request,
+ * so operations sharing a URI (e.g. GET and PUT /projects/{id}) get separate latency histograms.
+ */
+@Configuration
+public class MetricsConfig {
+
+    static final String OPERATION_TAG = "operation";
+    static final String NO_OPERATION = "none";
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcTagsContributor operationWebMvcTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Throwable exception) {
+                return Tags.of(operationTag(handler));
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.of(operationTag(handler));
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public WebFluxTagsContributor operationWebFluxTagsContributor() {
+        return (exchange, exception) ->
+                Tags.of(operationTag(exchange.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)));
+    }
+
+    static Tag operationTag(Object handler) {
+        return Tag.of(OPERATION_TAG, handler instanceof HandlerMethod
+                ? ((HandlerMethod) handler).getMethod().getName()
+                : NO_OPERATION);
+    }
+}
@@ -0,0 +1,50 @@
+package com.opensource.projectu.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opensource.projectu.ratelimit.EndpointClass;
+import com.opensource.projectu.ratelimit.RateLimit;
+import com.opensource.projectu.ratelimit.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Map;
+
+/**
+ * Puts the rate limiter in front of the project, task and change endpoints, ahead of every other filter,
+ * so rejected requests cost as little as possible. Actuator endpoints are not limited.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "projectu.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    static final String[] LIMITED_URL_PATTERNS = {"/projects", "/projects/*", "/tasks/*", "/changes"};
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${projectu.rate-limit.client-header:}") String clientHeader,
+            @Value("${projectu.rate-limit.max-concurrent-requests:200}") int maxConcurrentRequests,
+            @Value("${projectu.rate-limit.list.capacity:10}") long listCapacity,
+            @Value("${projectu.rate-limit.list.refill-per-second:2}") double listRefillPerSecond,
+            @Value("${projectu.rate-limit.read.capacity:100}") long readCapacity,
+            @Value("${projectu.rate-limit.read.refill-per-second:50}") double readRefillPerSecond,
+            @Value("${projectu.rate-limit.write.capacity:50}") long writeCapacity,
+            @Value("${projectu.rate-limit.write.refill-per-second:20}") double writeRefillPerSecond) {
+        var limits = Map.of(
+                EndpointClass.LIST, new RateLimit(listCapacity, listRefillPerSecond),
+                EndpointClass.READ, new RateLimit(readCapacity, readRefillPerSecond),
+                EndpointClass.WRITE, new RateLimit(writeCapacity, writeRefillPerSecond));
+        var registration = new FilterRegistrationBean<>(new RateLimitFilter(
+                limits, clientHeader, maxConcurrentRequests, WebConfig.corsConfiguration(), objectMapper, meterRegistry));
+        registration.addUrlPatterns(LIMITED_URL_PATTERNS);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,47 @@
+package com.opensource.projectu.configuration;
+
+import com.opensource.projectu.repository.CollectionTaskStore;
+import com.opensource.projectu.repository.EmbeddedTaskStore;
+import com.opensource.projectu.repository.TaskStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Selects where the tasks are stored: embedded in their project document (default)
+ * or as documents of their own in the task collection.
+ */
+@Configuration
+public class TaskStorageConfig {
+
+    static final String TASK_STORAGE_PROPERTY = "projectu.tasks.storage";
+
+    @Bean
+    @ConditionalOnProperty(name = TASK_STORAGE_PROPERTY, havingValue = "embedded", matchIfMissing = true)
+    public TaskStore embeddedTaskStore(MongoTemplate mongoTemplate) {
+        return new EmbeddedTaskStore(mongoTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TASK_STORAGE_PROPERTY, havingValue = "collection")
+    public TaskStore collectionTaskStore(MongoTemplate mongoTemplate,
+                                         @Value("${projectu.mongo.indexes.create-on-startup:true}") boolean createIndexesOnStartup) {
+        return new CollectionTaskStore(mongoTemplate, createIndexesOnStartup);
+    }
+
+    /**
+     * The reactive repository only supports embedded tasks.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnProperty(name = TASK_STORAGE_PROPERTY, havingValue = "collection")
+    static class ReactiveTaskCollectionCheck {
+
+        ReactiveTaskCollectionCheck() {
+            throw new IllegalStateException(TASK_STORAGE_PROPERTY + "=collection is not supported in reactive mode.");
+        }
+    }
+}
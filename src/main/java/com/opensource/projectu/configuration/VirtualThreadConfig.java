@@ -0,0 +1,40 @@
+package com.opensource.projectu.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every request on its own virtual thread instead of Tomcat's fixed pool of platform threads.
+ * The blocking Mongo driver is called on the request thread, so its calls run on virtual threads as well.
+ * Virtual threads require Java 21, the executor is looked up reflectively so the project still builds for Java 11.
+ */
+@Configuration
+@Profile("virtual-threads")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        var executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(
+                    "The virtual-threads profile requires Java 21 or newer, but is running on Java " + Runtime.version() + ".", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual thread executor could not be created.", e);
+        }
+    }
+}
@@ -1,15 +1,38 @@
 package com.opensource.projectu.configuration;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    /**
+     * Lets browsers cache preflight responses instead of sending an OPTIONS request before every write.
+     */
+    static final long CORS_MAX_AGE_SECONDS = 3600;
+    static final String[] CORS_ALLOWED_METHODS = {"PUT", "PATCH", "DELETE", "GET", "POST"};
+    static final String[] CORS_EXPOSED_HEADERS = {"ETag", "X-Next-Cursor", "X-Total-Count", "Retry-After"};
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
-                .allowedMethods("PUT", "DELETE", "GET", "POST");
+                .allowedMethods(CORS_ALLOWED_METHODS)
+                .exposedHeaders(CORS_EXPOSED_HEADERS)
+                .maxAge(CORS_MAX_AGE_SECONDS);
+    }
+
+    /**
+     * The same configuration as the mapping above, for filters which answer requests before they reach Spring MVC.
+     */
+    public static CorsConfiguration corsConfiguration() {
+        var configuration = new CorsConfiguration().applyPermitDefaultValues();
+        configuration.setAllowedMethods(List.of(CORS_ALLOWED_METHODS));
+        configuration.setExposedHeaders(List.of(CORS_EXPOSED_HEADERS));
+        configuration.setMaxAge(CORS_MAX_AGE_SECONDS);
+        return configuration;
     }
 }
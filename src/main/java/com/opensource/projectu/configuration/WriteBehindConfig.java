@@ -0,0 +1,37 @@
+package com.opensource.projectu.configuration;
+
+import com.opensource.projectu.repository.ProjectRepository;
+import com.opensource.projectu.writebehind.CoalescingTaskUpdateWriter;
+import com.opensource.projectu.writebehind.DirectTaskUpdateWriter;
+import com.opensource.projectu.writebehind.TaskUpdateWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Selects how replaced tasks are written: each right away (default),
+ * or coalesced per project within a short window.
+ */
+@Configuration
+public class WriteBehindConfig {
+
+    static final String WRITE_BEHIND_PROPERTY = "projectu.tasks.write-behind.enabled";
+
+    @Bean
+    @ConditionalOnProperty(name = WRITE_BEHIND_PROPERTY, havingValue = "false", matchIfMissing = true)
+    public TaskUpdateWriter directTaskUpdateWriter(ProjectRepository projectRepository) {
+        return new DirectTaskUpdateWriter(projectRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = WRITE_BEHIND_PROPERTY, havingValue = "true")
+    public TaskUpdateWriter coalescingTaskUpdateWriter(ProjectRepository projectRepository, MeterRegistry meterRegistry,
+                                                       @Value("${projectu.tasks.write-behind.window:20ms}") Duration window,
+                                                       @Value("${projectu.tasks.write-behind.max-pending:1000}") int maxPendingUpdates) {
+        return new CoalescingTaskUpdateWriter(projectRepository, window, maxPendingUpdates, meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.opensource.projectu.controller;
+
+import com.opensource.projectu.openapi.model.ProjectChange;
+import com.opensource.projectu.service.ProjectChangeService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serves the change stream documented as streamChanges in the OpenAPI spec, in blocking as well as in reactive mode.
+ * It does not implement the generated API, as the generated blocking interface can not stream a response.
+ */
+@RestController
+@AllArgsConstructor
+public class ProjectChangeController {
+
+    private final ProjectChangeService changeService;
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProjectChange>> streamChanges(
+            @RequestParam(value = "projectId", required = false) List<UUID> projectId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeService.streamChanges(projectId, lastEventId);
+    }
+}
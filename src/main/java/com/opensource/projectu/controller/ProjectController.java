@@ -1,10 +1,21 @@
 package com.opensource.projectu.controller;
 
+import com.opensource.projectu.openapi.model.BatchResult;
+import com.opensource.projectu.openapi.model.Complexity;
 import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectDelta;
 import com.opensource.projectu.openapi.api.ProjectsApi;
+import com.opensource.projectu.openapi.model.ProjectBatchRequest;
+import com.opensource.projectu.openapi.model.ProjectPatch;
+import com.opensource.projectu.openapi.model.ProjectStats;
+import com.opensource.projectu.openapi.model.State;
 import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.repository.ProjectFilter;
+import com.opensource.projectu.service.BatchService;
 import com.opensource.projectu.service.ProjectService;
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,28 +24,78 @@ import java.util.UUID;
 
 @RestController
 @AllArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ProjectController implements ProjectsApi {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final ProjectService projectService;
+    private final BatchService batchService;
+
+    @Override
+    public ResponseEntity<List<Project>> getAllProjects(Integer limit, String after, String order,
+                                                        State state, Complexity complexity,
+                                                        Long createdFrom, Long createdTo,
+                                                        Integer minEstimatedDurationInHours,
+                                                        Integer maxEstimatedDurationInHours,
+                                                        List<String> fields, List<String> exclude) {
+        var filter = buildFilter(state, complexity, createdFrom, createdTo,
+                minEstimatedDurationInHours, maxEstimatedDurationInHours);
+        var page = projectService.getAllProjects(limit, after, order, filter, fields, exclude);
+        var headers = new HttpHeaders();
+        if(page.getNextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return new ResponseEntity<>(page.getProjects(), headers, HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<ProjectStats> getProjectStats(State state, Complexity complexity,
+                                                        Long createdFrom, Long createdTo,
+                                                        Integer minEstimatedDurationInHours,
+                                                        Integer maxEstimatedDurationInHours) {
+        var filter = buildFilter(state, complexity, createdFrom, createdTo,
+                minEstimatedDurationInHours, maxEstimatedDurationInHours);
+        return new ResponseEntity<>(projectService.getProjectStats(filter), HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<ProjectDelta> getProjectChanges(String since, Integer limit) {
+        return new ResponseEntity<>(projectService.getProjectChanges(since, limit), HttpStatus.OK);
+    }
+
+    static ProjectFilter buildFilter(State state, Complexity complexity, Long createdFrom, Long createdTo,
+                                     Integer minEstimatedDurationInHours, Integer maxEstimatedDurationInHours) {
+        return ProjectFilter.builder()
+                .state(state)
+                .complexity(complexity)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .minEstimatedDurationInHours(minEstimatedDurationInHours)
+                .maxEstimatedDurationInHours(maxEstimatedDurationInHours)
+                .build();
+    }
 
     @Override
-    public ResponseEntity<List<Project>> getAllProjects() {
-        return new ResponseEntity<>(projectService.getAllProjects(), HttpStatus.OK);
+    public ResponseEntity<Project> getProjectById(UUID id, List<String> fields, List<String> exclude,
+                                                  String ifNoneMatch) {
+        return projectService.getProjectById(id, fields, exclude, ifNoneMatch);
     }
 
     @Override
-    public ResponseEntity<Project> getProjectById(UUID id) {
-        return new ResponseEntity<>(projectService.getProjectById(id), HttpStatus.OK);
+    public ResponseEntity<Project> createProject(Project project, String idempotencyKey) {
+        return new ResponseEntity<>(projectService.createProject(project, idempotencyKey), HttpStatus.CREATED);
     }
 
     @Override
-    public ResponseEntity<Project> createProject(Project project) {
-        return new ResponseEntity<>(projectService.createProject(project), HttpStatus.CREATED);
+    public ResponseEntity<Project> updateProject(UUID id, Project project, String ifMatch) {
+        return projectService.updateProject(id, project, ifMatch);
     }
 
     @Override
-    public ResponseEntity<Project> updateProject(UUID id, Project project) {
-        return projectService.updateProject(id, project);
+    public ResponseEntity<Project> patchProject(UUID id, ProjectPatch projectPatch, String ifMatch) {
+        return projectService.patchProject(id, projectPatch, ifMatch);
     }
 
     @Override
@@ -44,7 +105,20 @@ public class ProjectController implements ProjectsApi {
     }
 
     @Override
-    public ResponseEntity<Project> createTask(UUID id, Task task) {
-        return new ResponseEntity<>(projectService.createTask(id, task), HttpStatus.CREATED);
+    public ResponseEntity<BatchResult> batchProjects(ProjectBatchRequest projectBatchRequest) {
+        return new ResponseEntity<>(batchService.batchProjects(projectBatchRequest), HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<List<Task>> getProjectTasks(UUID id, Integer offset, Integer limit, Boolean done) {
+        var page = projectService.getProjectTasks(id, offset, limit, done);
+        var headers = new HttpHeaders();
+        headers.set(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalCount()));
+        return new ResponseEntity<>(page.getTasks(), headers, HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<Project> createTask(UUID id, Task task, String idempotencyKey) {
+        return new ResponseEntity<>(projectService.createTask(id, task, idempotencyKey), HttpStatus.CREATED);
     }
 }
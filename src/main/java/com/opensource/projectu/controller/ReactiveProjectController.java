@@ -0,0 +1,147 @@
+package com.opensource.projectu.controller;
+
+import com.opensource.projectu.openapi.model.BatchResult;
+import com.opensource.projectu.openapi.model.Complexity;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectDelta;
+import com.opensource.projectu.openapi.model.ProjectBatchRequest;
+import com.opensource.projectu.openapi.model.ProjectPatch;
+import com.opensource.projectu.openapi.model.ProjectStats;
+import com.opensource.projectu.openapi.model.State;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.reactive.api.ProjectsApi;
+import com.opensource.projectu.service.BatchService;
+import com.opensource.projectu.service.ReactiveProjectService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.opensource.projectu.controller.ProjectController.NEXT_CURSOR_HEADER;
+import static com.opensource.projectu.controller.ProjectController.TOTAL_COUNT_HEADER;
+import static com.opensource.projectu.controller.ProjectController.buildFilter;
+
+@RestController
+@AllArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProjectController implements ProjectsApi {
+
+    private final ReactiveProjectService projectService;
+    private final BatchService batchService;
+
+    @Override
+    public Mono<ResponseEntity<Flux<Project>>> getAllProjects(Integer limit, String after, String order,
+                                                              State state, Complexity complexity,
+                                                              Long createdFrom, Long createdTo,
+                                                              Integer minEstimatedDurationInHours,
+                                                              Integer maxEstimatedDurationInHours,
+                                                              List<String> fields, List<String> exclude,
+                                                              ServerWebExchange exchange) {
+        var filter = buildFilter(state, complexity, createdFrom, createdTo,
+                minEstimatedDurationInHours, maxEstimatedDurationInHours);
+        return projectService.getAllProjects(limit, after, order, filter, fields, exclude)
+                .map(page -> {
+                    var headers = new HttpHeaders();
+                    if(page.getNextCursor() != null) {
+                        headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+                    }
+                    return new ResponseEntity<>(Flux.fromIterable(page.getProjects()), headers, HttpStatus.OK);
+                });
+    }
+
+    @Override
+    public Mono<ResponseEntity<ProjectStats>> getProjectStats(State state, Complexity complexity,
+                                                              Long createdFrom, Long createdTo,
+                                                              Integer minEstimatedDurationInHours,
+                                                              Integer maxEstimatedDurationInHours,
+                                                              ServerWebExchange exchange) {
+        var filter = buildFilter(state, complexity, createdFrom, createdTo,
+                minEstimatedDurationInHours, maxEstimatedDurationInHours);
+        return projectService.getProjectStats(filter)
+                .map(stats -> new ResponseEntity<>(stats, HttpStatus.OK));
+    }
+
+    @Override
+    public Mono<ResponseEntity<ProjectDelta>> getProjectChanges(String since, Integer limit,
+                                                                ServerWebExchange exchange) {
+        return projectService.getProjectChanges(since, limit)
+                .map(delta -> new ResponseEntity<>(delta, HttpStatus.OK));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Project>> getProjectById(UUID id, List<String> fields, List<String> exclude,
+                                                        String ifNoneMatch, ServerWebExchange exchange) {
+        return projectService.getProjectById(id, fields, exclude, ifNoneMatch);
+    }
+
+    /**
+     * Idempotency keys are only supported in servlet mode.
+     */
+    @Override
+    public Mono<ResponseEntity<Project>> createProject(Mono<Project> project, String idempotencyKey,
+                                                       ServerWebExchange exchange) {
+        return project.flatMap(projectService::createProject)
+                .map(createdProject -> new ResponseEntity<>(createdProject, HttpStatus.CREATED));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Project>> updateProject(UUID id, Mono<Project> project, String ifMatch,
+                                                       ServerWebExchange exchange) {
+        return project.flatMap(updatedProject -> projectService.updateProject(id, updatedProject, ifMatch));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Project>> patchProject(UUID id, Mono<ProjectPatch> projectPatch, String ifMatch,
+                                                      ServerWebExchange exchange) {
+        return projectPatch.flatMap(patch -> projectService.patchProject(id, patch, ifMatch));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> deleteProject(UUID id, ServerWebExchange exchange) {
+        return projectService.deleteProject(id)
+                .then(Mono.just(new ResponseEntity<>(HttpStatus.NO_CONTENT)));
+    }
+
+    /**
+     * Spring Data has no reactive bulk operations yet,
+     * so the blocking batch is executed off the event loop.
+     */
+    @Override
+    public Mono<ResponseEntity<BatchResult>> batchProjects(Mono<ProjectBatchRequest> projectBatchRequest,
+                                                           ServerWebExchange exchange) {
+        return projectBatchRequest
+                .publishOn(Schedulers.boundedElastic())
+                .map(batchService::batchProjects)
+                .map(result -> new ResponseEntity<>(result, HttpStatus.OK));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<Task>>> getProjectTasks(UUID id, Integer offset, Integer limit, Boolean done,
+                                                            ServerWebExchange exchange) {
+        return projectService.getProjectTasks(id, offset, limit, done)
+                .map(page -> {
+                    var headers = new HttpHeaders();
+                    headers.set(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalCount()));
+                    return new ResponseEntity<>(Flux.fromIterable(page.getTasks()), headers, HttpStatus.OK);
+                });
+    }
+
+    /**
+     * Idempotency keys are only supported in servlet mode.
+     */
+    @Override
+    public Mono<ResponseEntity<Project>> createTask(UUID id, Mono<Task> task, String idempotencyKey,
+                                                    ServerWebExchange exchange) {
+        return task.flatMap(createdTask -> projectService.createTask(id, createdTask))
+                .map(project -> new ResponseEntity<>(project, HttpStatus.CREATED));
+    }
+}
@@ -0,0 +1,65 @@
+package com.opensource.projectu.controller;
+
+import com.opensource.projectu.openapi.model.BatchResult;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.TaskBatchRequest;
+import com.opensource.projectu.openapi.model.TaskPatch;
+import com.opensource.projectu.openapi.reactive.api.TasksApi;
+import com.opensource.projectu.service.BatchService;
+import com.opensource.projectu.service.ReactiveTaskService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.UUID;
+
+@RestController
+@AllArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskController implements TasksApi {
+
+    private final ReactiveTaskService taskService;
+    private final BatchService batchService;
+
+    @Override
+    public Mono<ResponseEntity<Task>> getTaskById(UUID id, String ifNoneMatch, ServerWebExchange exchange) {
+        return taskService.getTaskById(id, ifNoneMatch);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Task>> updateTask(UUID id, Mono<Task> task, String ifMatch,
+                                                 ServerWebExchange exchange) {
+        return task.flatMap(updatedTask -> taskService.updateTask(id, updatedTask, ifMatch));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Task>> patchTask(UUID id, Mono<TaskPatch> taskPatch, String ifMatch,
+                                                ServerWebExchange exchange) {
+        return taskPatch.flatMap(patch -> taskService.patchTask(id, patch, ifMatch));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Project>> deleteTask(UUID id, ServerWebExchange exchange) {
+        return taskService.deleteTask(id)
+                .map(project -> new ResponseEntity<>(project, HttpStatus.OK));
+    }
+
+    /**
+     * Spring Data has no reactive bulk operations yet,
+     * so the blocking batch is executed off the event loop.
+     */
+    @Override
+    public Mono<ResponseEntity<BatchResult>> batchTasks(Mono<TaskBatchRequest> taskBatchRequest,
+                                                        ServerWebExchange exchange) {
+        return taskBatchRequest
+                .publishOn(Schedulers.boundedElastic())
+                .map(batchService::batchTasks)
+                .map(result -> new ResponseEntity<>(result, HttpStatus.OK));
+    }
+}
@@ -1,10 +1,15 @@
 package com.opensource.projectu.controller;
 
 import com.opensource.projectu.openapi.api.TasksApi;
+import com.opensource.projectu.openapi.model.BatchResult;
 import com.opensource.projectu.openapi.model.Project;
 import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.TaskBatchRequest;
+import com.opensource.projectu.openapi.model.TaskPatch;
+import com.opensource.projectu.service.BatchService;
 import com.opensource.projectu.service.TaskService;
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,22 +17,34 @@ import java.util.UUID;
 
 @RestController
 @AllArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TaskController implements TasksApi {
 
     private final TaskService taskService;
+    private final BatchService batchService;
 
     @Override
-    public ResponseEntity<Task> getTaskById(UUID id) {
-        return new ResponseEntity<>(taskService.getTaskById(id), HttpStatus.OK);
+    public ResponseEntity<Task> getTaskById(UUID id, String ifNoneMatch) {
+        return taskService.getTaskById(id, ifNoneMatch);
     }
 
     @Override
-    public ResponseEntity<Task> updateTask(UUID id, Task task) {
-        return new ResponseEntity<>(taskService.updateTask(id, task), HttpStatus.OK);
+    public ResponseEntity<Task> updateTask(UUID id, Task task, String ifMatch) {
+        return taskService.updateTask(id, task, ifMatch);
+    }
+
+    @Override
+    public ResponseEntity<Task> patchTask(UUID id, TaskPatch taskPatch, String ifMatch) {
+        return taskService.patchTask(id, taskPatch, ifMatch);
     }
 
     @Override
     public ResponseEntity<Project> deleteTask(UUID id) {
         return new ResponseEntity<>(taskService.deleteTask(id), HttpStatus.OK);
     }
+
+    @Override
+    public ResponseEntity<BatchResult> batchTasks(TaskBatchRequest taskBatchRequest) {
+        return new ResponseEntity<>(batchService.batchTasks(taskBatchRequest), HttpStatus.OK);
+    }
 }
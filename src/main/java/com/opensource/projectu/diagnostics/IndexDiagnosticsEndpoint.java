@@ -0,0 +1,24 @@
+package com.opensource.projectu.diagnostics;
+
+import com.opensource.projectu.repository.IndexReport;
+import com.opensource.projectu.repository.MongoIndexManager;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the state of the required MongoDB indexes under /actuator/indexes.
+ */
+@Component
+@Endpoint(id = "indexes")
+@AllArgsConstructor
+public class IndexDiagnosticsEndpoint {
+
+    private final MongoIndexManager indexManager;
+
+    @ReadOperation
+    public IndexReport indexes() {
+        return indexManager.checkIndexes();
+    }
+}
@@ -0,0 +1,131 @@
+package com.opensource.projectu.diagnostics;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.repository.CollectionTaskStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the BSON size and the number of tasks of a random sample of the project documents, periodically.
+ * The sizes are computed by MongoDB with $bsonSize (MongoDB 4.4 and later), so the requests don't pay
+ * for encoding the projects again, and writes of every kind are reflected. Works in blocking and reactive mode.
+ */
+@Slf4j
+@Component
+public class ProjectDocumentMetrics {
+
+    private static final double MAX_DOCUMENT_SIZE = 16 * 1024 * 1024;
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration interval;
+    private final int sampleSize;
+    private final boolean taskCollection;
+    private final DistributionSummary documentSizes;
+    private final DistributionSummary taskCounts;
+    private ScheduledExecutorService sampler;
+
+    public ProjectDocumentMetrics(MeterRegistry meterRegistry, MongoTemplate mongoTemplate,
+                                  @Value("${projectu.diagnostics.document-metrics.interval:5m}") Duration interval,
+                                  @Value("${projectu.diagnostics.document-metrics.sample-size:1000}") int sampleSize,
+                                  @Value("${projectu.tasks.storage:embedded}") String taskStorage) {
+        this.mongoTemplate = mongoTemplate;
+        this.interval = interval;
+        this.sampleSize = sampleSize;
+        taskCollection = "collection".equals(taskStorage);
+        documentSizes = DistributionSummary.builder("projectu.project.document.size")
+                .description("BSON size of sampled project documents")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(256.0)
+                .maximumExpectedValue(MAX_DOCUMENT_SIZE)
+                .register(meterRegistry);
+        taskCounts = DistributionSummary.builder("projectu.project.tasks")
+                .description("Number of tasks of sampled projects")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100_000.0)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if(sampler == null && !interval.isZero()) {
+            sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "project-document-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sampler.scheduleWithFixedDelay(this::sample, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if(sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    void sample() {
+        try {
+            var results = mongoTemplate.aggregate(
+                    Aggregation.newAggregation(sampleStages()),
+                    mongoTemplate.getCollectionName(Project.class),
+                    Document.class);
+            for(var result : results) {
+                documentSizes.record(result.get("size", Number.class).doubleValue());
+                taskCounts.record(result.get("taskCount", Number.class).doubleValue());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Project documents could not be sampled: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The size is taken before anything is added to the sampled documents. In the collection layout
+     * the tasks of each sampled project are counted on the projectId index of the task collection.
+     */
+    List<AggregationOperation> sampleStages() {
+        var stages = new ArrayList<AggregationOperation>();
+        stages.add(stage(new Document("$sample", new Document("size", sampleSize))));
+        stages.add(stage(new Document("$project", new Document()
+                .append("size", new Document("$bsonSize", "$$ROOT"))
+                .append("taskCount", new Document("$size", new Document("$ifNull", List.of("$tasks", List.of())))))));
+        if(taskCollection) {
+            stages.add(stage(new Document("$lookup", new Document()
+                    .append("from", CollectionTaskStore.TASK_COLLECTION)
+                    .append("let", new Document("projectId", "$_id"))
+                    .append("pipeline", List.of(
+                            new Document("$match", new Document("$expr",
+                                    new Document("$eq", List.of("$projectId", "$$projectId")))),
+                            new Document("$count", "count")))
+                    .append("as", "tasks"))));
+            stages.add(stage(new Document("$project", new Document()
+                    .append("size", 1)
+                    .append("taskCount", new Document("$ifNull", List.of(new Document("$first", "$tasks.count"), 0))))));
+        }
+        return stages;
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+}
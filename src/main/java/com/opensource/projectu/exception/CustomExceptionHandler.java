@@ -1,5 +1,6 @@
 package com.opensource.projectu.exception;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,9 +10,11 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import javax.validation.ConstraintViolationException;
 import java.time.ZonedDateTime;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(value = ProjectNotFoundException.class)
@@ -36,6 +39,76 @@ public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
                 status);
     }
 
+    @ExceptionHandler(value = PreconditionFailedException.class)
+    public ResponseEntity<CustomErrorResponse> handlePreconditionFailed(PreconditionFailedException e) {
+        var status = HttpStatus.PRECONDITION_FAILED;
+        return new ResponseEntity<>(CustomErrorResponse.builder()
+                .message(e.getMessage())
+                .httpStatus(status)
+                .timestamp(ZonedDateTime.now())
+                .build(),
+                status);
+    }
+
+    @ExceptionHandler(value = IdempotencyKeyInUseException.class)
+    public ResponseEntity<CustomErrorResponse> handleIdempotencyKeyInUse(IdempotencyKeyInUseException e) {
+        var status = HttpStatus.CONFLICT;
+        return new ResponseEntity<>(CustomErrorResponse.builder()
+                .message(e.getMessage())
+                .httpStatus(status)
+                .timestamp(ZonedDateTime.now())
+                .build(),
+                status);
+    }
+
+    @ExceptionHandler(value = IdempotencyKeyMismatchException.class)
+    public ResponseEntity<CustomErrorResponse> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException e) {
+        var status = HttpStatus.UNPROCESSABLE_ENTITY;
+        return new ResponseEntity<>(CustomErrorResponse.builder()
+                .message(e.getMessage())
+                .httpStatus(status)
+                .timestamp(ZonedDateTime.now())
+                .build(),
+                status);
+    }
+
+    @ExceptionHandler(value = SyncTokenExpiredException.class)
+    public ResponseEntity<CustomErrorResponse> handleSyncTokenExpired(SyncTokenExpiredException e) {
+        var status = HttpStatus.GONE;
+        return new ResponseEntity<>(CustomErrorResponse.builder()
+                .message(e.getMessage())
+                .httpStatus(status)
+                .timestamp(ZonedDateTime.now())
+                .build(),
+                status);
+    }
+
+    /**
+     * Overload passes within moments, the client may retry after a second.
+     */
+    @ExceptionHandler(value = DatabaseOverloadedException.class)
+    public ResponseEntity<CustomErrorResponse> handleDatabaseOverloaded(DatabaseOverloadedException e) {
+        var status = HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(CustomErrorResponse.builder()
+                        .message(e.getMessage())
+                        .httpStatus(status)
+                        .timestamp(ZonedDateTime.now())
+                        .build());
+    }
+
+    @ExceptionHandler(value = {InvalidParameterException.class, ConstraintViolationException.class})
+    public ResponseEntity<CustomErrorResponse> handleInvalidParameter(RuntimeException e) {
+        var status = HttpStatus.BAD_REQUEST;
+        return new ResponseEntity<>(CustomErrorResponse.builder()
+                .message(e.getMessage())
+                .httpStatus(status)
+                .timestamp(ZonedDateTime.now())
+                .build(),
+                status);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<CustomErrorResponse> handleOtherExceptions(Exception e) {
         var status = HttpStatus.INTERNAL_SERVER_ERROR;
@@ -0,0 +1,11 @@
+package com.opensource.projectu.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DatabaseOverloadedException extends RuntimeException {
+    public DatabaseOverloadedException() {
+        super("The database is overloaded, retry later.");
+    }
+}
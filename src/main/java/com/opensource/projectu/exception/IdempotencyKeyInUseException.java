@@ -0,0 +1,11 @@
+package com.opensource.projectu.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInUseException extends RuntimeException {
+    public IdempotencyKeyInUseException(String key) {
+        super("Request with Idempotency-Key "+ key +" is still in progress, retry later.");
+    }
+}
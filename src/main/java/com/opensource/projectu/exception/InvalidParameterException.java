@@ -0,0 +1,11 @@
+package com.opensource.projectu.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidParameterException extends RuntimeException {
+    public InvalidParameterException(String name, String value) {
+        super("Parameter "+ name +" with value "+ value +" is invalid.");
+    }
+}
@@ -0,0 +1,11 @@
+package com.opensource.projectu.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String eTag) {
+        super("ETag "+ eTag +" does not match the current version.");
+    }
+}
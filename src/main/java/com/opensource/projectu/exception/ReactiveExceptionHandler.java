@@ -0,0 +1,64 @@
+package com.opensource.projectu.exception;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.ConstraintViolationException;
+import java.time.ZonedDateTime;
+
+/**
+ * Maps exceptions of the reactive controllers to the same error responses as {@link CustomExceptionHandler}.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(value = {ProjectNotFoundException.class, TaskNotFoundException.class})
+    public ResponseEntity<CustomErrorResponse> handleNotFound(RuntimeException e) {
+        return errorResponse(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(value = {InvalidParameterException.class, ConstraintViolationException.class})
+    public ResponseEntity<CustomErrorResponse> handleInvalidParameter(RuntimeException e) {
+        return errorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(value = PreconditionFailedException.class)
+    public ResponseEntity<CustomErrorResponse> handlePreconditionFailed(PreconditionFailedException e) {
+        return errorResponse(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+    }
+
+    @ExceptionHandler(value = SyncTokenExpiredException.class)
+    public ResponseEntity<CustomErrorResponse> handleSyncTokenExpired(SyncTokenExpiredException e) {
+        return errorResponse(HttpStatus.GONE, e.getMessage());
+    }
+
+    @ExceptionHandler(value = WebExchangeBindException.class)
+    public ResponseEntity<CustomErrorResponse> handleInvalidBody(WebExchangeBindException e) {
+        return errorResponse(e.getStatus(), "ERROR: Project is invalid. Reason: " + e.getMessage());
+    }
+
+    @ExceptionHandler(value = ResponseStatusException.class)
+    public ResponseEntity<CustomErrorResponse> handleResponseStatus(ResponseStatusException e) {
+        return errorResponse(e.getStatus(), e.getMessage());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<CustomErrorResponse> handleOtherExceptions(Exception e) {
+        return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected Error: " + e.getMessage());
+    }
+
+    private static ResponseEntity<CustomErrorResponse> errorResponse(HttpStatus status, String message) {
+        return new ResponseEntity<>(CustomErrorResponse.builder()
+                .message(message)
+                .httpStatus(status)
+                .timestamp(ZonedDateTime.now())
+                .build(),
+                status);
+    }
+}
@@ -0,0 +1,11 @@
+package com.opensource.projectu.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class SyncTokenExpiredException extends RuntimeException {
+    public SyncTokenExpiredException(String token) {
+        super("Sync token "+ token +" is expired, the projects have to be synced again without a token.");
+    }
+}
@@ -0,0 +1,41 @@
+package com.opensource.projectu.ratelimit;
+
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Endpoints are limited by class. Lists and aggregations read many projects per request,
+ * so they get a stricter budget than the reads of single projects and tasks.
+ */
+public enum EndpointClass {
+    LIST,
+    READ,
+    WRITE;
+
+    private static final Set<String> LIST_PATHS = Set.of("/projects", "/projects/stats", "/projects/changes");
+    private static final Pattern TASK_LIST_PATH = Pattern.compile("/projects/[^/]+/tasks");
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    static EndpointClass of(HttpServletRequest request) {
+        if(!READ_METHODS.contains(request.getMethod())) {
+            return WRITE;
+        }
+        var path = pathOf(request);
+        return "GET".equals(request.getMethod())
+                && (LIST_PATHS.contains(path) || TASK_LIST_PATH.matcher(path).matches())
+                ? LIST
+                : READ;
+    }
+
+    /**
+     * The path as matched by Spring MVC: decoded, without ;parameters and duplicate slashes,
+     * and without a trailing slash, which is matched as well.
+     */
+    static String pathOf(HttpServletRequest request) {
+        var path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
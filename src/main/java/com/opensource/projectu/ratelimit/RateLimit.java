@@ -0,0 +1,12 @@
+package com.opensource.projectu.ratelimit;
+
+import lombok.Value;
+
+/**
+ * A client may send up to capacity requests at once, and afterwards refillPerSecond requests per second.
+ */
+@Value
+public class RateLimit {
+    long capacity;
+    double refillPerSecond;
+}
@@ -0,0 +1,175 @@
+package com.opensource.projectu.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.opensource.projectu.exception.CustomErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Rejects requests before they reach the controllers, so a single client can not saturate the database:
+ * <ul>
+ *     <li>Every client has a token bucket per {@link EndpointClass}, requests exceeding it get 429.</li>
+ *     <li>Requests exceeding the maximum number of requests in progress of all clients get 503.</li>
+ * </ul>
+ * Both carry a Retry-After header and, as Spring MVC is not reached, the CORS headers, so browsers can read it.
+ * CORS preflight requests are not limited, a rejected preflight fails the request before its response is read.
+ * Clients are told apart by the configured header, e.g. an API key
+ * validated by a gateway in front of the service, or by their address if the header is missing.
+ * The buckets of inactive clients are dropped, so the number of buckets stays bounded.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final int MAX_CLIENT_KEY_LENGTH = 128;
+    private static final Duration IDLE_BUCKET_EXPIRY = Duration.ofMinutes(10);
+    private static final long MAX_BUCKETS = 100_000;
+    private static final long OVERLOAD_RETRY_AFTER_SECONDS = 1;
+
+    private final Map<EndpointClass, RateLimit> limits;
+    private final String clientHeader;
+    private final int maxConcurrentRequests;
+    private final Semaphore requestsInProgress;
+    private final CorsConfiguration corsConfiguration;
+    private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final ObjectMapper objectMapper;
+    private final LongSupplier nanoTime;
+    private final Map<EndpointClass, Counter> allowedRequests = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> limitedRequests = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> shedRequests = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(Map<EndpointClass, RateLimit> limits, String clientHeader, int maxConcurrentRequests,
+                           CorsConfiguration corsConfiguration, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(limits, clientHeader, maxConcurrentRequests, corsConfiguration, objectMapper, meterRegistry, System::nanoTime);
+    }
+
+    RateLimitFilter(Map<EndpointClass, RateLimit> limits, String clientHeader, int maxConcurrentRequests,
+                    CorsConfiguration corsConfiguration, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                    LongSupplier nanoTime) {
+        this.limits = limits;
+        this.clientHeader = clientHeader;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.corsConfiguration = corsConfiguration;
+        this.objectMapper = objectMapper;
+        this.nanoTime = nanoTime;
+        requestsInProgress = new Semaphore(maxConcurrentRequests);
+        buckets = Caffeine.newBuilder()
+                .maximumSize(MAX_BUCKETS)
+                .expireAfterAccess(IDLE_BUCKET_EXPIRY)
+                .build();
+
+        for(var endpointClass : EndpointClass.values()) {
+            allowedRequests.put(endpointClass, requestCounter(meterRegistry, endpointClass, "allowed"));
+            limitedRequests.put(endpointClass, requestCounter(meterRegistry, endpointClass, "limited"));
+            shedRequests.put(endpointClass, requestCounter(meterRegistry, endpointClass, "shed"));
+        }
+        Gauge.builder("projectu.rate-limit.in-progress", this, RateLimitFilter::inProgressCount)
+                .description("Number of requests in progress")
+                .register(meterRegistry);
+        Gauge.builder("projectu.rate-limit.clients", buckets, Cache::estimatedSize)
+                .description("Number of token buckets of recently active clients")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if(CorsUtils.isPreFlightRequest(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        var endpointClass = EndpointClass.of(request);
+        var bucket = buckets.get(new BucketKey(clientOf(request), endpointClass),
+                key -> new TokenBucket(limits.get(endpointClass), nanoTime.getAsLong()));
+        var waitNanos = bucket.tryConsume(nanoTime.getAsLong());
+        if(waitNanos > 0) {
+            limitedRequests.get(endpointClass).increment();
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, secondsOf(waitNanos),
+                    "Too many " + endpointClass.name().toLowerCase() + " requests, retry later.");
+            return;
+        }
+        if(!requestsInProgress.tryAcquire()) {
+            shedRequests.get(endpointClass).increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOAD_RETRY_AFTER_SECONDS,
+                    "The service is overloaded, retry later.");
+            return;
+        }
+        allowedRequests.get(endpointClass).increment();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            requestsInProgress.release();
+        }
+    }
+
+    int inProgressCount() {
+        return maxConcurrentRequests - requestsInProgress.availablePermits();
+    }
+
+    /**
+     * Overlong header values are not used as keys, they would let a client grow the buckets without bound.
+     */
+    private String clientOf(HttpServletRequest request) {
+        var client = clientHeader.isEmpty() ? null : request.getHeader(clientHeader);
+        return client == null || client.isEmpty() || client.length() > MAX_CLIENT_KEY_LENGTH
+                ? "address:" + request.getRemoteAddr()
+                : "key:" + client;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                        long retryAfterSeconds, String message) throws IOException {
+        if(CorsUtils.isCorsRequest(request) && !corsProcessor.processRequest(corsConfiguration, request, response)) {
+            return;
+        }
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), CustomErrorResponse.builder()
+                .message(message)
+                .httpStatus(status)
+                .timestamp(ZonedDateTime.now())
+                .build());
+    }
+
+    private static long secondsOf(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, EndpointClass endpointClass, String outcome) {
+        return Counter.builder("projectu.rate-limit.requests")
+                .description("Number of requests passing the rate limiter, by endpoint class and outcome")
+                .tag("endpoint", endpointClass.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Value
+    private static class BucketKey {
+        String client;
+        EndpointClass endpointClass;
+    }
+}
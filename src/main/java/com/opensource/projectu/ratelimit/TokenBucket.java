@@ -0,0 +1,34 @@
+package com.opensource.projectu.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds up to the capacity of the limit in tokens, which are refilled continuously. Every request takes a token.
+ */
+final class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(RateLimit limit, long now) {
+        capacity = limit.getCapacity();
+        tokensPerNano = limit.getRefillPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        tokens = capacity;
+        refilledAt = now;
+    }
+
+    /**
+     * Takes a token and returns 0, or returns the nanoseconds until the next token if the bucket is empty.
+     */
+    synchronized long tryConsume(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if(tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
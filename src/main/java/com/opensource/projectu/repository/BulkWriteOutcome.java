@@ -0,0 +1,21 @@
+package com.opensource.projectu.repository;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of a bulk write. Indexes refer to the position of the write in the submitted list.
+ * MongoDB only reports the documents matched, inserted and deleted by all writes together.
+ */
+@Builder
+@Value
+public class BulkWriteOutcome {
+    Set<Integer> upsertedIndexes;
+    Map<Integer, String> errors;
+    int matchedCount;
+    int insertedCount;
+    int deletedCount;
+}
@@ -0,0 +1,51 @@
+package com.opensource.projectu.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Executes bulk writes and collects their outcome. Shared by the project repository and the task stores.
+ */
+final class BulkWrites {
+
+    static BulkOperations.BulkMode bulkMode(boolean ordered) {
+        return ordered ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED;
+    }
+
+    static BulkWriteOutcome execute(BulkOperations bulkOperations, int writeCount) {
+        if(writeCount == 0) {
+            return BulkWriteOutcome.builder()
+                    .upsertedIndexes(Set.of())
+                    .errors(Map.of())
+                    .build();
+        }
+        try {
+            return outcome(bulkOperations.execute(), List.of());
+        } catch (BulkOperationException e) {
+            return outcome(e.getResult(), e.getErrors());
+        }
+    }
+
+    private static BulkWriteOutcome outcome(BulkWriteResult result, List<BulkWriteError> errors) {
+        return BulkWriteOutcome.builder()
+                .upsertedIndexes(result.getUpserts().stream()
+                        .map(BulkWriteUpsert::getIndex)
+                        .collect(Collectors.toSet()))
+                .errors(errors.stream()
+                        .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage)))
+                .matchedCount(result.getMatchedCount())
+                .insertedCount(result.getInsertedCount())
+                .deletedCount(result.getDeletedCount())
+                .build();
+    }
+
+    private BulkWrites() {}
+}
@@ -0,0 +1,471 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.opensource.projectu.repository.BulkWrites.bulkMode;
+import static com.opensource.projectu.repository.BulkWrites.execute;
+import static com.opensource.projectu.repository.ProjectQueries.byIdAndVersion;
+import static com.opensource.projectu.repository.ProjectQueries.changedTasks;
+import static com.opensource.projectu.repository.ProjectQueries.changesUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.modified;
+import static com.opensource.projectu.repository.ProjectQueries.patchUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.upsertUpdateWithoutTasks;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.getCurrentTimestamp;
+
+/**
+ * Stores every task as a document of its own in the task collection, keyed by the id of its project,
+ * so a task write is a small single-document write instead of an update of the whole project document,
+ * and the number of tasks of a project is not limited by the maximum document size.
+ * The project document only keeps the position of its next task, which orders the tasks,
+ * and its version, which is incremented by every task write.
+ */
+@Slf4j
+public class CollectionTaskStore implements TaskStore {
+
+    public static final String TASK_COLLECTION = "task";
+    static final String PROJECT_ID = "projectId";
+    static final String POSITION = "position";
+    static final String NEXT_POSITION = "nextTaskPosition";
+
+    static final List<Index> TASK_INDEXES = List.of(
+            new Index()
+                    .named("projectId_position")
+                    .on(PROJECT_ID, Sort.Direction.ASC)
+                    .on(POSITION, Sort.Direction.ASC),
+            new Index()
+                    .named("projectId_done_position")
+                    .on(PROJECT_ID, Sort.Direction.ASC)
+                    .on("done", Sort.Direction.ASC)
+                    .on(POSITION, Sort.Direction.ASC));
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean createIndexesOnStartup;
+
+    public CollectionTaskStore(MongoTemplate mongoTemplate, boolean createIndexesOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.createIndexesOnStartup = createIndexesOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if(createIndexesOnStartup) {
+            var thread = new Thread(this::ensureIndexes, "task-index-manager");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    void ensureIndexes() {
+        for(var index : TASK_INDEXES) {
+            try {
+                mongoTemplate.indexOps(TASK_COLLECTION).ensureIndex(index);
+            } catch (DataAccessException e) {
+                log.warn("Index {} could not be created: {}", index.getIndexOptions().get("name"), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public List<Project> withTasks(List<Project> projects) {
+        if(projects.isEmpty()) {
+            return projects;
+        }
+        var projectIds = projects.stream()
+                .map(Project::getId)
+                .collect(Collectors.toList());
+        var query = Query.query(Criteria.where(PROJECT_ID).in(projectIds))
+                .with(Sort.by(PROJECT_ID, POSITION));
+
+        var tasksByProjectId = new HashMap<UUID, List<Task>>();
+        for(var document : mongoTemplate.find(query, Document.class, TASK_COLLECTION)) {
+            tasksByProjectId.computeIfAbsent(document.get(PROJECT_ID, UUID.class), projectId -> new ArrayList<>())
+                    .add(toTask(document));
+        }
+        projects.forEach(project -> project.tasks(tasksByProjectId.getOrDefault(project.getId(), new ArrayList<>())));
+        return projects;
+    }
+
+    @Override
+    public Optional<Project> findProjectOfTask(UUID taskId) {
+        return findTaskKey(taskId)
+                .flatMap(taskKey -> findProject(taskKey.get(PROJECT_ID, UUID.class)));
+    }
+
+    @Override
+    public Optional<TaskPage> findTaskPage(UUID projectId, int offset, int limit, Boolean done) {
+        if(!mongoTemplate.exists(Query.query(Criteria.where("id").is(projectId)), Project.class)) {
+            return Optional.empty();
+        }
+        var criteria = Criteria.where(PROJECT_ID).is(projectId);
+        if(done != null) {
+            criteria.and("done").is(done);
+        }
+        var query = Query.query(criteria)
+                .with(Sort.by(POSITION))
+                .skip(offset)
+                .limit(limit);
+
+        return Optional.of(TaskPage.builder()
+                .tasks(mongoTemplate.find(query, Document.class, TASK_COLLECTION).stream()
+                        .map(this::toTask)
+                        .collect(Collectors.toList()))
+                .totalCount(mongoTemplate.count(Query.query(criteria), TASK_COLLECTION))
+                .build());
+    }
+
+    @Override
+    public List<AggregationOperation> lookupTasks() {
+        return List.of(context -> new Document("$lookup", new Document("from", TASK_COLLECTION)
+                .append("localField", "_id")
+                .append("foreignField", PROJECT_ID)
+                .append("as", "tasks")));
+    }
+
+    /**
+     * The position is reserved first, which also checks that the project exists.
+     * A duplicate task id is only detected by the insert, so the project version may have been incremented anyway.
+     */
+    @Override
+    public Optional<Project> pushTask(UUID projectId, Task task) {
+        var position = reservePositions(projectId, 1);
+        if(position == null) {
+            return Optional.empty();
+        }
+        try {
+            mongoTemplate.insert(toTaskDocument(task, projectId, position), TASK_COLLECTION);
+        } catch (DuplicateKeyException e) {
+            return Optional.empty();
+        }
+        return findProject(projectId);
+    }
+
+    /**
+     * The version of the project is incremented first, which also checks the given version.
+     * If the task was removed in the meantime, nothing is replaced and empty is returned,
+     * although the version may have been incremented anyway.
+     */
+    @Override
+    public Optional<Project> replaceTask(UUID taskId, Long version, Task task) {
+        var taskKey = findTaskKey(taskId);
+        if(taskKey.isEmpty()) {
+            return Optional.empty();
+        }
+        var projectId = taskKey.get().get(PROJECT_ID, UUID.class);
+        var query = byIdAndVersion(projectId, version);
+        query.fields().include("id").include("version");
+
+        var project = mongoTemplate.findAndModify(
+                query,
+                modified(new Update(), getCurrentTimestamp()),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+        if(project == null) {
+            return Optional.empty();
+        }
+        var replacedTask = mongoTemplate.findAndReplace(
+                byTaskId(taskId),
+                toTaskDocument(task, projectId, taskKey.get().get(POSITION, Number.class).longValue()),
+                TASK_COLLECTION);
+        return replacedTask == null ? Optional.empty() : Optional.of(project);
+    }
+
+    /**
+     * Like a single replaced task, the version of the project is incremented first.
+     * The task documents are then overwritten with one bulk write, if one of them was removed in the meantime
+     * or could not be written, empty is returned, so the tasks can be written one by one.
+     */
+    @Override
+    public Optional<Project> replaceTasks(UUID projectId, List<Task> tasks) {
+        var taskKeys = findTaskKeys(tasks.stream()
+                .map(Task::getId)
+                .collect(Collectors.toSet()));
+        if(taskKeys.size() != tasks.size() || taskKeys.values().stream()
+                .anyMatch(taskKey -> !projectId.equals(taskKey.get(PROJECT_ID, UUID.class)))) {
+            return Optional.empty();
+        }
+        var query = Query.query(Criteria.where("id").is(projectId));
+        query.fields().include("id").include("version");
+
+        var project = mongoTemplate.findAndModify(
+                query,
+                modified(new Update(), getCurrentTimestamp()),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+        if(project == null) {
+            return Optional.empty();
+        }
+        var bulkOperations = mongoTemplate.bulkOps(bulkMode(false), TASK_COLLECTION);
+        for(var task : tasks) {
+            bulkOperations.replaceOne(byTaskId(task.getId()), toTaskDocument(task, projectId,
+                    taskKeys.get(task.getId()).get(POSITION, Number.class).longValue()));
+        }
+        var outcome = execute(bulkOperations, tasks.size());
+        return outcome.getErrors().isEmpty() && outcome.getMatchedCount() == tasks.size()
+                ? Optional.of(project)
+                : Optional.empty();
+    }
+
+    /**
+     * Like a replaced task, the version of the project is incremented first, which also checks the given version.
+     * If the task was removed in the meantime, nothing is patched and empty is returned.
+     */
+    @Override
+    public Optional<Project> patchTask(UUID taskId, Long version, Map<String, Object> changes) {
+        var taskKey = findTaskKey(taskId);
+        if(taskKey.isEmpty()) {
+            return Optional.empty();
+        }
+        var query = byIdAndVersion(taskKey.get().get(PROJECT_ID, UUID.class), version);
+        query.fields().include("id").include("version");
+
+        var project = mongoTemplate.findAndModify(
+                query,
+                modified(new Update(), getCurrentTimestamp()),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+        if(project == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                        byTaskId(taskId),
+                        changesUpdate("", changes),
+                        FindAndModifyOptions.options().returnNew(true),
+                        Document.class,
+                        TASK_COLLECTION))
+                .map(task -> project.tasks(new ArrayList<>(List.of(toTask(task)))));
+    }
+
+    @Override
+    public Optional<Project> pullTask(UUID taskId) {
+        var task = mongoTemplate.findAndRemove(byTaskId(taskId), Document.class, TASK_COLLECTION);
+        if(task == null) {
+            return Optional.empty();
+        }
+        var projectId = task.get(PROJECT_ID, UUID.class);
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(projectId)),
+                modified(new Update(), getCurrentTimestamp()),
+                Project.class);
+        return findProject(projectId);
+    }
+
+    @Override
+    public Map<UUID, UUID> findProjectIdsByTaskIds(Collection<UUID> taskIds) {
+        return findTaskKeys(taskIds).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, taskKey -> taskKey.getValue().get(PROJECT_ID, UUID.class)));
+    }
+
+    /**
+     * The positions of the pushed tasks are reserved per project before the bulk write,
+     * the versions of the projects of replaced and pulled tasks are incremented after it.
+     * Like in the embedded layout, writes of tasks or projects which do not exist (anymore) match nothing.
+     */
+    @Override
+    public BulkWriteOutcome bulkWriteTasks(List<TaskWrite> writes, boolean ordered) {
+        var pushCounts = writes.stream()
+                .filter(write -> write.getType() == TaskWrite.Type.PUSH)
+                .collect(Collectors.groupingBy(TaskWrite::getProjectId, Collectors.counting()));
+        var nextPositions = new HashMap<UUID, Long>();
+        pushCounts.forEach((projectId, count) -> {
+            var position = reservePositions(projectId, count.intValue());
+            if(position != null) {
+                nextPositions.put(projectId, position);
+            }
+        });
+        var taskKeys = findTaskKeys(writes.stream()
+                .filter(write -> write.getType() != TaskWrite.Type.PUSH)
+                .map(TaskWrite::getTaskId)
+                .collect(Collectors.toSet()));
+
+        var bulkOperations = mongoTemplate.bulkOps(bulkMode(ordered), TASK_COLLECTION);
+        for(var write : writes) {
+            switch(write.getType()) {
+                case PUSH:
+                    var position = nextPositions.get(write.getProjectId());
+                    if(position == null) {
+                        bulkOperations.replaceOne(byTaskId(write.getTaskId()), toTaskDocument(write.getTask(), write.getProjectId(), 0));
+                    } else {
+                        bulkOperations.insert(toTaskDocument(write.getTask(), write.getProjectId(), position));
+                        nextPositions.put(write.getProjectId(), position + 1);
+                    }
+                    break;
+                case REPLACE:
+                    var taskKey = taskKeys.getOrDefault(write.getTaskId(), new Document(POSITION, 0));
+                    bulkOperations.replaceOne(byTaskId(write.getTaskId()), toTaskDocument(write.getTask(),
+                            taskKey.get(PROJECT_ID, UUID.class), taskKey.get(POSITION, Number.class).longValue()));
+                    break;
+                case PULL:
+                    bulkOperations.remove(byTaskId(write.getTaskId()));
+                    break;
+            }
+        }
+        var outcome = execute(bulkOperations, writes.size());
+
+        var modifiedProjectIds = taskKeys.values().stream()
+                .map(taskKey -> taskKey.get(PROJECT_ID, UUID.class))
+                .collect(Collectors.toSet());
+        if(!modifiedProjectIds.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("id").in(modifiedProjectIds)),
+                    modified(new Update(), getCurrentTimestamp()),
+                    Project.class);
+        }
+        return outcome;
+    }
+
+    /**
+     * The tasks are not part of the project document, it only keeps the position of the next task.
+     */
+    @Override
+    public Object toProjectDocument(Project project) {
+        var document = new Document();
+        mongoTemplate.getConverter().write(project, document);
+        document.remove("tasks");
+        document.put(NEXT_POSITION, taskCount(project.getTasks()));
+        return document;
+    }
+
+    /**
+     * Embedded tasks left over from the embedded layout are removed as well.
+     */
+    @Override
+    public Update toProjectUpdate(Project project, long timestamp) {
+        return upsertUpdateWithoutTasks(project, timestamp)
+                .unset("tasks")
+                .set(NEXT_POSITION, taskCount(project.getTasks()));
+    }
+
+    @Override
+    public Update toProjectPatch(Map<String, Object> changes, long timestamp) {
+        var projectChanges = new LinkedHashMap<>(changes);
+        projectChanges.remove("tasks");
+        var update = patchUpdate("", projectChanges, timestamp);
+        if(changes.containsKey("tasks")) {
+            update.unset("tasks")
+                    .set(NEXT_POSITION, taskCount(changedTasks(changes)));
+        }
+        return update;
+    }
+
+    /**
+     * The tasks are upserted by their id before the other tasks of the project are removed,
+     * so a failed write never leaves the project without its tasks. The services reject duplicate ids and ids
+     * of tasks of other projects before the project is written. Only an id taken by another project
+     * in the meantime still fails the upsert, instead of moving the task.
+     */
+    @Override
+    public void saveTasks(UUID projectId, List<Task> tasks) {
+        var savedTasks = tasks == null ? List.<Task>of() : tasks;
+        if(!savedTasks.isEmpty()) {
+            var bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TASK_COLLECTION);
+            for(int position = 0; position < savedTasks.size(); position++) {
+                var task = savedTasks.get(position);
+                bulkOperations.replaceOne(
+                        Query.query(Criteria.where("_id").is(task.getId()).and(PROJECT_ID).is(projectId)),
+                        toTaskDocument(task, projectId, position),
+                        FindAndReplaceOptions.options().upsert());
+            }
+            bulkOperations.execute();
+        }
+        mongoTemplate.remove(Query.query(Criteria.where(PROJECT_ID).is(projectId)
+                        .and("_id").nin(savedTasks.stream().map(Task::getId).collect(Collectors.toList()))),
+                TASK_COLLECTION);
+    }
+
+    @Override
+    public void removeTasks(Collection<UUID> projectIds) {
+        if(!projectIds.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where(PROJECT_ID).in(projectIds)), TASK_COLLECTION);
+        }
+    }
+
+    static Document toTaskDocument(Document task, UUID projectId, long position) {
+        return task
+                .append(PROJECT_ID, projectId)
+                .append(POSITION, position);
+    }
+
+    private Document toTaskDocument(Task task, UUID projectId, long position) {
+        var document = new Document();
+        mongoTemplate.getConverter().write(task, document);
+        document.remove("_class");
+        return toTaskDocument(document, projectId, position);
+    }
+
+    private Task toTask(Document document) {
+        return mongoTemplate.getConverter().read(Task.class, document);
+    }
+
+    private Optional<Project> findProject(UUID projectId) {
+        return Optional.ofNullable(mongoTemplate.findById(projectId, Project.class))
+                .map(project -> withTasks(List.of(project)).get(0));
+    }
+
+    private Optional<Document> findTaskKey(UUID taskId) {
+        var query = byTaskId(taskId);
+        query.fields().include(PROJECT_ID).include(POSITION);
+        return Optional.ofNullable(mongoTemplate.findOne(query, Document.class, TASK_COLLECTION));
+    }
+
+    private Map<UUID, Document> findTaskKeys(Collection<UUID> taskIds) {
+        if(taskIds.isEmpty()) {
+            return Map.of();
+        }
+        var query = Query.query(Criteria.where("_id").in(taskIds));
+        query.fields().include(PROJECT_ID).include(POSITION);
+        return mongoTemplate.find(query, Document.class, TASK_COLLECTION).stream()
+                .collect(Collectors.toMap(taskKey -> taskKey.get("_id", UUID.class), taskKey -> taskKey));
+    }
+
+    /**
+     * Increments the next task position and the version of the project in a single findAndModify.
+     * Returns the first reserved position, or null if the project does not exist.
+     */
+    private Long reservePositions(UUID projectId, int count) {
+        var query = Query.query(Criteria.where("_id").is(projectId));
+        query.fields().include(NEXT_POSITION);
+
+        var project = mongoTemplate.findAndModify(
+                query,
+                modified(new Update().inc(NEXT_POSITION, count), getCurrentTimestamp()),
+                FindAndModifyOptions.options().returnNew(true),
+                Document.class,
+                mongoTemplate.getCollectionName(Project.class));
+        return project == null ? null : project.get(NEXT_POSITION, Number.class).longValue() - count;
+    }
+
+    private static Query byTaskId(UUID taskId) {
+        return Query.query(Criteria.where("_id").is(taskId));
+    }
+
+    private static int taskCount(List<Task> tasks) {
+        return tasks == null ? 0 : tasks.size();
+    }
+}
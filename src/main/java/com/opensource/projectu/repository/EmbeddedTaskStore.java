@@ -0,0 +1,199 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.opensource.projectu.repository.BulkWrites.bulkMode;
+import static com.opensource.projectu.repository.BulkWrites.execute;
+import static com.opensource.projectu.repository.ProjectQueries.MATCHED_TASK;
+import static com.opensource.projectu.repository.ProjectQueries.byId;
+import static com.opensource.projectu.repository.ProjectQueries.byIdAndTaskIds;
+import static com.opensource.projectu.repository.ProjectQueries.byTaskId;
+import static com.opensource.projectu.repository.ProjectQueries.byTaskIdAndVersion;
+import static com.opensource.projectu.repository.ProjectQueries.patchUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.pullTaskUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.pushTaskQuery;
+import static com.opensource.projectu.repository.ProjectQueries.pushTaskUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.replaceTaskUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.replaceTasksUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.upsertUpdate;
+import static com.opensource.projectu.repository.TaskPageAggregation.taskPageAggregation;
+import static com.opensource.projectu.repository.TaskPageAggregation.toTaskPage;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.getCurrentTimestamp;
+
+/**
+ * Stores the tasks in the tasks array of their project document, so a project is read with a single query
+ * and every task write is an update of the project document.
+ */
+@AllArgsConstructor
+public class EmbeddedTaskStore implements TaskStore {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Project> withTasks(List<Project> projects) {
+        return projects;
+    }
+
+    @Override
+    public Optional<Project> findProjectOfTask(UUID taskId) {
+        return Optional.ofNullable(mongoTemplate.findOne(byTaskId(taskId), Project.class));
+    }
+
+    @Override
+    public Optional<TaskPage> findTaskPage(UUID projectId, int offset, int limit, Boolean done) {
+        return Optional.ofNullable(mongoTemplate.aggregate(
+                        taskPageAggregation(projectId, offset, limit, done), Document.class)
+                        .getUniqueMappedResult())
+                .map(result -> toTaskPage(result, mongoTemplate.getConverter()));
+    }
+
+    @Override
+    public List<AggregationOperation> lookupTasks() {
+        return List.of();
+    }
+
+    @Override
+    public Optional<Project> pushTask(UUID projectId, Task task) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                pushTaskQuery(projectId, task),
+                pushTaskUpdate(task),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class));
+    }
+
+    @Override
+    public Optional<Project> replaceTask(UUID taskId, Long version, Task task) {
+        var query = byTaskIdAndVersion(taskId, version);
+        query.fields().include("id").include("version");
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query,
+                replaceTaskUpdate(task),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class));
+    }
+
+    @Override
+    public Optional<Project> replaceTasks(UUID projectId, List<Task> tasks) {
+        var query = byIdAndTaskIds(projectId, tasks.stream()
+                .map(Task::getId)
+                .collect(Collectors.toList()));
+        query.fields().include("id").include("version");
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query,
+                replaceTasksUpdate(tasks),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class));
+    }
+
+    /**
+     * The patched task is read with a positional projection.
+     */
+    @Override
+    public Optional<Project> patchTask(UUID taskId, Long version, Map<String, Object> changes) {
+        var query = byTaskIdAndVersion(taskId, version);
+        query.fields().include("id").include("version").position("tasks", 1);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query,
+                patchUpdate(MATCHED_TASK, changes, getCurrentTimestamp()),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class));
+    }
+
+    @Override
+    public Optional<Project> pullTask(UUID taskId) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                byTaskId(taskId),
+                pullTaskUpdate(taskId),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class));
+    }
+
+    @Override
+    public Map<UUID, UUID> findProjectIdsByTaskIds(Collection<UUID> taskIds) {
+        var query = Query.query(Criteria.where("tasks.id").in(taskIds));
+        query.fields().include("tasks.id");
+
+        var requestedIds = new HashSet<>(taskIds);
+        var projectIdsByTaskId = new HashMap<UUID, UUID>();
+        for(var project : mongoTemplate.find(query, Project.class)) {
+            project.getTasks().stream()
+                    .map(Task::getId)
+                    .filter(requestedIds::contains)
+                    .forEach(taskId -> projectIdsByTaskId.put(taskId, project.getId()));
+        }
+        return projectIdsByTaskId;
+    }
+
+    @Override
+    public BulkWriteOutcome bulkWriteTasks(List<TaskWrite> writes, boolean ordered) {
+        var bulkOperations = mongoTemplate.bulkOps(bulkMode(ordered), Project.class);
+        for(var write : writes) {
+            switch(write.getType()) {
+                case PUSH:
+                    bulkOperations.updateOne(byId(write.getProjectId()), pushTaskUpdate(write.getTask()));
+                    break;
+                case REPLACE:
+                    bulkOperations.updateOne(byTaskId(write.getTaskId()), replaceTaskUpdate(write.getTask()));
+                    break;
+                case PULL:
+                    bulkOperations.updateOne(byTaskId(write.getTaskId()), pullTaskUpdate(write.getTaskId()));
+                    break;
+            }
+        }
+        return execute(bulkOperations, writes.size());
+    }
+
+    @Override
+    public Object toProjectDocument(Project project) {
+        return project;
+    }
+
+    /**
+     * The next task position left over from the collection layout is removed, the tasks in the task collection
+     * are outdated by the written tasks, see {@link TaskStorageMigration}.
+     */
+    @Override
+    public Update toProjectUpdate(Project project, long timestamp) {
+        return upsertUpdate(project, timestamp)
+                .unset(CollectionTaskStore.NEXT_POSITION);
+    }
+
+    @Override
+    public Update toProjectPatch(Map<String, Object> changes, long timestamp) {
+        var update = patchUpdate("", changes, timestamp);
+        if(changes.containsKey("tasks")) {
+            update.unset(CollectionTaskStore.NEXT_POSITION);
+        }
+        return update;
+    }
+
+    /**
+     * The tasks are already written with their project.
+     */
+    @Override
+    public void saveTasks(UUID projectId, List<Task> tasks) {}
+
+    @Override
+    public void removeTasks(Collection<UUID> projectIds) {}
+}
@@ -0,0 +1,23 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A request sent with an Idempotency-Key. The response is null while the request is in progress.
+ */
+@Builder
+@Value
+@Document("idempotency")
+public class IdempotencyRecord {
+    @Id
+    String key;
+    String fingerprint;
+    Project response;
+    Date expireAt;
+}
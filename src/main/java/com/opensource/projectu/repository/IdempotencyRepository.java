@@ -0,0 +1,71 @@
+package com.opensource.projectu.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static com.opensource.projectu.repository.ProjectQueries.EXPIRE_AT;
+
+/**
+ * Records the requests sent with an Idempotency-Key. A record is inserted before the request is executed,
+ * so a retry arriving meanwhile finds it in progress, and completed with the response afterwards.
+ * Records are removed by a TTL index once they expire.
+ */
+@Repository
+@AllArgsConstructor
+public class IdempotencyRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Inserts the record in progress, or takes over an expired record of the key, which the TTL index
+     * did not remove yet. Returns false if the key is already in use.
+     */
+    public boolean reserve(String key, String fingerprint, Date expireAt) {
+        try {
+            mongoTemplate.insert(IdempotencyRecord.builder()
+                    .key(key)
+                    .fingerprint(fingerprint)
+                    .expireAt(expireAt)
+                    .build());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("key").is(key).and(EXPIRE_AT).lt(new Date())),
+                    new Update()
+                            .set("fingerprint", fingerprint)
+                            .unset("response")
+                            .set(EXPIRE_AT, expireAt),
+                    IdempotencyRecord.class).getModifiedCount() == 1;
+        }
+    }
+
+    public Optional<IdempotencyRecord> findByKey(String key) {
+        return Optional.ofNullable(mongoTemplate.findById(key, IdempotencyRecord.class));
+    }
+
+    public void complete(IdempotencyRecord record) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("key").is(record.getKey())),
+                new Update()
+                        .set("response", record.getResponse())
+                        .set(EXPIRE_AT, record.getExpireAt()),
+                IdempotencyRecord.class);
+    }
+
+    /**
+     * Removes the record in progress of a failed request, so a retry executes the request again.
+     */
+    public void release(String key) {
+        mongoTemplate.remove(
+                Query.query(Criteria.where("key").is(key).and("response").is(null)),
+                IdempotencyRecord.class);
+    }
+}
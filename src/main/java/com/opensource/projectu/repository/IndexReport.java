@@ -0,0 +1,13 @@
+package com.opensource.projectu.repository;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder
+@Value
+public class IndexReport {
+    IndexStatus.State status;
+    List<IndexStatus> indexes;
+}
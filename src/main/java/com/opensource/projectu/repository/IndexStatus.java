@@ -0,0 +1,22 @@
+package com.opensource.projectu.repository;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Set;
+
+@Builder
+@Value
+public class IndexStatus {
+    String collection;
+    String name;
+    Set<String> keys;
+    State state;
+    String error;
+
+    public enum State {
+        PRESENT,
+        MISSING,
+        UNKNOWN
+    }
+}
@@ -0,0 +1,152 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Tombstone;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Declares the indexes the repository queries rely on, creates them when the
+ * application is ready and reports whether they actually exist in the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexManager {
+
+    static final List<RequiredIndex> REQUIRED_INDEXES = List.of(
+            new RequiredIndex(Project.class, new Index()
+                    .named("tasks_id")
+                    .on("tasks._id", Sort.Direction.ASC)),
+            new RequiredIndex(Project.class, new Index()
+                    .named("createdAt_id")
+                    .on("createdAt", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)),
+            // filters: equality fields first, then the sort keys, then the duration range
+            new RequiredIndex(Project.class, new Index()
+                    .named("state_complexity_createdAt_id_estimatedDurationInHours")
+                    .on("state", Sort.Direction.ASC)
+                    .on("complexity", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .on("estimatedDurationInHours", Sort.Direction.ASC)),
+            new RequiredIndex(Project.class, new Index()
+                    .named("state_createdAt_id_estimatedDurationInHours")
+                    .on("state", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .on("estimatedDurationInHours", Sort.Direction.ASC)),
+            new RequiredIndex(Project.class, new Index()
+                    .named("complexity_createdAt_id_estimatedDurationInHours")
+                    .on("complexity", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .on("estimatedDurationInHours", Sort.Direction.ASC)),
+            // delta sync: projects and tombstones in the order of their changes
+            new RequiredIndex(Project.class, new Index()
+                    .named("modifiedAt_id")
+                    .on("modifiedAt", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)),
+            new RequiredIndex(Tombstone.class, new Index()
+                    .named("deletedAt_id")
+                    .on("deletedAt", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)),
+            new RequiredIndex(Tombstone.class, new Index()
+                    .named(ProjectQueries.EXPIRE_AT)
+                    .on(ProjectQueries.EXPIRE_AT, Sort.Direction.ASC)
+                    .expire(0)),
+            new RequiredIndex(IdempotencyRecord.class, new Index()
+                    .named(ProjectQueries.EXPIRE_AT)
+                    .on(ProjectQueries.EXPIRE_AT, Sort.Direction.ASC)
+                    .expire(0)));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${projectu.mongo.indexes.create-on-startup:true}")
+    private boolean createOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // index builds on large collections may take a while, so they must not block the startup
+        var thread = new Thread(this::ensureIndexes, "mongo-index-manager");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void ensureIndexes() {
+        if(createOnStartup) {
+            for(var requiredIndex : REQUIRED_INDEXES) {
+                try {
+                    mongoTemplate.indexOps(requiredIndex.getEntityClass())
+                            .ensureIndex(requiredIndex.getIndex());
+                } catch (DataAccessException e) {
+                    log.warn("Index {} could not be created: {}", requiredIndex.getName(), e.getMessage());
+                }
+            }
+        }
+        var report = checkIndexes();
+        if(report.getStatus() != IndexStatus.State.PRESENT) {
+            log.warn("Running without required MongoDB indexes: {}", report.getIndexes());
+        }
+    }
+
+    public IndexReport checkIndexes() {
+        var statuses = REQUIRED_INDEXES.stream()
+                .map(this::checkIndex)
+                .collect(Collectors.toList());
+
+        return IndexReport.builder()
+                .status(overallState(statuses))
+                .indexes(statuses)
+                .build();
+    }
+
+    private IndexStatus checkIndex(RequiredIndex requiredIndex) {
+        var collection = mongoTemplate.getCollectionName(requiredIndex.getEntityClass());
+        var builder = IndexStatus.builder()
+                .collection(collection)
+                .name(requiredIndex.getName())
+                .keys(requiredIndex.getIndex().getIndexKeys().keySet());
+        try {
+            Set<String> existingIndexes = mongoTemplate.indexOps(collection)
+                    .getIndexInfo()
+                    .stream()
+                    .map(IndexInfo::getName)
+                    .collect(Collectors.toSet());
+
+            return builder
+                    .state(existingIndexes.contains(requiredIndex.getName())
+                            ? IndexStatus.State.PRESENT
+                            : IndexStatus.State.MISSING)
+                    .build();
+        } catch (DataAccessException e) {
+            return builder
+                    .state(IndexStatus.State.UNKNOWN)
+                    .error(e.getMessage())
+                    .build();
+        }
+    }
+
+    private static IndexStatus.State overallState(List<IndexStatus> statuses) {
+        if(statuses.stream().anyMatch(s -> s.getState() == IndexStatus.State.MISSING)) {
+            return IndexStatus.State.MISSING;
+        }
+        if(statuses.stream().anyMatch(s -> s.getState() == IndexStatus.State.UNKNOWN)) {
+            return IndexStatus.State.UNKNOWN;
+        }
+        return IndexStatus.State.PRESENT;
+    }
+}
@@ -0,0 +1,14 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.ProjectChange;
+import lombok.Value;
+
+/**
+ * A change of the project collection. The ID is the resume token of the change stream event,
+ * it is null for a RESET, which is not part of the change stream.
+ */
+@Value
+public class ProjectChangeEvent {
+    String id;
+    ProjectChange change;
+}
@@ -0,0 +1,300 @@
+package com.opensource.projectu.repository;
+
+import com.mongodb.MongoServerException;
+import com.opensource.projectu.openapi.model.ChangeType;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectChange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static com.opensource.projectu.repository.ProjectChangeStream.changeStreamOptions;
+import static com.opensource.projectu.repository.ProjectChangeStream.resumeTokenOf;
+
+/**
+ * Streams the changes of the project collection to any number of subscribers with a single change stream,
+ * instead of opening a change stream per subscriber. The change stream runs while there are subscribers
+ * and keeps the most recent events, so a subscriber resuming after a disconnect gets the missed events from memory.
+ * Subscribers resuming after an older event catch up with a change stream of their own,
+ * until it reaches the events of the shared one.
+ */
+@Slf4j
+@Component
+public class ProjectChangeFeed {
+
+    /**
+     * A subscriber falling further behind is completed, it can resume after its last received event.
+     */
+    static final int MAX_PENDING_EVENTS = 1_000;
+
+    /**
+     * Server errors after which the change stream can not be resumed with its resume token.
+     */
+    private static final Set<Integer> RESUME_ERROR_CODES = Set.of(260, 280, 286);
+    private static final ProjectChangeEvent RESET = new ProjectChangeEvent(null,
+            ProjectChange.builder().type(ChangeType.RESET).build());
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final Function<BsonValue, Flux<ProjectChangeEvent>> changeStream;
+    private final int replaySize;
+
+    private final Deque<ProjectChangeEvent> recentEvents = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = new LinkedHashSet<>();
+    private BsonValue resumeToken;
+    private Disposable subscription;
+
+    @Autowired
+    public ProjectChangeFeed(ReactiveMongoTemplate reactiveMongoTemplate, MeterRegistry meterRegistry,
+                             @Value("${projectu.changes.replay-size:1000}") int replaySize) {
+        this(resumeToken -> reactiveMongoTemplate.changeStream(
+                        reactiveMongoTemplate.getCollectionName(Project.class),
+                        changeStreamOptions(resumeToken),
+                        Document.class)
+                        .map(ProjectChangeStream::toProjectChangeEvent),
+                replaySize);
+        Gauge.builder("projectu.changes.subscribers", this, ProjectChangeFeed::subscriberCount)
+                .description("Number of clients subscribed to the project changes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The change stream function returns the events following the given resume token, the current ones if null.
+     */
+    ProjectChangeFeed(Function<BsonValue, Flux<ProjectChangeEvent>> changeStream, int replaySize) {
+        this.changeStream = changeStream;
+        this.replaySize = replaySize;
+    }
+
+    /**
+     * Emits the changes of the given projects, of all projects if empty, following the event with the given ID.
+     * Without an ID only the changes following the subscription are emitted.
+     */
+    public Flux<ProjectChangeEvent> changes(Set<UUID> projectIds, String lastEventId) {
+        return Flux.defer(() -> {
+            var subscriber = new Subscriber(projectIds);
+            if(!subscribe(subscriber, lastEventId)) {
+                subscriber.catchUp(changeStream.apply(resumeTokenOf(lastEventId)));
+            }
+            return subscriber.sink.asFlux()
+                    .doFinally(signal -> unsubscribe(subscriber));
+        });
+    }
+
+    synchronized int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Returns false if the event with the given ID is not among the recent events,
+     * the subscriber then has to catch up before it receives the events of the shared change stream.
+     */
+    private synchronized boolean subscribe(Subscriber subscriber, String lastEventId) {
+        subscribers.add(subscriber);
+        start();
+        var missedEvents = lastEventId == null ? List.<ProjectChangeEvent>of() : eventsAfter(lastEventId);
+        if(missedEvents == null) {
+            return false;
+        }
+        subscriber.live(missedEvents);
+        return true;
+    }
+
+    /**
+     * The change stream is stopped without subscribers. It is resumed after its last event when it is started again,
+     * so the recent events stay complete.
+     */
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.cancelCatchUp();
+        if(subscribers.isEmpty() && subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    private void start() {
+        if(subscription == null) {
+            subscription = Flux.defer(() -> changeStream.apply(currentResumeToken()))
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_BACKOFF)
+                            .maxBackoff(MAX_BACKOFF)
+                            .transientErrors(true)
+                            .doBeforeRetry(signal -> onChangeStreamError(signal.failure())))
+                    .repeatWhen(completions -> completions.delayElements(MIN_BACKOFF))
+                    .subscribe(this::publish);
+        }
+    }
+
+    private synchronized BsonValue currentResumeToken() {
+        return resumeToken;
+    }
+
+    private synchronized void publish(ProjectChangeEvent event) {
+        resumeToken = resumeTokenOf(event.getId());
+        recentEvents.addLast(event);
+        if(recentEvents.size() > replaySize) {
+            recentEvents.removeFirst();
+        }
+        subscribers.forEach(subscriber -> subscriber.onLiveEvent(event));
+    }
+
+    /**
+     * If the change stream can not be resumed, the changes in between are lost.
+     * It is started anew and the subscribers are told to read the projects again.
+     */
+    private synchronized void onChangeStreamError(Throwable error) {
+        log.warn("Project change stream failed, it is restarted: {}", error.getMessage());
+        if(isResumeError(error)) {
+            resumeToken = null;
+            recentEvents.clear();
+            subscribers.forEach(Subscriber::reset);
+        }
+    }
+
+    private List<ProjectChangeEvent> eventsAfter(String eventId) {
+        var events = new ArrayList<ProjectChangeEvent>();
+        var found = false;
+        for(var event : recentEvents) {
+            if(found) {
+                events.add(event);
+            } else {
+                found = event.getId().equals(eventId);
+            }
+        }
+        return found ? events : null;
+    }
+
+    static boolean isResumeError(Throwable error) {
+        for(var cause = error; cause != null; cause = cause.getCause()) {
+            if(cause instanceof MongoServerException
+                    && RESUME_ERROR_CODES.contains(((MongoServerException) cause).getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * While catching up, the events of the shared change stream are held back until the own change stream
+     * reaches one of them. Both streams contain the same events in the same order.
+     */
+    private static final class Subscriber {
+
+        private final Set<UUID> projectIds;
+        private final Sinks.Many<ProjectChangeEvent> sink = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<ProjectChangeEvent>get(MAX_PENDING_EVENTS).get());
+        private final Deque<ProjectChangeEvent> heldBackEvents = new ArrayDeque<>();
+        private boolean catchingUp = true;
+        private String lastCaughtUpId;
+        private Disposable catchUp;
+
+        Subscriber(Set<UUID> projectIds) {
+            this.projectIds = projectIds;
+        }
+
+        synchronized void live(List<ProjectChangeEvent> missedEvents) {
+            catchingUp = false;
+            missedEvents.forEach(this::emit);
+        }
+
+        void catchUp(Flux<ProjectChangeEvent> events) {
+            var disposable = events.subscribe(this::onCaughtUpEvent, this::onCatchUpError, () -> onCatchUpError(null));
+            synchronized(this) {
+                if(catchingUp) {
+                    catchUp = disposable;
+                } else {
+                    disposable.dispose();
+                }
+            }
+        }
+
+        synchronized void cancelCatchUp() {
+            catchingUp = false;
+            if(catchUp != null) {
+                catchUp.dispose();
+            }
+        }
+
+        synchronized void onLiveEvent(ProjectChangeEvent event) {
+            if(!catchingUp) {
+                emit(event);
+            } else if(event.getId().equals(lastCaughtUpId)) {
+                heldBackEvents.clear();
+                cancelCatchUp();
+            } else {
+                heldBackEvents.addLast(event);
+            }
+        }
+
+        synchronized void reset() {
+            if(catchingUp) {
+                heldBackEvents.clear();
+                cancelCatchUp();
+            }
+            emit(RESET);
+        }
+
+        private synchronized void onCaughtUpEvent(ProjectChangeEvent event) {
+            if(!catchingUp) {
+                return;
+            }
+            if(heldBackEvents.stream().noneMatch(heldBack -> heldBack.getId().equals(event.getId()))) {
+                lastCaughtUpId = event.getId();
+                emit(event);
+                return;
+            }
+            while(!heldBackEvents.getFirst().getId().equals(event.getId())) {
+                heldBackEvents.removeFirst();
+            }
+            heldBackEvents.forEach(this::emit);
+            heldBackEvents.clear();
+            cancelCatchUp();
+        }
+
+        /**
+         * The resume token is too old or invalid, or the change stream ended.
+         */
+        private synchronized void onCatchUpError(Throwable error) {
+            if(!catchingUp) {
+                return;
+            }
+            if(error != null) {
+                log.debug("Project changes could not be caught up: {}", error.getMessage());
+            }
+            emit(RESET);
+            heldBackEvents.forEach(this::emit);
+            heldBackEvents.clear();
+            cancelCatchUp();
+        }
+
+        private void emit(ProjectChangeEvent event) {
+            var projectId = event.getChange().getProjectId();
+            if(projectId == null || projectIds.isEmpty() || projectIds.contains(projectId)) {
+                if(sink.tryEmitNext(event).isFailure()) {
+                    sink.tryEmitComplete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.ChangeType;
+import com.opensource.projectu.openapi.model.ProjectChange;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The change stream of the project collection and the conversion of its events.
+ */
+final class ProjectChangeStream {
+
+    /**
+     * Written by every change, they don't tell what was changed.
+     */
+    private static final Set<String> VERSION_FIELDS = Set.of("version", "modifiedAt");
+
+    /**
+     * Only the names of the changed fields are read instead of the changed documents,
+     * so an event stays small however many tasks the project has.
+     * The stream is resumed after the given resume token, if not null.
+     */
+    static ChangeStreamOptions changeStreamOptions(BsonValue resumeToken) {
+        var options = ChangeStreamOptions.builder()
+                .filter(Aggregation.newAggregation(
+                        stage(new Document("$match", new Document("operationType",
+                                new Document("$in", List.of("insert", "update", "replace", "delete"))))),
+                        stage(new Document("$project", new Document()
+                                .append("operationType", 1)
+                                .append("documentKey", 1)
+                                .append("fullDocument", new Document()
+                                        .append("projectId", "$documentKey._id")
+                                        .append("version", changedValue("version"))
+                                        .append("modifiedAt", changedValue("modifiedAt"))
+                                        .append("changedFields", new Document("$concatArrays", List.of(
+                                                new Document("$map", new Document()
+                                                        .append("input", new Document("$objectToArray",
+                                                                new Document("$ifNull", List.of("$updateDescription.updatedFields", new Document()))))
+                                                        .append("in", "$$this.k")),
+                                                new Document("$ifNull", List.of("$updateDescription.removedFields", List.of()))))))))));
+        if(resumeToken != null) {
+            options.resumeAfter(resumeToken);
+        }
+        return options.build();
+    }
+
+    static ProjectChangeEvent toProjectChangeEvent(ChangeStreamEvent<Document> event) {
+        return new ProjectChangeEvent(
+                eventIdOf(event.getResumeToken()),
+                toProjectChange(event.getRaw().getOperationType().getValue(), event.getBody()));
+    }
+
+    /**
+     * Updates of the collection task storage only increment the version and the next task position of the project.
+     */
+    static ProjectChange toProjectChange(String operationType, Document body) {
+        var changedFields = new LinkedHashSet<String>();
+        for(var path : body.getList("changedFields", String.class, List.of())) {
+            var field = path.split("\\.", 2)[0];
+            if(!VERSION_FIELDS.contains(field)) {
+                changedFields.add(CollectionTaskStore.NEXT_POSITION.equals(field) ? "tasks" : field);
+            }
+        }
+        if("update".equals(operationType) && changedFields.isEmpty()) {
+            changedFields.add("tasks");
+        }
+        return ProjectChange.builder()
+                .type(changeTypeOf(operationType))
+                .projectId(body.get("projectId", UUID.class))
+                .version(longOrNull(body.get("version")))
+                .modifiedAt(longOrNull(body.get("modifiedAt")))
+                .changedFields(new ArrayList<>(changedFields))
+                .build();
+    }
+
+    /**
+     * The resume token is a document with a single _data string, which is used as the ID of the event.
+     */
+    static String eventIdOf(BsonValue resumeToken) {
+        return resumeToken.asDocument().getString("_data").getValue();
+    }
+
+    static BsonDocument resumeTokenOf(String eventId) {
+        return new BsonDocument("_data", new BsonString(eventId));
+    }
+
+    private static ChangeType changeTypeOf(String operationType) {
+        switch(operationType) {
+            case "insert":
+                return ChangeType.CREATED;
+            case "delete":
+                return ChangeType.DELETED;
+            default:
+                return ChangeType.UPDATED;
+        }
+    }
+
+    /**
+     * The new value of the field, from the whole document for inserts and replacements.
+     */
+    private static Document changedValue(String field) {
+        return new Document("$ifNull", List.of("$fullDocument." + field, "$updateDescription.updatedFields." + field));
+    }
+
+    private static Long longOrNull(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+
+    private ProjectChangeStream() {}
+}
@@ -0,0 +1,11 @@
+package com.opensource.projectu.repository;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+@Value
+public class ProjectCursor {
+    long createdAt;
+    UUID id;
+}
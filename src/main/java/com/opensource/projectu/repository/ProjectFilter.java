@@ -0,0 +1,24 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Complexity;
+import com.opensource.projectu.openapi.model.State;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Conditions a project has to match to be read. Conditions which are null are not applied.
+ * The creation time range includes its start and excludes its end, the duration range includes both bounds.
+ */
+@Value
+@Builder
+public class ProjectFilter {
+
+    public static final ProjectFilter NONE = ProjectFilter.builder().build();
+
+    State state;
+    Complexity complexity;
+    Long createdFrom;
+    Long createdTo;
+    Integer minEstimatedDurationInHours;
+    Integer maxEstimatedDurationInHours;
+}
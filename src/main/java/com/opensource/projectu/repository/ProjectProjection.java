@@ -0,0 +1,28 @@
+package com.opensource.projectu.repository;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Fields of a project to read from the database.
+ * Either only the included fields or all fields except the excluded ones are read.
+ */
+@Value
+public class ProjectProjection {
+
+    public static final ProjectProjection ALL = new ProjectProjection(Set.of(), Set.of());
+
+    Set<String> includedFields;
+    Set<String> excludedFields;
+
+    public boolean isAll() {
+        return includedFields.isEmpty() && excludedFields.isEmpty();
+    }
+
+    public boolean selects(String field) {
+        return includedFields.isEmpty()
+                ? !excludedFields.contains(field)
+                : includedFields.contains(field);
+    }
+}
@@ -0,0 +1,310 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.Tombstone;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.opensource.projectu.util.ProjectPersistenceUtil.getCurrentTimestamp;
+import static com.opensource.projectu.util.SyncUtil.TOMBSTONE_RETENTION;
+
+/**
+ * Queries and updates shared by the blocking and the reactive project repository.
+ */
+final class ProjectQueries {
+
+    /**
+     * Prefix of the fields of the embedded task matched by the query.
+     */
+    static final String MATCHED_TASK = "tasks.$.";
+
+    /**
+     * Tombstones are removed by a TTL index on this field once they are retained long enough.
+     */
+    static final String EXPIRE_AT = "expireAt";
+
+    /**
+     * The id and creation time are always read, they are needed for the cursor of the next page.
+     */
+    static Query pageQuery(ProjectCursor after, int limit, Sort.Direction direction,
+                           ProjectFilter filter, ProjectProjection projection) {
+        var query = withFilter(new Query(), filter)
+                .with(Sort.by(direction, "createdAt", "id"))
+                .limit(limit);
+
+        if(after != null) {
+            query.addCriteria(keysetCriteria(after, direction));
+        }
+        return withProjection(query, projection, "id", "createdAt");
+    }
+
+    /**
+     * Equality conditions come first in the filter indexes, followed by the sort keys and the duration,
+     * so every combination of filters is answered from an index in the order of the creation time.
+     */
+    static Query withFilter(Query query, ProjectFilter filter) {
+        filterCriteria(filter).forEach(query::addCriteria);
+        return query;
+    }
+
+    static List<Criteria> filterCriteria(ProjectFilter filter) {
+        var criteria = new ArrayList<Criteria>();
+        if(filter.getState() != null) {
+            criteria.add(Criteria.where("state").is(filter.getState()));
+        }
+        if(filter.getComplexity() != null) {
+            criteria.add(Criteria.where("complexity").is(filter.getComplexity()));
+        }
+        if(filter.getCreatedFrom() != null || filter.getCreatedTo() != null) {
+            var createdAt = Criteria.where("createdAt");
+            if(filter.getCreatedFrom() != null) {
+                createdAt.gte(filter.getCreatedFrom());
+            }
+            if(filter.getCreatedTo() != null) {
+                createdAt.lt(filter.getCreatedTo());
+            }
+            criteria.add(createdAt);
+        }
+        if(filter.getMinEstimatedDurationInHours() != null || filter.getMaxEstimatedDurationInHours() != null) {
+            var duration = Criteria.where("estimatedDurationInHours");
+            if(filter.getMinEstimatedDurationInHours() != null) {
+                duration.gte(filter.getMinEstimatedDurationInHours());
+            }
+            if(filter.getMaxEstimatedDurationInHours() != null) {
+                duration.lte(filter.getMaxEstimatedDurationInHours());
+            }
+            criteria.add(duration);
+        }
+        return criteria;
+    }
+
+    /**
+     * The projects modified after the sync token and before the given time, in the order of their changes.
+     * Projects stored before modification times were recorded are read as modified at 0.
+     */
+    static Query modifiedSinceQuery(SyncToken since, long until, int limit) {
+        return Query.query(syncCriteria("modifiedAt", SyncToken.Source.PROJECT, since, until))
+                .with(Sort.by("modifiedAt", "id"))
+                .limit(limit);
+    }
+
+    static Query tombstonesSinceQuery(SyncToken since, long until, int limit) {
+        return Query.query(syncCriteria("deletedAt", SyncToken.Source.TOMBSTONE, since, until))
+                .with(Sort.by("deletedAt", "id"))
+                .limit(limit);
+    }
+
+    /**
+     * Overwrites an older tombstone of the same id, e.g. of a project which was deleted, recreated and deleted again.
+     */
+    static Update tombstoneUpdate(Tombstone tombstone) {
+        var update = new Update()
+                .set("type", tombstone.getType())
+                .set("deletedAt", tombstone.getDeletedAt())
+                .set(EXPIRE_AT, new Date(tombstone.getDeletedAt() + TOMBSTONE_RETENTION.toMillis()));
+        setOrUnset(update, "projectId", tombstone.getProjectId());
+        return update;
+    }
+
+    static Query byId(UUID id) {
+        return Query.query(Criteria.where("id").is(id));
+    }
+
+    /**
+     * The version is always read, it is needed for the ETag.
+     */
+    static Query byId(UUID id, ProjectProjection projection) {
+        return withProjection(byId(id), projection, "version");
+    }
+
+    /**
+     * Matches any version if the version is null.
+     */
+    static Query byIdAndVersion(UUID id, Long version) {
+        return withVersion(byId(id), version);
+    }
+
+    static Query byTaskId(UUID taskId) {
+        return Query.query(Criteria.where("tasks.id").is(taskId));
+    }
+
+    /**
+     * Matches any version if the version is null.
+     */
+    static Query byTaskIdAndVersion(UUID taskId, Long version) {
+        return withVersion(byTaskId(taskId), version);
+    }
+
+    /**
+     * Matches the project only if it contains every given task.
+     */
+    static Query byIdAndTaskIds(UUID projectId, Collection<UUID> taskIds) {
+        return Query.query(Criteria.where("id").is(projectId)
+                .and("tasks.id").all(taskIds));
+    }
+
+    static Query pushTaskQuery(UUID projectId, Task task) {
+        return Query.query(Criteria.where("id").is(projectId)
+                .and("tasks.id").ne(task.getId()));
+    }
+
+    static Update pushTaskUpdate(Task task) {
+        return modified(new Update().push("tasks", task), getCurrentTimestamp());
+    }
+
+    static Update replaceTaskUpdate(Task task) {
+        return modified(new Update().set("tasks.$", task), getCurrentTimestamp());
+    }
+
+    /**
+     * Overwrites several tasks in place, each matched by an array filter of its own, with a single version increment.
+     */
+    static Update replaceTasksUpdate(List<Task> tasks) {
+        var update = new Update();
+        for(int i = 0; i < tasks.size(); i++) {
+            update.set("tasks.$[t" + i + "]", tasks.get(i))
+                    .filterArray(Criteria.where("t" + i + "._id").is(tasks.get(i).getId()));
+        }
+        return modified(update, getCurrentTimestamp());
+    }
+
+    static Update pullTaskUpdate(UUID taskId) {
+        return modified(new Update().pull("tasks", new Document("_id", taskId)), getCurrentTimestamp());
+    }
+
+    /**
+     * Overwrites every field of the project. If the project is inserted, the timestamp is its creation time.
+     */
+    static Update upsertUpdate(Project project, long timestamp) {
+        var update = upsertUpdateWithoutTasks(project, timestamp);
+        setOrUnset(update, "tasks", project.getTasks());
+        return update;
+    }
+
+    /**
+     * Overwrites every field of the project except its tasks, which are stored separately.
+     */
+    static Update upsertUpdateWithoutTasks(Project project, long timestamp) {
+        var update = new Update();
+        setOrUnset(update, "title", project.getTitle());
+        setOrUnset(update, "description", project.getDescription());
+        setOrUnset(update, "state", project.getState());
+        setOrUnset(update, "complexity", project.getComplexity());
+        setOrUnset(update, "estimatedDurationInHours", project.getEstimatedDurationInHours());
+        setOrUnset(update, "expectedResult", project.getExpectedResult());
+        setOrUnset(update, "actualResult", project.getActualResult());
+        setOrUnset(update, "startedAt", project.getStartedAt());
+        setOrUnset(update, "finishedAt", project.getFinishedAt());
+        return modified(update, timestamp)
+                .setOnInsert("createdAt", timestamp);
+    }
+
+    /**
+     * Sets the changed fields of the project, or of its task matched by the query if prefixed with {@link #MATCHED_TASK},
+     * and removes those changed to null.
+     */
+    static Update patchUpdate(String prefix, Map<String, Object> changes, long timestamp) {
+        return modified(changesUpdate(prefix, changes), timestamp);
+    }
+
+    static Update changesUpdate(String prefix, Map<String, Object> changes) {
+        var update = new Update();
+        changes.forEach((key, value) -> setOrUnset(update, prefix + key, value));
+        return update;
+    }
+
+    /**
+     * The tasks replacing those of the patched project, null if they are removed or not changed.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Task> changedTasks(Map<String, Object> changes) {
+        return (List<Task>) changes.get("tasks");
+    }
+
+    /**
+     * Every change of a project increments its version, which is used as ETag.
+     */
+    static Update modified(Update update, long timestamp) {
+        return update
+                .inc("version", 1)
+                .set("modifiedAt", timestamp);
+    }
+
+    /**
+     * Projects stored before versioning have no version, they match version 0.
+     */
+    private static Query withVersion(Query query, Long version) {
+        if(version == null) {
+            return query;
+        }
+        return query.addCriteria(version == 0
+                ? Criteria.where("version").in(0L, null)
+                : Criteria.where("version").is(version));
+    }
+
+    private static Criteria syncCriteria(String field, SyncToken.Source source, SyncToken since, long until) {
+        if(since == null) {
+            return new Criteria().orOperator(
+                    Criteria.where(field).lt(until),
+                    Criteria.where(field).is(null));
+        }
+        var after = Criteria.where(field).gt(since.getTimestamp()).lt(until);
+        if(since.getSource() == null || since.getSource().compareTo(source) > 0) {
+            return after;
+        }
+        var atTimestamp = since.getTimestamp() == 0
+                ? Criteria.where(field).in(0L, null)
+                : Criteria.where(field).is(since.getTimestamp());
+        if(since.getSource() == source) {
+            atTimestamp.and("id").gt(since.getId());
+        }
+        return new Criteria().orOperator(after, atTimestamp);
+    }
+
+    private static Query withProjection(Query query, ProjectProjection projection, String... requiredFields) {
+        if(!projection.getIncludedFields().isEmpty()) {
+            projection.getIncludedFields().forEach(query.fields()::include);
+            Arrays.stream(requiredFields).forEach(query.fields()::include);
+        } else if(!projection.getExcludedFields().isEmpty()) {
+            var required = Set.of(requiredFields);
+            projection.getExcludedFields().stream()
+                    .filter(field -> !required.contains(field))
+                    .forEach(query.fields()::exclude);
+        }
+        return query;
+    }
+
+    private static void setOrUnset(Update update, String key, Object value) {
+        if(value == null) {
+            update.unset(key);
+        } else {
+            update.set(key, value);
+        }
+    }
+
+    private static Criteria keysetCriteria(ProjectCursor after, Sort.Direction direction) {
+        if(direction.isAscending()) {
+            return new Criteria().orOperator(
+                    Criteria.where("createdAt").gt(after.getCreatedAt()),
+                    Criteria.where("createdAt").is(after.getCreatedAt()).and("id").gt(after.getId()));
+        }
+        return new Criteria().orOperator(
+                Criteria.where("createdAt").lt(after.getCreatedAt()),
+                Criteria.where("createdAt").is(after.getCreatedAt()).and("id").lt(after.getId()));
+    }
+
+    private ProjectQueries() {}
+}
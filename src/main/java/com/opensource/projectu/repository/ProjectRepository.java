@@ -5,7 +5,16 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface ProjectRepository extends MongoRepository<Project, UUID> {
+/**
+ * The methods of {@link ProjectRepositoryCustom} read and write the tasks of the projects in the configured
+ * {@link TaskStore} layout. Other inherited methods only read and write the project documents themselves.
+ */
+public interface ProjectRepository extends MongoRepository<Project, UUID>, ProjectRepositoryCustom {
 
-    Optional<Project> findByTasksId(UUID id);
+    // implemented by ProjectRepositoryCustomImpl, which takes precedence over the base repository
+    @Override
+    Optional<Project> findById(UUID id);
+
+    @Override
+    <S extends Project> S insert(S project);
 }
@@ -0,0 +1,136 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectStats;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.Tombstone;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+public interface ProjectRepositoryCustom {
+
+    /**
+     * Reads the projects following the given cursor, ordered by createdAt and id.
+     * Without a cursor the first page is returned.
+     */
+    List<Project> findPage(ProjectCursor after, int limit, Sort.Direction direction,
+                           ProjectFilter filter, ProjectProjection projection);
+
+    /**
+     * Reads the projects with their tasks modified after the sync token and before the given time,
+     * ordered by modifiedAt and id. Without a token every project modified before the given time is returned.
+     */
+    List<Project> findModifiedSince(SyncToken since, long until, int limit);
+
+    /**
+     * Reads the tombstones of the projects and tasks deleted after the sync token and before the given time,
+     * ordered by deletedAt and id.
+     */
+    List<Tombstone> findTombstonesSince(SyncToken since, long until, int limit);
+
+    /**
+     * Overrides the base repository method, so the project is read with its tasks.
+     */
+    Optional<Project> findById(UUID id);
+
+    Optional<Project> findProjectById(UUID id, ProjectProjection projection);
+
+    Optional<Project> findByTasksId(UUID taskId);
+
+    ProjectStats findStats(ProjectFilter filter);
+
+    /**
+     * Reads the tasks of the project from the given offset on, only those with the given done state if not null.
+     * Returns empty if the project does not exist.
+     */
+    Optional<TaskPage> findTaskPage(UUID projectId, int offset, int limit, Boolean done);
+
+    /**
+     * Overrides the base repository method, so the tasks of the project are stored as well.
+     */
+    <S extends Project> S insert(S project);
+
+    /**
+     * Overwrites the project with the given id or inserts it with the given creation time
+     * in a single findAndModify. Returns the creation time and version of the project before the update,
+     * or empty if it was inserted.
+     */
+    Optional<Project> upsertProject(UUID id, Project project, long timestamp);
+
+    /**
+     * Overwrites the project with the given id if it has the given version, any version if null.
+     * Returns the creation time and version of the project before the update,
+     * or empty if the project does not exist or has another version.
+     */
+    Optional<Project> replaceProject(UUID id, Long version, Project project, long timestamp);
+
+    /**
+     * Sets the changed fields of the project and removes those changed to null in a single findAndModify,
+     * if the project has the given version, any version if null.
+     * Returns the patched project, or empty if the project does not exist or has another version.
+     */
+    Optional<Project> patchProject(UUID id, Long version, Map<String, Object> changes, long timestamp);
+
+    /**
+     * Appends the task to the project with a single $push.
+     * Returns empty if the project does not exist or already contains a task with the same id.
+     */
+    Optional<Project> pushTask(UUID projectId, Task task);
+
+    /**
+     * Overwrites the task in place with a positional $set if its project has the given version, any version if null.
+     * Returns the id and new version of the project containing the task,
+     * or empty if no project with the version contains it.
+     */
+    Optional<Project> replaceTask(UUID taskId, Long version, Task task);
+
+    /**
+     * Overwrites several tasks of the project, which have distinct ids, with a single version increment.
+     * Returns the id and new version of the project,
+     * or empty if the project does not exist or does not contain every task.
+     */
+    Optional<Project> replaceTasks(UUID projectId, List<Task> tasks);
+
+    /**
+     * Sets the changed fields of the task in place with positional $set and $unset
+     * if its project has the given version, any version if null.
+     * Returns the id and new version of the project containing the task, with the patched task as its only task,
+     * or empty if no project with the version contains it.
+     */
+    Optional<Project> patchTask(UUID taskId, Long version, Map<String, Object> changes);
+
+    /**
+     * Removes the task with a single $pull and returns the project without it.
+     */
+    Optional<Project> pullTask(UUID taskId);
+
+    /**
+     * Removes the project with its tasks and returns the number of removed projects.
+     */
+    long removeById(UUID id);
+
+    /**
+     * Records the deletions in the tombstone collection, from which they are synced until they expire.
+     */
+    void saveTombstones(List<Tombstone> tombstones);
+
+    /**
+     * Returns those of the given ids which belong to an existing project.
+     */
+    Set<UUID> findExistingIds(Collection<UUID> ids);
+
+    /**
+     * Returns the id of the project containing the task for each of the given task ids which exists.
+     */
+    Map<UUID, UUID> findProjectIdsByTaskIds(Collection<UUID> taskIds);
+
+    BulkWriteOutcome bulkWriteProjects(List<ProjectWrite> writes, boolean ordered);
+
+    BulkWriteOutcome bulkWriteTasks(List<TaskWrite> writes, boolean ordered);
+}
@@ -0,0 +1,248 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectStats;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.Tombstone;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.opensource.projectu.repository.BulkWrites.bulkMode;
+import static com.opensource.projectu.repository.BulkWrites.execute;
+import static com.opensource.projectu.repository.ProjectQueries.byId;
+import static com.opensource.projectu.repository.ProjectQueries.byIdAndVersion;
+import static com.opensource.projectu.repository.ProjectQueries.changedTasks;
+import static com.opensource.projectu.repository.ProjectQueries.modifiedSinceQuery;
+import static com.opensource.projectu.repository.ProjectQueries.pageQuery;
+import static com.opensource.projectu.repository.ProjectQueries.tombstoneUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.tombstonesSinceQuery;
+import static com.opensource.projectu.repository.ProjectStatsAggregation.statsAggregation;
+import static com.opensource.projectu.repository.ProjectStatsAggregation.toProjectStats;
+
+/**
+ * Reads and writes the project documents. Everything depending on where the tasks are stored
+ * is delegated to the configured {@link TaskStore}.
+ */
+@AllArgsConstructor
+public class ProjectRepositoryCustomImpl implements ProjectRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskStore taskStore;
+
+    @Override
+    public List<Project> findPage(ProjectCursor after, int limit, Sort.Direction direction,
+                                  ProjectFilter filter, ProjectProjection projection) {
+        var projects = mongoTemplate.find(pageQuery(after, limit, direction, filter, projection), Project.class);
+        return projection.selects("tasks") ? taskStore.withTasks(projects) : projects;
+    }
+
+    @Override
+    public List<Project> findModifiedSince(SyncToken since, long until, int limit) {
+        return taskStore.withTasks(mongoTemplate.find(modifiedSinceQuery(since, until, limit), Project.class));
+    }
+
+    @Override
+    public List<Tombstone> findTombstonesSince(SyncToken since, long until, int limit) {
+        return mongoTemplate.find(tombstonesSinceQuery(since, until, limit), Tombstone.class);
+    }
+
+    @Override
+    public Optional<Project> findById(UUID id) {
+        return findProjectById(id, ProjectProjection.ALL);
+    }
+
+    @Override
+    public Optional<Project> findProjectById(UUID id, ProjectProjection projection) {
+        return Optional.ofNullable(mongoTemplate.findOne(byId(id, projection), Project.class))
+                .map(project -> projection.selects("tasks") ? taskStore.withTasks(List.of(project)).get(0) : project);
+    }
+
+    @Override
+    public Optional<Project> findByTasksId(UUID taskId) {
+        return taskStore.findProjectOfTask(taskId);
+    }
+
+    @Override
+    public ProjectStats findStats(ProjectFilter filter) {
+        return toProjectStats(mongoTemplate.aggregate(
+                statsAggregation(filter, taskStore.lookupTasks()), Document.class).getUniqueMappedResult());
+    }
+
+    @Override
+    public Optional<TaskPage> findTaskPage(UUID projectId, int offset, int limit, Boolean done) {
+        return taskStore.findTaskPage(projectId, offset, limit, done);
+    }
+
+    @Override
+    public <S extends Project> S insert(S project) {
+        mongoTemplate.insert(taskStore.toProjectDocument(project), mongoTemplate.getCollectionName(Project.class));
+        taskStore.saveTasks(project.getId(), project.getTasks());
+        return project;
+    }
+
+    @Override
+    public Optional<Project> upsertProject(UUID id, Project project, long timestamp) {
+        var query = byId(id);
+        query.fields().include("createdAt").include("version");
+
+        var previousProject = Optional.ofNullable(mongoTemplate.findAndModify(
+                query,
+                taskStore.toProjectUpdate(project, timestamp),
+                FindAndModifyOptions.options().upsert(true).returnNew(false),
+                Project.class));
+        taskStore.saveTasks(id, project.getTasks());
+        return previousProject;
+    }
+
+    @Override
+    public Optional<Project> replaceProject(UUID id, Long version, Project project, long timestamp) {
+        var query = byIdAndVersion(id, version);
+        query.fields().include("createdAt").include("version");
+
+        var previousProject = Optional.ofNullable(mongoTemplate.findAndModify(
+                query,
+                taskStore.toProjectUpdate(project, timestamp),
+                FindAndModifyOptions.options().returnNew(false),
+                Project.class));
+        previousProject.ifPresent(replacedProject -> taskStore.saveTasks(id, project.getTasks()));
+        return previousProject;
+    }
+
+    @Override
+    public Optional<Project> patchProject(UUID id, Long version, Map<String, Object> changes, long timestamp) {
+        var project = mongoTemplate.findAndModify(
+                byIdAndVersion(id, version),
+                taskStore.toProjectPatch(changes, timestamp),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+        if(project == null) {
+            return Optional.empty();
+        }
+        if(changes.containsKey("tasks")) {
+            taskStore.saveTasks(id, changedTasks(changes));
+        }
+        return Optional.of(taskStore.withTasks(List.of(project)).get(0));
+    }
+
+    @Override
+    public Optional<Project> pushTask(UUID projectId, Task task) {
+        return taskStore.pushTask(projectId, task);
+    }
+
+    @Override
+    public Optional<Project> replaceTask(UUID taskId, Long version, Task task) {
+        return taskStore.replaceTask(taskId, version, task);
+    }
+
+    @Override
+    public Optional<Project> replaceTasks(UUID projectId, List<Task> tasks) {
+        return taskStore.replaceTasks(projectId, tasks);
+    }
+
+    @Override
+    public Optional<Project> patchTask(UUID taskId, Long version, Map<String, Object> changes) {
+        return taskStore.patchTask(taskId, version, changes);
+    }
+
+    @Override
+    public Optional<Project> pullTask(UUID taskId) {
+        return taskStore.pullTask(taskId);
+    }
+
+    @Override
+    public long removeById(UUID id) {
+        var deletedCount = mongoTemplate.remove(byId(id), Project.class).getDeletedCount();
+        if(deletedCount > 0) {
+            taskStore.removeTasks(List.of(id));
+        }
+        return deletedCount;
+    }
+
+    @Override
+    public void saveTombstones(List<Tombstone> tombstones) {
+        if(tombstones.isEmpty()) {
+            return;
+        }
+        var bulkOperations = mongoTemplate.bulkOps(bulkMode(false), Tombstone.class);
+        tombstones.forEach(tombstone -> bulkOperations.upsert(byId(tombstone.getId()), tombstoneUpdate(tombstone)));
+        bulkOperations.execute();
+    }
+
+    @Override
+    public Set<UUID> findExistingIds(Collection<UUID> ids) {
+        var query = Query.query(Criteria.where("id").in(ids));
+        query.fields().include("id");
+
+        return mongoTemplate.find(query, Project.class)
+                .stream()
+                .map(Project::getId)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Map<UUID, UUID> findProjectIdsByTaskIds(Collection<UUID> taskIds) {
+        return taskStore.findProjectIdsByTaskIds(taskIds);
+    }
+
+    @Override
+    public BulkWriteOutcome bulkWriteProjects(List<ProjectWrite> writes, boolean ordered) {
+        var bulkOperations = mongoTemplate.bulkOps(bulkMode(ordered), Project.class);
+        for(var write : writes) {
+            switch(write.getType()) {
+                case INSERT:
+                    bulkOperations.insert(taskStore.toProjectDocument(write.getProject()));
+                    break;
+                case UPSERT:
+                    bulkOperations.upsert(byId(write.getId()), taskStore.toProjectUpdate(write.getProject(), write.getCreatedAt()));
+                    break;
+                case DELETE:
+                    bulkOperations.remove(byId(write.getId()));
+                    break;
+            }
+        }
+        var outcome = execute(bulkOperations, writes.size());
+        saveTasksOfSucceededWrites(writes, ordered, outcome);
+        return outcome;
+    }
+
+    /**
+     * An ordered bulk write stops at its first failed write, the following writes are not executed.
+     */
+    private void saveTasksOfSucceededWrites(List<ProjectWrite> writes, boolean ordered, BulkWriteOutcome outcome) {
+        var executedCount = ordered
+                ? outcome.getErrors().keySet().stream().min(Integer::compare).orElse(writes.size())
+                : writes.size();
+        var deletedIds = new ArrayList<UUID>();
+        for(int i = 0; i < executedCount; i++) {
+            if(outcome.getErrors().containsKey(i)) {
+                continue;
+            }
+            var write = writes.get(i);
+            if(write.getType() == ProjectWrite.Type.DELETE) {
+                deletedIds.add(write.getId());
+            } else {
+                taskStore.saveTasks(write.getId(), write.getProject().getTasks());
+            }
+        }
+        taskStore.removeTasks(deletedIds);
+    }
+
+    @Override
+    public BulkWriteOutcome bulkWriteTasks(List<TaskWrite> writes, boolean ordered) {
+        return taskStore.bulkWriteTasks(writes, ordered);
+    }
+}
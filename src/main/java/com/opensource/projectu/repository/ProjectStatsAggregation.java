@@ -0,0 +1,150 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.DurationComparison;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectGroupStats;
+import com.opensource.projectu.openapi.model.ProjectStats;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.opensource.projectu.repository.ProjectQueries.filterCriteria;
+
+/**
+ * Computes the statistics of the filtered projects in a single $facet aggregation,
+ * so only the summary numbers are sent from the database.
+ * Shared by the blocking and the reactive project repository.
+ */
+final class ProjectStatsAggregation {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000;
+
+    static TypedAggregation<Project> statsAggregation(ProjectFilter filter) {
+        return statsAggregation(filter, List.of());
+    }
+
+    /**
+     * The task stages add the tasks array to the matched projects, if the tasks are not embedded.
+     */
+    static TypedAggregation<Project> statsAggregation(ProjectFilter filter, List<AggregationOperation> taskStages) {
+        var stages = new ArrayList<AggregationOperation>();
+        var criteria = filterCriteria(filter);
+        if(!criteria.isEmpty()) {
+            stages.add(Aggregation.match(new Criteria().andOperator(criteria.toArray(Criteria[]::new))));
+        }
+        stages.addAll(taskStages);
+        stages.add(context -> new Document("$facet", new Document()
+                .append("totals", List.of(new Document("$group", groupStats(null)
+                        .append("averageEstimatedDurationInHours", new Document("$avg", "$estimatedDurationInHours"))
+                        .append("taskEstimatedDurationInHours",
+                                new Document("$sum", new Document("$sum", "$tasks.estimatedDurationInHours"))))))
+                .append("byState", List.of(
+                        new Document("$group", groupStats("$state")),
+                        new Document("$sort", new Document("_id", 1))))
+                .append("byComplexity", List.of(
+                        new Document("$group", groupStats("$complexity")),
+                        new Document("$sort", new Document("_id", 1))))
+                .append("estimatedVsActual", List.of(
+                        new Document("$project", new Document()
+                                .append("estimatedDurationInHours", 1)
+                                .append("actualDurationInMillis", new Document("$subtract",
+                                        List.of(epochMillis("$finishedAt"), epochMillis("$startedAt"))))),
+                        new Document("$match", new Document("actualDurationInMillis", new Document("$ne", null))),
+                        new Document("$group", new Document("_id", null)
+                                .append("projectCount", new Document("$sum", 1))
+                                .append("estimatedDurationInHours", new Document("$sum", "$estimatedDurationInHours"))
+                                .append("actualDurationInMillis", new Document("$sum", "$actualDurationInMillis")))))));
+        return Aggregation.newAggregation(Project.class, stages);
+    }
+
+    /**
+     * Facets of an empty collection contain no groups, their numbers are returned as 0.
+     */
+    static ProjectStats toProjectStats(Document result) {
+        var facets = result == null ? new Document() : result;
+        var totals = first(facets, "totals");
+        var estimatedVsActual = first(facets, "estimatedVsActual");
+        var taskCount = longOf(totals, "taskCount");
+        var doneTaskCount = longOf(totals, "doneTaskCount");
+        return ProjectStats.builder()
+                .projectCount(longOf(totals, "projectCount"))
+                .estimatedDurationInHours(longOf(totals, "estimatedDurationInHours"))
+                .averageEstimatedDurationInHours(doubleOf(totals, "averageEstimatedDurationInHours"))
+                .taskCount(taskCount)
+                .doneTaskCount(doneTaskCount)
+                .taskCompletionRatio(taskCount == 0 ? 0 : (double) doneTaskCount / taskCount)
+                .taskEstimatedDurationInHours(longOf(totals, "taskEstimatedDurationInHours"))
+                .byState(toGroupStats(facets, "byState"))
+                .byComplexity(toGroupStats(facets, "byComplexity"))
+                .estimatedVsActual(DurationComparison.builder()
+                        .projectCount(longOf(estimatedVsActual, "projectCount"))
+                        .estimatedDurationInHours(longOf(estimatedVsActual, "estimatedDurationInHours"))
+                        .actualDurationInHours(longOf(estimatedVsActual, "actualDurationInMillis") / MILLIS_PER_HOUR)
+                        .build())
+                .build();
+    }
+
+    private static Document groupStats(String key) {
+        var tasks = new Document("$ifNull", List.of("$tasks", List.of()));
+        var doneTasks = new Document("$filter", new Document("input", tasks)
+                .append("cond", new Document("$eq", List.of("$$this.done", true))));
+        return new Document("_id", key)
+                .append("projectCount", new Document("$sum", 1))
+                .append("estimatedDurationInHours", new Document("$sum", "$estimatedDurationInHours"))
+                .append("taskCount", new Document("$sum", new Document("$size", tasks)))
+                .append("doneTaskCount", new Document("$sum", new Document("$size", doneTasks)));
+    }
+
+    /**
+     * Start and finish times are plain strings, holding either epoch milliseconds or an ISO-8601 date.
+     * Anything else results in null, so the project is left out of the comparison.
+     */
+    private static Document epochMillis(String field) {
+        var fromDate = new Document("$convert", new Document("input",
+                new Document("$convert", new Document("input", field)
+                        .append("to", "date")
+                        .append("onError", null)
+                        .append("onNull", null)))
+                .append("to", "long")
+                .append("onNull", null));
+        return new Document("$convert", new Document("input", field)
+                .append("to", "long")
+                .append("onError", fromDate)
+                .append("onNull", null));
+    }
+
+    private static List<ProjectGroupStats> toGroupStats(Document facets, String facet) {
+        return facets.getList(facet, Document.class, List.of()).stream()
+                .map(group -> ProjectGroupStats.builder()
+                        .value(group.get("_id") == null ? null : group.get("_id").toString())
+                        .projectCount(longOf(group, "projectCount"))
+                        .estimatedDurationInHours(longOf(group, "estimatedDurationInHours"))
+                        .taskCount(longOf(group, "taskCount"))
+                        .doneTaskCount(longOf(group, "doneTaskCount"))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static Document first(Document facets, String facet) {
+        var documents = facets.getList(facet, Document.class, List.of());
+        return documents.isEmpty() ? new Document() : documents.get(0);
+    }
+
+    private static Double doubleOf(Document document, String key) {
+        var value = document.get(key, Number.class);
+        return value == null ? null : value.doubleValue();
+    }
+
+    private static long longOf(Document document, String key) {
+        var value = document.get(key, Number.class);
+        return value == null ? 0 : value.longValue();
+    }
+
+    private ProjectStatsAggregation() {}
+}
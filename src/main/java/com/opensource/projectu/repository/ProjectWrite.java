@@ -0,0 +1,35 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * A single project write of a bulk write.
+ */
+@Value
+public class ProjectWrite {
+    Type type;
+    UUID id;
+    Project project;
+    long createdAt;
+
+    public static ProjectWrite insert(Project project) {
+        return new ProjectWrite(Type.INSERT, project.getId(), project, project.getCreatedAt());
+    }
+
+    public static ProjectWrite upsert(UUID id, Project project, long createdAt) {
+        return new ProjectWrite(Type.UPSERT, id, project, createdAt);
+    }
+
+    public static ProjectWrite delete(UUID id) {
+        return new ProjectWrite(Type.DELETE, id, null, 0);
+    }
+
+    public enum Type {
+        INSERT,
+        UPSERT,
+        DELETE
+    }
+}
@@ -0,0 +1,14 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface ReactiveProjectRepository extends ReactiveMongoRepository<Project, UUID>, ReactiveProjectRepositoryCustom {
+
+    Mono<Project> findByTasksId(UUID id);
+
+    Mono<Long> removeById(UUID id);
+}
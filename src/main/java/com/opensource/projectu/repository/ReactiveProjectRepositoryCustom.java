@@ -0,0 +1,49 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectStats;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.Tombstone;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reactive counterpart of {@link ProjectRepositoryCustom}.
+ * Every method emits nothing where the blocking method returns an empty Optional.
+ */
+public interface ReactiveProjectRepositoryCustom {
+
+    Flux<Project> findPage(ProjectCursor after, int limit, Sort.Direction direction,
+                           ProjectFilter filter, ProjectProjection projection);
+
+    Flux<Project> findModifiedSince(SyncToken since, long until, int limit);
+
+    Flux<Tombstone> findTombstonesSince(SyncToken since, long until, int limit);
+
+    Mono<Project> findProjectById(UUID id, ProjectProjection projection);
+
+    Mono<ProjectStats> findStats(ProjectFilter filter);
+
+    Mono<TaskPage> findTaskPage(UUID projectId, int offset, int limit, Boolean done);
+
+    Mono<Project> upsertProject(UUID id, Project project, long timestamp);
+
+    Mono<Project> replaceProject(UUID id, Long version, Project project, long timestamp);
+
+    Mono<Project> patchProject(UUID id, Long version, Map<String, Object> changes, long timestamp);
+
+    Mono<Project> pushTask(UUID projectId, Task task);
+
+    Mono<Project> replaceTask(UUID taskId, Long version, Task task);
+
+    Mono<Project> patchTask(UUID taskId, Long version, Map<String, Object> changes);
+
+    Mono<Project> pullTask(UUID taskId);
+
+    Mono<Void> saveTombstones(List<Tombstone> tombstones);
+}
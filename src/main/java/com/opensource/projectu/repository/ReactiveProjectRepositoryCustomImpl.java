@@ -0,0 +1,163 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectStats;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.Tombstone;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.opensource.projectu.repository.ProjectQueries.MATCHED_TASK;
+import static com.opensource.projectu.repository.ProjectQueries.byId;
+import static com.opensource.projectu.repository.ProjectQueries.byIdAndVersion;
+import static com.opensource.projectu.repository.ProjectQueries.byTaskId;
+import static com.opensource.projectu.repository.ProjectQueries.byTaskIdAndVersion;
+import static com.opensource.projectu.repository.ProjectQueries.modifiedSinceQuery;
+import static com.opensource.projectu.repository.ProjectQueries.pageQuery;
+import static com.opensource.projectu.repository.ProjectQueries.patchUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.pullTaskUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.pushTaskQuery;
+import static com.opensource.projectu.repository.ProjectQueries.pushTaskUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.replaceTaskUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.tombstoneUpdate;
+import static com.opensource.projectu.repository.ProjectQueries.tombstonesSinceQuery;
+import static com.opensource.projectu.repository.ProjectQueries.upsertUpdate;
+import static com.opensource.projectu.repository.ProjectStatsAggregation.statsAggregation;
+import static com.opensource.projectu.repository.ProjectStatsAggregation.toProjectStats;
+import static com.opensource.projectu.repository.TaskPageAggregation.taskPageAggregation;
+import static com.opensource.projectu.repository.TaskPageAggregation.toTaskPage;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.getCurrentTimestamp;
+
+@AllArgsConstructor
+public class ReactiveProjectRepositoryCustomImpl implements ReactiveProjectRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<Project> findPage(ProjectCursor after, int limit, Sort.Direction direction,
+                                 ProjectFilter filter, ProjectProjection projection) {
+        return reactiveMongoTemplate.find(pageQuery(after, limit, direction, filter, projection), Project.class);
+    }
+
+    @Override
+    public Flux<Project> findModifiedSince(SyncToken since, long until, int limit) {
+        return reactiveMongoTemplate.find(modifiedSinceQuery(since, until, limit), Project.class);
+    }
+
+    @Override
+    public Flux<Tombstone> findTombstonesSince(SyncToken since, long until, int limit) {
+        return reactiveMongoTemplate.find(tombstonesSinceQuery(since, until, limit), Tombstone.class);
+    }
+
+    @Override
+    public Mono<Project> findProjectById(UUID id, ProjectProjection projection) {
+        return reactiveMongoTemplate.findOne(byId(id, projection), Project.class);
+    }
+
+    @Override
+    public Mono<ProjectStats> findStats(ProjectFilter filter) {
+        return reactiveMongoTemplate.aggregate(statsAggregation(filter), Document.class)
+                .next()
+                .map(ProjectStatsAggregation::toProjectStats)
+                .defaultIfEmpty(toProjectStats(null));
+    }
+
+    @Override
+    public Mono<TaskPage> findTaskPage(UUID projectId, int offset, int limit, Boolean done) {
+        return reactiveMongoTemplate.aggregate(taskPageAggregation(projectId, offset, limit, done), Document.class)
+                .next()
+                .map(result -> toTaskPage(result, reactiveMongoTemplate.getConverter()));
+    }
+
+    @Override
+    public Mono<Project> upsertProject(UUID id, Project project, long timestamp) {
+        var query = byId(id);
+        query.fields().include("createdAt").include("version");
+
+        return reactiveMongoTemplate.findAndModify(
+                query,
+                upsertUpdate(project, timestamp),
+                FindAndModifyOptions.options().upsert(true).returnNew(false),
+                Project.class);
+    }
+
+    @Override
+    public Mono<Project> replaceProject(UUID id, Long version, Project project, long timestamp) {
+        var query = byIdAndVersion(id, version);
+        query.fields().include("createdAt").include("version");
+
+        return reactiveMongoTemplate.findAndModify(
+                query,
+                upsertUpdate(project, timestamp),
+                FindAndModifyOptions.options().returnNew(false),
+                Project.class);
+    }
+
+    @Override
+    public Mono<Project> patchProject(UUID id, Long version, Map<String, Object> changes, long timestamp) {
+        return reactiveMongoTemplate.findAndModify(
+                byIdAndVersion(id, version),
+                patchUpdate("", changes, timestamp),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+    }
+
+    @Override
+    public Mono<Project> pushTask(UUID projectId, Task task) {
+        return reactiveMongoTemplate.findAndModify(
+                pushTaskQuery(projectId, task),
+                pushTaskUpdate(task),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+    }
+
+    @Override
+    public Mono<Project> replaceTask(UUID taskId, Long version, Task task) {
+        var query = byTaskIdAndVersion(taskId, version);
+        query.fields().include("id").include("version");
+
+        return reactiveMongoTemplate.findAndModify(
+                query,
+                replaceTaskUpdate(task),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+    }
+
+    @Override
+    public Mono<Project> patchTask(UUID taskId, Long version, Map<String, Object> changes) {
+        var query = byTaskIdAndVersion(taskId, version);
+        query.fields().include("id").include("version").position("tasks", 1);
+
+        return reactiveMongoTemplate.findAndModify(
+                query,
+                patchUpdate(MATCHED_TASK, changes, getCurrentTimestamp()),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+    }
+
+    @Override
+    public Mono<Project> pullTask(UUID taskId) {
+        return reactiveMongoTemplate.findAndModify(
+                byTaskId(taskId),
+                pullTaskUpdate(taskId),
+                FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+    }
+
+    @Override
+    public Mono<Void> saveTombstones(List<Tombstone> tombstones) {
+        return Flux.fromIterable(tombstones)
+                .concatMap(tombstone -> reactiveMongoTemplate.upsert(
+                        byId(tombstone.getId()), tombstoneUpdate(tombstone), Tombstone.class))
+                .then();
+    }
+}
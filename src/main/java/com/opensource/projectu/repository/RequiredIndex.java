@@ -0,0 +1,14 @@
+package com.opensource.projectu.repository;
+
+import lombok.Value;
+import org.springframework.data.mongodb.core.index.Index;
+
+@Value
+public class RequiredIndex {
+    Class<?> entityClass;
+    Index index;
+
+    public String getName() {
+        return (String) index.getIndexOptions().get("name");
+    }
+}
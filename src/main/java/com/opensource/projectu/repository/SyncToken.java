@@ -0,0 +1,24 @@
+package com.opensource.projectu.repository;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Position in the changes of the projects, ordered by the time of the change. Changes at the same time
+ * are ordered by their source, projects before tombstones, then by id.
+ * Without source and id every change at the timestamp has been read.
+ */
+@Value
+public class SyncToken {
+
+    public enum Source { PROJECT, TOMBSTONE }
+
+    long timestamp;
+    Source source;
+    UUID id;
+
+    public static SyncToken at(long timestamp) {
+        return new SyncToken(timestamp, null, null);
+    }
+}
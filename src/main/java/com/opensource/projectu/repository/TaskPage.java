@@ -0,0 +1,17 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Task;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A page of the tasks of a project. The total count is the number of tasks matching the filter, not only of the page.
+ */
+@Builder
+@Value
+public class TaskPage {
+    List<Task> tasks;
+    long totalCount;
+}
@@ -0,0 +1,49 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a page of the embedded tasks of a project, so the database only sends the requested slice
+ * of the task array instead of the whole project document.
+ * Shared by the blocking and the reactive project repository.
+ */
+final class TaskPageAggregation {
+
+    static TypedAggregation<Project> taskPageAggregation(UUID projectId, int offset, int limit, Boolean done) {
+        var tasks = new Document("$ifNull", List.of("$tasks", List.of()));
+        var matchingTasks = done == null
+                ? tasks
+                : new Document("$filter", new Document("input", tasks)
+                        .append("cond", new Document("$eq", List.of("$$this.done", done))));
+        return Aggregation.newAggregation(Project.class,
+                Aggregation.match(Criteria.where("id").is(projectId)),
+                context -> new Document("$project", new Document("tasks", matchingTasks)),
+                context -> new Document("$project", new Document()
+                        .append("totalCount", new Document("$size", "$tasks"))
+                        .append("tasks", new Document("$slice", List.of("$tasks", offset, limit)))));
+    }
+
+    /**
+     * The embedded tasks are read with the converter of the template, which maps their _id to the task id.
+     */
+    static TaskPage toTaskPage(Document result, MongoConverter converter) {
+        return TaskPage.builder()
+                .tasks(result.getList("tasks", Document.class, List.of()).stream()
+                        .map(task -> converter.read(Task.class, task))
+                        .collect(Collectors.toList()))
+                .totalCount(result.get("totalCount", Number.class).longValue())
+                .build();
+    }
+
+    private TaskPageAggregation() {}
+}
@@ -0,0 +1,237 @@
+package com.opensource.projectu.repository;
+
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.util.IdGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.opensource.projectu.repository.CollectionTaskStore.NEXT_POSITION;
+import static com.opensource.projectu.repository.CollectionTaskStore.POSITION;
+import static com.opensource.projectu.repository.CollectionTaskStore.PROJECT_ID;
+import static com.opensource.projectu.repository.CollectionTaskStore.TASK_COLLECTION;
+import static com.opensource.projectu.repository.CollectionTaskStore.toTaskDocument;
+
+/**
+ * Moves the tasks into the configured storage layout when the application is ready, one project at a time.
+ * The tasks of a project are only removed from the old layout after they were written to the new one,
+ * so an interrupted migration can be started again. Project versions are kept, as the projects do not change.
+ * Both directions are safe while the instance serves requests in the new layout.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "projectu.tasks.migrate-on-startup", havingValue = "true")
+public class TaskStorageMigration {
+
+    private final MongoTemplate mongoTemplate;
+    private final IdGenerator idGenerator;
+
+    @Value("${projectu.tasks.storage:embedded}")
+    private String storage;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        var thread = new Thread(this::migrate, "task-storage-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void migrate() {
+        try {
+            var migratedCount = "collection".equals(storage) ? migrateToCollection() : migrateToEmbedded();
+            log.info("Migrated the tasks of {} projects to the {} storage", migratedCount, storage);
+        } catch (DataAccessException e) {
+            log.error("Migration of the tasks to the {} storage failed: {}", storage, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs while the instance already serves writes in the collection layout, so it must not overwrite them:
+     * <ul>
+     *     <li>The embedded tasks are only inserted if the task collection does not hold them yet, a task written
+     *     in the meantime is newer. Tasks without an id get one, the task collection is keyed by it.</li>
+     *     <li>They get negative positions, so they come before the tasks pushed in the meantime,
+     *     whose positions start at 0, and the next task position of the project is not touched.</li>
+     *     <li>The embedded tasks are only removed if the project version is unchanged. Otherwise the project
+     *     is read again; if a written task list replaced the embedded tasks, or the project was deleted,
+     *     the inserted tasks which were not written again are removed.</li>
+     * </ul>
+     */
+    long migrateToCollection() {
+        var query = Query.query(Criteria.where("tasks").exists(true));
+        query.fields().include("tasks").include("version");
+
+        var migratedCount = 0L;
+        try(var projects = mongoTemplate.stream(query, Document.class, projectCollection())) {
+            while(projects.hasNext()) {
+                if(migrateToCollection(projects.next())) {
+                    migratedCount++;
+                }
+            }
+        }
+        return migratedCount;
+    }
+
+    private boolean migrateToCollection(Document project) {
+        var projectId = project.get("_id", UUID.class);
+        var tasks = project.getList("tasks", Document.class, new ArrayList<>());
+
+        var insertedTaskIds = new ArrayList<UUID>();
+        if(!tasks.isEmpty()) {
+            var bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TASK_COLLECTION);
+            for(int i = 0; i < tasks.size(); i++) {
+                var task = tasks.get(i);
+                if(task.get("_id") == null) {
+                    task.put("_id", idGenerator.generateId());
+                }
+                var taskId = task.get("_id", UUID.class);
+                var insert = new Update();
+                toTaskDocument(new Document(task), projectId, i - tasks.size()).forEach((key, value) -> {
+                    if(!"_id".equals(key)) {
+                        insert.setOnInsert(key, value);
+                    }
+                });
+                bulkOperations.upsert(Query.query(Criteria.where("_id").is(taskId)), insert);
+                insertedTaskIds.add(taskId);
+            }
+            var result = bulkOperations.execute();
+            var upsertedIndexes = result.getUpserts().stream()
+                    .map(BulkWriteUpsert::getIndex)
+                    .collect(Collectors.toSet());
+            for(int i = insertedTaskIds.size() - 1; i >= 0; i--) {
+                if(!upsertedIndexes.contains(i)) {
+                    insertedTaskIds.remove(i);
+                }
+            }
+        }
+
+        var version = project.get("version");
+        while(true) {
+            var unset = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(projectId).and("version").is(version).and("tasks").exists(true)),
+                    new Update().unset("tasks"),
+                    projectCollection());
+            if(unset.getMatchedCount() > 0) {
+                return true;
+            }
+            var current = mongoTemplate.findOne(Query.query(Criteria.where("_id").is(projectId)),
+                    Document.class, projectCollection());
+            if(current == null || !current.containsKey("tasks")) {
+                removeUnwrittenTasks(projectId, insertedTaskIds);
+                return false;
+            }
+            version = current.get("version");
+        }
+    }
+
+    /**
+     * Tasks written by the collection layout have positions from 0, the remaining migrated ones were not written again.
+     */
+    private void removeUnwrittenTasks(UUID projectId, List<UUID> insertedTaskIds) {
+        if(!insertedTaskIds.isEmpty()) {
+            mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").in(insertedTaskIds).and(PROJECT_ID).is(projectId).and(POSITION).lt(0)),
+                    TASK_COLLECTION);
+        }
+    }
+
+    /**
+     * Runs while the instance already serves writes in the embedded layout, so it must not overwrite them:
+     * <ul>
+     *     <li>The tasks are added in front of the embedded tasks, except those embedded already, and only if
+     *     the project version is unchanged since the embedded tasks were read. Otherwise they are read again.</li>
+     *     <li>Only projects still keeping their next task position get the tasks. The embedded layout removes it
+     *     when it overwrites the tasks of a project, whose tasks in the collection are outdated then.
+     *     The migration removes it as well, so an interrupted migration does not add the tasks twice.</li>
+     *     <li>Only the task documents which were read are removed, once they are embedded or outdated.</li>
+     * </ul>
+     * Projects whose tasks do not fit into a single document are skipped and keep their tasks in the task collection.
+     */
+    long migrateToEmbedded() {
+        var migratedCount = 0L;
+        for(var projectId : mongoTemplate.findDistinct(new Query(), PROJECT_ID, TASK_COLLECTION, UUID.class)) {
+            try {
+                if(migrateToEmbedded(projectId)) {
+                    migratedCount++;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Tasks of project {} could not be embedded: {}", projectId, e.getMessage());
+            }
+        }
+        return migratedCount;
+    }
+
+    private boolean migrateToEmbedded(UUID projectId) {
+        var tasksQuery = Query.query(Criteria.where(PROJECT_ID).is(projectId))
+                .with(Sort.by(POSITION));
+        var tasks = mongoTemplate.find(tasksQuery, Document.class, TASK_COLLECTION);
+        var taskIds = tasks.stream()
+                .map(task -> task.get("_id", UUID.class))
+                .collect(Collectors.toList());
+        tasks.forEach(task -> {
+            task.remove(PROJECT_ID);
+            task.remove(POSITION);
+        });
+
+        var projectQuery = Query.query(Criteria.where("_id").is(projectId));
+        projectQuery.fields().include("tasks._id").include("version").include(NEXT_POSITION);
+        while(true) {
+            var project = mongoTemplate.findOne(projectQuery, Document.class, projectCollection());
+            if(project == null || !project.containsKey(NEXT_POSITION)) {
+                removeMigratedTasks(projectId, taskIds);
+                return false;
+            }
+            var embeddedTaskIds = project.getList("tasks", Document.class, List.of()).stream()
+                    .map(task -> task.get("_id"))
+                    .collect(Collectors.toSet());
+            var addedTasks = tasks.stream()
+                    .filter(task -> !embeddedTaskIds.contains(task.get("_id")))
+                    .toArray();
+            var update = new Update().unset(NEXT_POSITION);
+            if(addedTasks.length > 0) {
+                update.push("tasks").atPosition(0).each(addedTasks);
+            }
+            var embedded = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(projectId)
+                            .and("version").is(project.get("version"))
+                            .and(NEXT_POSITION).exists(true)),
+                    update,
+                    projectCollection());
+            if(embedded.getMatchedCount() > 0) {
+                removeMigratedTasks(projectId, taskIds);
+                return true;
+            }
+        }
+    }
+
+    private void removeMigratedTasks(UUID projectId, List<UUID> taskIds) {
+        if(!taskIds.isEmpty()) {
+            mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").in(taskIds).and(PROJECT_ID).is(projectId)),
+                    TASK_COLLECTION);
+        }
+    }
+
+    private String projectCollection() {
+        return mongoTemplate.getCollectionName(Project.class);
+    }
+}
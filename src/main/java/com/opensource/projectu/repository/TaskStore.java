@@ -0,0 +1,101 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage layout of the tasks, used by the project repository.
+ * Whatever the layout, projects are read with their tasks in the order they were added,
+ * and every task write increments the version of its project.
+ */
+public interface TaskStore {
+
+    /**
+     * Attaches the tasks to projects read from the project collection.
+     */
+    List<Project> withTasks(List<Project> projects);
+
+    /**
+     * Returns the project containing the task, with all of its tasks.
+     */
+    Optional<Project> findProjectOfTask(UUID taskId);
+
+    /**
+     * Returns empty if the project does not exist.
+     */
+    Optional<TaskPage> findTaskPage(UUID projectId, int offset, int limit, Boolean done);
+
+    /**
+     * Aggregation stages which add the tasks array to the project documents.
+     */
+    List<AggregationOperation> lookupTasks();
+
+    /**
+     * Appends the task to the project and returns the project with all of its tasks.
+     * Returns empty if the project does not exist or a task with the same id already exists.
+     */
+    Optional<Project> pushTask(UUID projectId, Task task);
+
+    /**
+     * Overwrites the task if its project has the given version, any version if null.
+     * Returns the id and new version of the project containing the task,
+     * or empty if no project with the version contains it.
+     */
+    Optional<Project> replaceTask(UUID taskId, Long version, Task task);
+
+    /**
+     * Overwrites several tasks of the project, which have distinct ids, with a single version increment.
+     * Returns the id and new version of the project,
+     * or empty if the project does not exist or does not contain every task.
+     */
+    Optional<Project> replaceTasks(UUID projectId, List<Task> tasks);
+
+    /**
+     * Sets the changed fields of the task and removes those changed to null,
+     * if its project has the given version, any version if null.
+     * Returns the id and new version of the project containing the task, with the patched task as its only task,
+     * or empty if no project with the version contains it.
+     */
+    Optional<Project> patchTask(UUID taskId, Long version, Map<String, Object> changes);
+
+    /**
+     * Removes the task and returns the project without it.
+     */
+    Optional<Project> pullTask(UUID taskId);
+
+    Map<UUID, UUID> findProjectIdsByTaskIds(Collection<UUID> taskIds);
+
+    BulkWriteOutcome bulkWriteTasks(List<TaskWrite> writes, boolean ordered);
+
+    /**
+     * The project as it is inserted into the project collection.
+     */
+    Object toProjectDocument(Project project);
+
+    /**
+     * The update overwriting every field of the project in the project collection.
+     * If the project is inserted, the timestamp is its creation time.
+     */
+    Update toProjectUpdate(Project project, long timestamp);
+
+    /**
+     * The update of the changed fields of the project in the project collection.
+     * Changed tasks are stored with {@link #saveTasks(UUID, List)}.
+     */
+    Update toProjectPatch(Map<String, Object> changes, long timestamp);
+
+    /**
+     * Stores the tasks of a project which was inserted, overwritten or patched, replacing its previous tasks.
+     */
+    void saveTasks(UUID projectId, List<Task> tasks);
+
+    void removeTasks(Collection<UUID> projectIds);
+}
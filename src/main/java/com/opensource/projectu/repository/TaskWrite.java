@@ -0,0 +1,35 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Task;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * A single task write of a bulk write.
+ */
+@Value
+public class TaskWrite {
+    Type type;
+    UUID projectId;
+    UUID taskId;
+    Task task;
+
+    public static TaskWrite push(UUID projectId, Task task) {
+        return new TaskWrite(Type.PUSH, projectId, task.getId(), task);
+    }
+
+    public static TaskWrite replace(UUID taskId, Task task) {
+        return new TaskWrite(Type.REPLACE, null, taskId, task);
+    }
+
+    public static TaskWrite pull(UUID taskId) {
+        return new TaskWrite(Type.PULL, null, taskId, null);
+    }
+
+    public enum Type {
+        PUSH,
+        REPLACE,
+        PULL
+    }
+}
@@ -0,0 +1,434 @@
+package com.opensource.projectu.service;
+
+import com.opensource.projectu.cache.ProjectCache;
+import com.opensource.projectu.openapi.model.BatchItemResult;
+import com.opensource.projectu.openapi.model.BatchItemStatus;
+import com.opensource.projectu.openapi.model.BatchOperationType;
+import com.opensource.projectu.openapi.model.BatchResult;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectBatchOperation;
+import com.opensource.projectu.openapi.model.ProjectBatchRequest;
+import com.opensource.projectu.openapi.model.TaskBatchOperation;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.TaskBatchRequest;
+import com.opensource.projectu.openapi.model.Tombstone;
+import com.opensource.projectu.repository.BulkWriteOutcome;
+import com.opensource.projectu.repository.ProjectRepository;
+import com.opensource.projectu.repository.ProjectWrite;
+import com.opensource.projectu.repository.TaskWrite;
+import com.opensource.projectu.util.IdGenerator;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.opensource.projectu.util.ProjectPersistenceUtil.assignTaskIds;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.getCurrentTimestamp;
+import static com.opensource.projectu.util.SyncUtil.projectTombstone;
+import static com.opensource.projectu.util.SyncUtil.taskTombstone;
+
+/**
+ * Executes batches of project and task operations with a single bulk write per batch.
+ * Operations which can not succeed (missing data, unknown or repeated ids) are rejected before the bulk write,
+ * so every operation gets its own result instead of failing the whole batch.
+ * Writes which matched nothing, as their project or task was removed concurrently, are reported as not found.
+ */
+@Service
+@AllArgsConstructor
+public class BatchService {
+
+    private final ProjectRepository projectRepository;
+    private final IdGenerator idGenerator;
+    private final ProjectCache projectCache;
+
+    public BatchResult batchProjects(ProjectBatchRequest request) {
+        var operations = request.getOperations();
+        var ordered = isOrdered(request.getOrdered());
+        var results = new BatchItemResult[operations.size()];
+        var existingIds = findExistingIds(operations);
+        var projectIdsByTaskId = findProjectIdsOfTasks(operations);
+        var batchTaskIds = new HashSet<UUID>();
+        var batchIds = new HashSet<UUID>();
+        var createdAt = getCurrentTimestamp();
+
+        var writes = new ArrayList<ProjectWrite>();
+        var writeResults = new ArrayList<BatchItemResult>();
+        for(int i = 0; i < operations.size(); i++) {
+            var operation = operations.get(i);
+            var rejection = isRepeated(operation.getType(), operation.getId(), batchIds)
+                    ? repeated(operation.getId())
+                    : rejectProjectOperation(operation, existingIds, projectIdsByTaskId, batchTaskIds);
+            if(rejection != null) {
+                results[i] = rejection.index(i);
+                if(ordered) {
+                    break;
+                }
+                continue;
+            }
+            if(operation.getType() != BatchOperationType.CREATE) {
+                batchIds.add(operation.getId());
+            }
+            if(operation.getProject() != null && operation.getProject().getTasks() != null) {
+                operation.getProject().getTasks().stream()
+                        .map(Task::getId)
+                        .filter(Objects::nonNull)
+                        .forEach(batchTaskIds::add);
+            }
+            switch(operation.getType()) {
+                case CREATE:
+                    var project = operation.getProject()
+                            .id(idGenerator.generateId())
+                            .tasks(assignTaskIds(operation.getProject().getTasks(), idGenerator))
+                            .createdAt(createdAt)
+                            .modifiedAt(createdAt)
+                            .version(1L);
+                    writes.add(ProjectWrite.insert(project));
+                    writeResults.add(result(i, BatchItemStatus.CREATED, project.getId()));
+                    break;
+                case UPDATE:
+                    assignTaskIds(operation.getProject().getTasks(), idGenerator);
+                    writes.add(ProjectWrite.upsert(operation.getId(), operation.getProject().id(operation.getId()), createdAt));
+                    writeResults.add(result(i, BatchItemStatus.UPDATED, operation.getId()));
+                    break;
+                case DELETE:
+                    writes.add(ProjectWrite.delete(operation.getId()));
+                    writeResults.add(result(i, BatchItemStatus.DELETED, operation.getId()));
+                    break;
+            }
+        }
+
+        var outcome = projectRepository.bulkWriteProjects(writes, ordered);
+        collectWriteResults(outcome, writeResults, results);
+        writeResults.forEach(result -> {
+            if(result.getStatus() == BatchItemStatus.DELETED) {
+                projectCache.deleted(result.getId());
+            } else {
+                projectCache.invalidate(result.getId());
+            }
+        });
+        var batchResult = buildBatchResult(results, ordered);
+        reportUnmatchedDeletions(unmatchedCount(outcome, writes.size(), ordered), batchResult, "Project");
+        projectRepository.saveTombstones(deletedOf(batchResult, id -> projectTombstone(id, getCurrentTimestamp())));
+        return batchResult;
+    }
+
+    public BatchResult batchTasks(TaskBatchRequest request) {
+        var operations = request.getOperations();
+        var ordered = isOrdered(request.getOrdered());
+        var results = new BatchItemResult[operations.size()];
+        var existingProjectIds = findExistingProjectIds(operations);
+        var projectIdsByTaskId = findProjectIdsByTaskIds(operations);
+
+        var writes = new ArrayList<TaskWrite>();
+        var writeResults = new ArrayList<BatchItemResult>();
+        var affectedProjectIds = new HashSet<UUID>();
+        var batchIds = new HashSet<UUID>();
+        for(int i = 0; i < operations.size(); i++) {
+            var operation = operations.get(i);
+            var rejection = isRepeated(operation.getType(), operation.getId(), batchIds)
+                    ? repeated(operation.getId())
+                    : rejectTaskOperation(operation, existingProjectIds, projectIdsByTaskId.keySet());
+            if(rejection != null) {
+                results[i] = rejection.index(i);
+                if(ordered) {
+                    break;
+                }
+                continue;
+            }
+            if(operation.getType() != BatchOperationType.CREATE) {
+                batchIds.add(operation.getId());
+            }
+            switch(operation.getType()) {
+                case CREATE:
+                    var task = operation.getTask().id(idGenerator.generateId());
+                    writes.add(TaskWrite.push(operation.getProjectId(), task));
+                    writeResults.add(result(i, BatchItemStatus.CREATED, task.getId()));
+                    affectedProjectIds.add(operation.getProjectId());
+                    break;
+                case UPDATE:
+                    writes.add(TaskWrite.replace(operation.getId(), operation.getTask().id(operation.getId())));
+                    writeResults.add(result(i, BatchItemStatus.UPDATED, operation.getId()));
+                    affectedProjectIds.add(projectIdsByTaskId.get(operation.getId()));
+                    break;
+                case DELETE:
+                    writes.add(TaskWrite.pull(operation.getId()));
+                    writeResults.add(result(i, BatchItemStatus.DELETED, operation.getId()));
+                    affectedProjectIds.add(projectIdsByTaskId.get(operation.getId()));
+                    break;
+            }
+        }
+
+        var outcome = projectRepository.bulkWriteTasks(writes, ordered);
+        collectWriteResults(outcome, writeResults, results);
+        affectedProjectIds.forEach(projectCache::invalidate);
+        var batchResult = buildBatchResult(results, ordered);
+        var unmatchedCount = unmatchedCount(outcome, writes.size(), ordered);
+        if(unmatchedCount > 0) {
+            unmatchedCount -= reportUnwrittenTasks(batchResult);
+        }
+        reportUnmatchedDeletions(unmatchedCount, batchResult, "Task");
+        projectRepository.saveTombstones(deletedOf(batchResult,
+                id -> taskTombstone(id, projectIdsByTaskId.get(id), getCurrentTimestamp())));
+        return batchResult;
+    }
+
+    private Set<UUID> findExistingIds(List<ProjectBatchOperation> operations) {
+        var ids = idsOf(operations, BatchOperationType.DELETE, ProjectBatchOperation::getType, ProjectBatchOperation::getId);
+        return ids.isEmpty() ? Set.of() : projectRepository.findExistingIds(ids);
+    }
+
+    private Map<UUID, UUID> findProjectIdsOfTasks(List<ProjectBatchOperation> operations) {
+        var ids = operations.stream()
+                .filter(operation -> operation.getProject() != null && operation.getProject().getTasks() != null)
+                .flatMap(operation -> operation.getProject().getTasks().stream())
+                .map(Task::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return ids.isEmpty() ? Map.of() : projectRepository.findProjectIdsByTaskIds(ids);
+    }
+
+    private Set<UUID> findExistingProjectIds(List<TaskBatchOperation> operations) {
+        var ids = idsOf(operations, BatchOperationType.CREATE, TaskBatchOperation::getType, TaskBatchOperation::getProjectId);
+        return ids.isEmpty() ? Set.of() : projectRepository.findExistingIds(ids);
+    }
+
+    private Map<UUID, UUID> findProjectIdsByTaskIds(List<TaskBatchOperation> operations) {
+        var ids = operations.stream()
+                .filter(operation -> operation.getType() != BatchOperationType.CREATE)
+                .map(TaskBatchOperation::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return ids.isEmpty() ? Map.of() : projectRepository.findProjectIdsByTaskIds(ids);
+    }
+
+    private static <T> Set<UUID> idsOf(List<T> operations, BatchOperationType type,
+                                       Function<T, BatchOperationType> typeGetter, Function<T, UUID> idGetter) {
+        return operations.stream()
+                .filter(operation -> typeGetter.apply(operation) == type)
+                .map(idGetter)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Task ids are unique across projects, so a task of another project, or of another operation of the batch,
+     * is rejected before the bulk write instead of failing when the tasks are saved after it.
+     */
+    private static BatchItemResult rejectProjectOperation(ProjectBatchOperation operation, Set<UUID> existingIds,
+                                                          Map<UUID, UUID> projectIdsByTaskId, Set<UUID> batchTaskIds) {
+        if(operation.getProject() != null && hasDuplicateTaskIds(operation.getProject())) {
+            return invalid("The task ids of a project must be unique.");
+        }
+        if(operation.getProject() != null && operation.getProject().getTasks() != null) {
+            var projectId = operation.getType() == BatchOperationType.UPDATE ? operation.getId() : null;
+            for(var task : operation.getProject().getTasks()) {
+                var ownerId = projectIdsByTaskId.get(task.getId());
+                if((ownerId != null && !ownerId.equals(projectId)) || batchTaskIds.contains(task.getId())) {
+                    return invalid("Task with id " + task.getId() + " belongs to another project.");
+                }
+            }
+        }
+        switch(operation.getType()) {
+            case CREATE:
+                return operation.getProject() == null
+                        ? invalid("CREATE requires a project.")
+                        : null;
+            case UPDATE:
+                return operation.getId() == null || operation.getProject() == null
+                        ? invalid("UPDATE requires an id and a project.")
+                        : null;
+            default:
+                if(operation.getId() == null) {
+                    return invalid("DELETE requires an id.");
+                }
+                return existingIds.contains(operation.getId())
+                        ? null
+                        : notFound("Project with id " + operation.getId() + " not found.", operation.getId());
+        }
+    }
+
+    private static boolean hasDuplicateTaskIds(Project project) {
+        if(project.getTasks() == null) {
+            return false;
+        }
+        var taskIds = project.getTasks().stream()
+                .map(Task::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new HashSet<>(taskIds).size() != taskIds.size();
+    }
+
+    private static BatchItemResult rejectTaskOperation(TaskBatchOperation operation,
+                                                       Set<UUID> existingProjectIds, Set<UUID> existingTaskIds) {
+        switch(operation.getType()) {
+            case CREATE:
+                if(operation.getProjectId() == null || operation.getTask() == null) {
+                    return invalid("CREATE requires a projectId and a task.");
+                }
+                return existingProjectIds.contains(operation.getProjectId())
+                        ? null
+                        : notFound("Project with id " + operation.getProjectId() + " not found.", operation.getProjectId());
+            case UPDATE:
+                if(operation.getId() == null || operation.getTask() == null) {
+                    return invalid("UPDATE requires an id and a task.");
+                }
+                break;
+            default:
+                if(operation.getId() == null) {
+                    return invalid("DELETE requires an id.");
+                }
+        }
+        return existingTaskIds.contains(operation.getId())
+                ? null
+                : notFound("Task with id " + operation.getId() + " not found.", operation.getId());
+    }
+
+    /**
+     * An id may only be written once per batch, an operation on a project or task deleted or replaced
+     * by an earlier operation of the batch would match nothing or another version than expected.
+     */
+    private static boolean isRepeated(BatchOperationType type, UUID id, Set<UUID> batchIds) {
+        return type != BatchOperationType.CREATE && id != null && batchIds.contains(id);
+    }
+
+    /**
+     * MongoDB only reports how many documents a bulk write matched, inserted and deleted in total.
+     * Returns how many of the executed writes without error matched nothing.
+     * An ordered bulk write stops at its first failed write, the following writes are not executed.
+     */
+    private static int unmatchedCount(BulkWriteOutcome outcome, int writeCount, boolean ordered) {
+        var executedCount = ordered
+                ? outcome.getErrors().keySet().stream().min(Integer::compare).map(index -> index + 1).orElse(writeCount)
+                : writeCount;
+        var failedCount = ordered ? Math.min(outcome.getErrors().size(), 1) : outcome.getErrors().size();
+        return executedCount - failedCount - outcome.getMatchedCount() - outcome.getInsertedCount()
+                - outcome.getDeletedCount() - outcome.getUpsertedIndexes().size();
+    }
+
+    /**
+     * Created and updated tasks which do not exist after the bulk write were not written,
+     * their project or the task was removed concurrently. Returns how many were found.
+     */
+    private int reportUnwrittenTasks(BatchResult batchResult) {
+        var writtenResults = batchResult.getResults().stream()
+                .filter(result -> result.getStatus() == BatchItemStatus.CREATED
+                        || result.getStatus() == BatchItemStatus.UPDATED)
+                .collect(Collectors.toList());
+        if(writtenResults.isEmpty()) {
+            return 0;
+        }
+        var existingTaskIds = projectRepository.findProjectIdsByTaskIds(writtenResults.stream()
+                .map(BatchItemResult::getId)
+                .collect(Collectors.toSet())).keySet();
+        var unwrittenCount = 0;
+        for(var result : writtenResults) {
+            if(!existingTaskIds.contains(result.getId())) {
+                result.status(BatchItemStatus.NOT_FOUND)
+                        .message("Task with id " + result.getId() + " or its project not found.");
+                unwrittenCount++;
+            }
+        }
+        return unwrittenCount;
+    }
+
+    /**
+     * The deletions which matched nothing can not be told apart from those which deleted a document,
+     * both leave the id deleted. Only if none of them deleted anything, they are all reported as not found.
+     */
+    private static void reportUnmatchedDeletions(int unmatchedCount, BatchResult batchResult, String type) {
+        var deletions = batchResult.getResults().stream()
+                .filter(result -> result.getStatus() == BatchItemStatus.DELETED)
+                .collect(Collectors.toList());
+        if(unmatchedCount > 0 && unmatchedCount >= deletions.size()) {
+            deletions.forEach(result -> result.status(BatchItemStatus.NOT_FOUND)
+                    .message(type + " with id " + result.getId() + " not found."));
+        }
+    }
+
+    private static void collectWriteResults(BulkWriteOutcome outcome,
+                                            List<BatchItemResult> writeResults, BatchItemResult[] results) {
+        for(int i = 0; i < writeResults.size(); i++) {
+            var result = writeResults.get(i);
+            if(outcome.getErrors().containsKey(i)) {
+                result.status(BatchItemStatus.FAILED).message(outcome.getErrors().get(i));
+            } else if(outcome.getUpsertedIndexes().contains(i)) {
+                result.status(BatchItemStatus.CREATED);
+            }
+            results[result.getIndex()] = result;
+        }
+    }
+
+    /**
+     * Tombstones of the deletions which succeeded, failed and skipped deletions have another status.
+     */
+    private static List<Tombstone> deletedOf(BatchResult batchResult, Function<UUID, Tombstone> tombstone) {
+        return batchResult.getResults().stream()
+                .filter(result -> result.getStatus() == BatchItemStatus.DELETED)
+                .map(result -> tombstone.apply(result.getId()))
+                .collect(Collectors.toList());
+    }
+
+    private static BatchResult buildBatchResult(BatchItemResult[] results, boolean ordered) {
+        var failed = false;
+        for(int i = 0; i < results.length; i++) {
+            if(results[i] == null || (ordered && failed)) {
+                results[i] = result(i, BatchItemStatus.SKIPPED, null);
+            } else {
+                failed = failed || isFailure(results[i].getStatus());
+            }
+        }
+        return BatchResult.builder()
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private static boolean isFailure(BatchItemStatus status) {
+        return status == BatchItemStatus.INVALID
+                || status == BatchItemStatus.NOT_FOUND
+                || status == BatchItemStatus.FAILED;
+    }
+
+    private static boolean isOrdered(Boolean ordered) {
+        return !Boolean.FALSE.equals(ordered);
+    }
+
+    private static BatchItemResult result(int index, BatchItemStatus status, UUID id) {
+        return BatchItemResult.builder()
+                .index(index)
+                .status(status)
+                .id(id)
+                .build();
+    }
+
+    private static BatchItemResult invalid(String message) {
+        return BatchItemResult.builder()
+                .status(BatchItemStatus.INVALID)
+                .message(message)
+                .build();
+    }
+
+    private static BatchItemResult repeated(UUID id) {
+        return BatchItemResult.builder()
+                .status(BatchItemStatus.INVALID)
+                .id(id)
+                .message("Id " + id + " is already written by another operation of the batch.")
+                .build();
+    }
+
+    private static BatchItemResult notFound(String message, UUID id) {
+        return BatchItemResult.builder()
+                .status(BatchItemStatus.NOT_FOUND)
+                .id(id)
+                .message(message)
+                .build();
+    }
+}
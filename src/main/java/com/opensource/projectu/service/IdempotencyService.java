@@ -0,0 +1,147 @@
+package com.opensource.projectu.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.opensource.projectu.exception.IdempotencyKeyInUseException;
+import com.opensource.projectu.exception.IdempotencyKeyMismatchException;
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.repository.IdempotencyRecord;
+import com.opensource.projectu.repository.IdempotencyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Executes creating requests at most once per Idempotency-Key, so a client can safely retry them after a timeout.
+ * The completed requests are recorded in the database for every instance and kept in memory,
+ * so a retry reaching the same instance is answered without reading the database.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * A request still in progress after this time is assumed to be lost with its instance, its key can be reused.
+     */
+    static final Duration LOCK_TIMEOUT = Duration.ofMinutes(1);
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Cache<String, IdempotencyRecord> completedRequests;
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${projectu.idempotency.retention:24h}") Duration retention,
+                              @Value("${projectu.idempotency.cache.maximum-size:10000}") long maximumSize) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        completedRequests = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completedRequests, "idempotencyKeys");
+    }
+
+    /**
+     * Executes the request, unless a request with the same key was executed before, whose response is returned then.
+     * The operation and the request body have to be the same as those of the first request.
+     * A failed request is not recorded, so its retry is executed again.
+     */
+    public Project execute(String key, String operation, Object request, Supplier<Project> action) {
+        return execute(key, operation, request, action, UnaryOperator.identity(), UnaryOperator.identity());
+    }
+
+    /**
+     * Records only what toRecord keeps of the response, e.g. the id of a project which can be large,
+     * and answers a retry with what fromRecord makes of the recorded response.
+     */
+    public Project execute(String key, String operation, Object request, Supplier<Project> action,
+                           UnaryOperator<Project> toRecord, UnaryOperator<Project> fromRecord) {
+        if(key == null) {
+            return action.get();
+        }
+        if(key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidParameterException(IDEMPOTENCY_KEY_HEADER, key);
+        }
+        var fingerprint = fingerprintOf(operation, request);
+        var completedRequest = completedRequests.getIfPresent(key);
+        if(completedRequest != null) {
+            return fromRecord.apply(replay(completedRequest, fingerprint));
+        }
+        if(!idempotencyRepository.reserve(key, fingerprint, expireAt(LOCK_TIMEOUT))) {
+            var recordedRequest = idempotencyRepository.findByKey(key)
+                    .orElseThrow(() -> new IdempotencyKeyInUseException(key));
+            if(recordedRequest.getResponse() == null) {
+                throw fingerprint.equals(recordedRequest.getFingerprint())
+                        ? new IdempotencyKeyInUseException(key)
+                        : new IdempotencyKeyMismatchException(key);
+            }
+            completedRequests.put(key, recordedRequest);
+            return fromRecord.apply(replay(recordedRequest, fingerprint));
+        }
+
+        Project response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRepository.release(key);
+            throw e;
+        }
+        var record = IdempotencyRecord.builder()
+                .key(key)
+                .fingerprint(fingerprint)
+                .response(toRecord.apply(response))
+                .expireAt(expireAt(retention))
+                .build();
+        try {
+            idempotencyRepository.complete(record);
+            completedRequests.put(key, record);
+        } catch (DataAccessException e) {
+            log.warn("Response of request with Idempotency-Key {} could not be recorded: {}", key, e.getMessage());
+        }
+        return response;
+    }
+
+    private static Project replay(IdempotencyRecord record, String fingerprint) {
+        if(!fingerprint.equals(record.getFingerprint())) {
+            throw new IdempotencyKeyMismatchException(record.getKey());
+        }
+        return record.getResponse();
+    }
+
+    private String fingerprintOf(String operation, Object request) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Request could not be fingerprinted", e);
+        }
+    }
+
+    private static Date expireAt(Duration duration) {
+        return new Date(System.currentTimeMillis() + duration.toMillis());
+    }
+}
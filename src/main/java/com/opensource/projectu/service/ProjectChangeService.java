@@ -0,0 +1,51 @@
+package com.opensource.projectu.service;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.openapi.model.ProjectChange;
+import com.opensource.projectu.repository.ProjectChangeFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Streams the project changes as server-sent events, in blocking as well as in reactive mode.
+ */
+@Service
+public class ProjectChangeService {
+
+    static final int MAX_PROJECT_IDS = 100;
+
+    private final ProjectChangeFeed changeFeed;
+    private final Duration heartbeatInterval;
+
+    public ProjectChangeService(ProjectChangeFeed changeFeed,
+                                @Value("${projectu.changes.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.changeFeed = changeFeed;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * Heartbeat comments keep idle connections from being closed by proxies, and let the server notice
+     * disconnected clients. They are sent until the change stream ends.
+     * The project IDs are validated before the stream is returned, so an error is answered with a status code.
+     */
+    public Flux<ServerSentEvent<ProjectChange>> streamChanges(List<UUID> projectIds, String lastEventId) {
+        if(projectIds != null && projectIds.size() > MAX_PROJECT_IDS) {
+            throw new InvalidParameterException("projectId", String.valueOf(projectIds.size()));
+        }
+        var changes = changeFeed.changes(projectIds == null ? Set.of() : Set.copyOf(projectIds), lastEventId)
+                .map(event -> ServerSentEvent.builder(event.getChange())
+                        .id(event.getId())
+                        .event(event.getChange().getType().getValue())
+                        .build());
+        var heartbeats = Flux.interval(heartbeatInterval)
+                .map(tick -> ServerSentEvent.<ProjectChange>builder().comment("heartbeat").build());
+        return changes.publish(shared -> Flux.merge(shared, heartbeats.takeUntilOther(shared.then())));
+    }
+}
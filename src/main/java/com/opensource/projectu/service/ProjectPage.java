@@ -0,0 +1,14 @@
+package com.opensource.projectu.service;
+
+import com.opensource.projectu.openapi.model.Project;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder
+@Value
+public class ProjectPage {
+    List<Project> projects;
+    String nextCursor;
+}
@@ -1,86 +1,255 @@
 package com.opensource.projectu.service;
 
+import com.opensource.projectu.cache.ProjectCache;
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.exception.PreconditionFailedException;
 import com.opensource.projectu.exception.ProjectNotFoundException;
 import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectDelta;
+import com.opensource.projectu.openapi.model.ProjectPatch;
+import com.opensource.projectu.openapi.model.ProjectStats;
 import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.Tombstone;
+import com.opensource.projectu.repository.ProjectFilter;
 import com.opensource.projectu.repository.ProjectRepository;
-import lombok.AllArgsConstructor;
+import com.opensource.projectu.repository.TaskPage;
+import com.opensource.projectu.util.IdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
-import static com.opensource.projectu.util.ProjectPersistenceUtil.*;
+import static com.opensource.projectu.util.CursorUtil.decodeCursor;
+import static com.opensource.projectu.util.CursorUtil.encodeCursor;
+import static com.opensource.projectu.util.ETagUtil.eTagOf;
+import static com.opensource.projectu.util.FilterUtil.validateFilter;
+import static com.opensource.projectu.util.ETagUtil.matchesIfNoneMatch;
+import static com.opensource.projectu.util.ETagUtil.parseIfMatch;
+import static com.opensource.projectu.util.ETagUtil.versionOf;
+import static com.opensource.projectu.util.PatchUtil.changesOf;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.assignTaskIds;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.getCurrentTimestamp;
+import static com.opensource.projectu.util.ProjectionUtil.parseProjection;
+import static com.opensource.projectu.util.ProjectionUtil.removeUnselectedKeys;
+import static com.opensource.projectu.util.SyncUtil.parseSyncToken;
+import static com.opensource.projectu.util.SyncUtil.projectTombstone;
+import static com.opensource.projectu.util.SyncUtil.syncedUntil;
+import static com.opensource.projectu.util.SyncUtil.toProjectDelta;
 
 @Service
-@AllArgsConstructor
 public class ProjectService {
 
+    private static final int MAX_ID_GENERATION_ATTEMPTS = 3;
+
     private final ProjectRepository projectRepository;
+    private final IdGenerator idGenerator;
+    private final ProjectCache projectCache;
+    private final IdempotencyService idempotencyService;
+    private final Duration settleTime;
+
+    public ProjectService(ProjectRepository projectRepository, IdGenerator idGenerator, ProjectCache projectCache,
+                          IdempotencyService idempotencyService,
+                          @Value("${projectu.sync.settle-time:1s}") Duration settleTime) {
+        this.projectRepository = projectRepository;
+        this.idGenerator = idGenerator;
+        this.projectCache = projectCache;
+        this.idempotencyService = idempotencyService;
+        this.settleTime = settleTime;
+    }
+
+    public ProjectPage getAllProjects(int limit, String after, String order, ProjectFilter filter,
+                                      List<String> fields, List<String> exclude) {
+        var cursor = after == null ? null : decodeCursor(after);
+        var direction = Sort.Direction.fromOptionalString(order)
+                .orElseThrow(() -> new InvalidParameterException("order", order));
+        var projection = parseProjection(fields, exclude);
+        var projects = projectRepository.findPage(cursor, limit + 1, direction, validateFilter(filter), projection);
 
-    public List<Project> getAllProjects() {
-        return projectRepository.findAll();
+        var page = projects.size() <= limit ? projects : projects.subList(0, limit);
+        var nextCursor = projects.size() <= limit ? null : encodeCursor(page.get(limit - 1));
+        page.forEach(project -> removeUnselectedKeys(project, projection));
+        return ProjectPage.builder()
+                .projects(page)
+                .nextCursor(nextCursor)
+                .build();
     }
 
-    public Project getProjectById(UUID id) {
-        return projectRepository.findById(id)
+    public ProjectStats getProjectStats(ProjectFilter filter) {
+        return projectRepository.findStats(validateFilter(filter));
+    }
+
+    /**
+     * Without a sync token every project is returned, the client has no projects to delete yet.
+     */
+    public ProjectDelta getProjectChanges(String since, int limit) {
+        var now = getCurrentTimestamp();
+        var token = parseSyncToken(since, now);
+        var until = syncedUntil(now, settleTime);
+        var projects = projectRepository.findModifiedSince(token, until, limit + 1);
+        var tombstones = token == null ? List.<Tombstone>of() : projectRepository.findTombstonesSince(token, until, limit + 1);
+        return toProjectDelta(token, projects, tombstones, limit, until);
+    }
+
+    /**
+     * Only complete projects are cached, projected reads always go to the database.
+     */
+    public ResponseEntity<Project> getProjectById(UUID id, List<String> fields, List<String> exclude,
+                                                  String ifNoneMatch) {
+        var projection = parseProjection(fields, exclude);
+        var project = (projection.isAll()
+                ? projectCache.getProject(id, () -> projectRepository.findById(id))
+                : projectRepository.findProjectById(id, projection))
                 .orElseThrow(() -> new ProjectNotFoundException(id));
+
+        var eTag = eTagOf(versionOf(project), projection);
+        if(matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(removeUnselectedKeys(project, projection));
+    }
+
+    /**
+     * A retry with the same Idempotency-Key returns the project created by the first request.
+     */
+    public Project createProject(Project project, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "createProject", project, () -> createProject(project));
+    }
+
+    private Project createProject(Project project) {
+        assignTaskIds(project.getTasks(), idGenerator);
+        rejectTasksOfOtherProjects(null, project.getTasks());
+        var createdAt = getCurrentTimestamp();
+        return insertWithGeneratedId(
+                project.createdAt(createdAt).modifiedAt(createdAt).version(1L),
+                MAX_ID_GENERATION_ATTEMPTS);
     }
 
-    public Project createProject(Project project) {
-        return projectRepository.save(project
-                .id(generateUniqueIdForProject(UUID.randomUUID(), projectRepository))
-                .createdAt(getCurrentTimestamp()));
+    private Project insertWithGeneratedId(Project project, int remainingAttempts) {
+        try {
+            return projectRepository.insert(project.id(idGenerator.generateId()));
+        } catch (DuplicateKeyException e) {
+            if(remainingAttempts <= 1) {
+                throw e;
+            }
+            return insertWithGeneratedId(project, remainingAttempts - 1);
+        }
     }
 
-    @Transactional
-    public ResponseEntity<Project> updateProject(UUID id, Project updatedProject) {
-        return projectRepository.findById(id)
-                .map(p -> new ResponseEntity<>(
-                        overwriteCurrentProject(p, updatedProject),
+    /**
+     * Without If-Match a missing project is created, with If-Match only the matching version is overwritten.
+     */
+    public ResponseEntity<Project> updateProject(UUID id, Project updatedProject, String ifMatch) {
+        assignTaskIds(updatedProject.getTasks(), idGenerator);
+        rejectTasksOfOtherProjects(id, updatedProject.getTasks());
+        var timestamp = getCurrentTimestamp();
+        var upsertResult = ifMatch == null
+                ? projectRepository.upsertProject(id, updatedProject, timestamp)
+                : projectRepository.replaceProject(id, parseIfMatch(ifMatch), updatedProject, timestamp);
+        if(ifMatch != null && upsertResult.isEmpty()) {
+            throw new PreconditionFailedException(ifMatch);
+        }
+        updatedProject.id(id).modifiedAt(timestamp);
+        var response = upsertResult
+                .map(previousProject -> versionedResponse(
+                        updatedProject.createdAt(previousProject.getCreatedAt()).version(versionOf(previousProject) + 1),
                         HttpStatus.OK))
-                .orElseGet(() -> new ResponseEntity<>(
-                        insertNewProject(id, updatedProject),
+                .orElseGet(() -> versionedResponse(
+                        updatedProject.createdAt(timestamp).version(1L),
                         HttpStatus.CREATED));
+        projectCache.changed(id, updatedProject.getVersion());
+        return response;
     }
 
-    private Project overwriteCurrentProject(Project currentProject, Project updatedProject) {
-        return projectRepository.save(currentProject
-                .title(updatedProject.getTitle())
-                .description(updatedProject.getDescription())
-                .tasks(updatedProject.getTasks())
-                .state(updatedProject.getState())
-                .complexity(updatedProject.getComplexity())
-                .estimatedDurationInHours(updatedProject.getEstimatedDurationInHours())
-                .expectedResult(updatedProject.getExpectedResult())
-                .actualResult(updatedProject.getActualResult())
-                .startedAt(updatedProject.getStartedAt())
-                .finishedAt(updatedProject.getFinishedAt()));
+    /**
+     * Only the fields contained in the patch are written. With If-Match only the matching version is patched.
+     */
+    public ResponseEntity<Project> patchProject(UUID id, ProjectPatch patch, String ifMatch) {
+        if(patch.getTasks() != null && patch.getTasks().isPresent()) {
+            assignTaskIds(patch.getTasks().get(), idGenerator);
+            rejectTasksOfOtherProjects(id, patch.getTasks().get());
+        }
+        var changes = changesOf(patch);
+        var version = ifMatch == null ? null : parseIfMatch(ifMatch);
+        var project = projectRepository.patchProject(id, version, changes, getCurrentTimestamp())
+                .orElseThrow(() -> ifMatch == null
+                        ? new ProjectNotFoundException(id)
+                        : new PreconditionFailedException(ifMatch));
+        projectCache.changed(id, versionOf(project));
+        return versionedResponse(project, HttpStatus.OK);
+    }
+
+    /**
+     * Task ids are unique across projects, in the collection layout they are the ids of the task documents.
+     * A task of another project is rejected before the project is written, instead of failing with its tasks.
+     */
+    private void rejectTasksOfOtherProjects(UUID projectId, List<Task> tasks) {
+        if(tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        projectRepository.findProjectIdsByTaskIds(tasks.stream()
+                        .map(Task::getId)
+                        .collect(Collectors.toList()))
+                .forEach((taskId, ownerId) -> {
+                    if(!ownerId.equals(projectId)) {
+                        throw new InvalidParameterException("tasks.id", taskId.toString());
+                    }
+                });
     }
 
-    private Project insertNewProject(UUID id, Project project) {
-        return projectRepository.save(project
-                .id(id)
-                .createdAt(getCurrentTimestamp()));
+    private static ResponseEntity<Project> versionedResponse(Project project, HttpStatus status) {
+        return ResponseEntity.status(status).eTag(eTagOf(project.getVersion())).body(project);
     }
 
+    /**
+     * The deletion is recorded as a tombstone, so it is synced to clients holding the project.
+     */
     public void deleteProject(UUID id) {
-        if(projectRepository.existsById(id)) {
-            projectRepository.deleteById(id);
-        } else {
+        if(projectRepository.removeById(id) == 0) {
             throw new ProjectNotFoundException(id);
         }
+        projectCache.deleted(id);
+        projectRepository.saveTombstones(List.of(projectTombstone(id, getCurrentTimestamp())));
     }
 
-    public Project createTask(UUID id, Task task) {
-        return projectRepository.findById(id)
-                .map(project -> {
-                    task.id(generateUniqueIdForTask(UUID.randomUUID(), projectRepository));
-                    return projectRepository.save(addTaskToProject(project, task));
-                })
+    public TaskPage getProjectTasks(UUID id, int offset, int limit, Boolean done) {
+        return projectRepository.findTaskPage(id, offset, limit, done)
                 .orElseThrow(() -> new ProjectNotFoundException(id));
     }
+
+    /**
+     * A retry with the same Idempotency-Key returns the current project without adding the task again.
+     * Only the project id is recorded, as a project can have many tasks, and the project is read again on a retry.
+     */
+    public Project createTask(UUID id, Task task, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "createTask " + id, task, () -> createTask(id, task),
+                project -> Project.builder().id(project.getId()).build(),
+                recorded -> projectCache.getProject(id, () -> projectRepository.findById(id))
+                        .orElseThrow(() -> new ProjectNotFoundException(id)));
+    }
+
+    private Project createTask(UUID id, Task task) {
+        var project = pushTaskWithGeneratedId(id, task, MAX_ID_GENERATION_ATTEMPTS);
+        projectCache.changed(id, versionOf(project));
+        return project;
+    }
+
+    private Project pushTaskWithGeneratedId(UUID projectId, Task task, int remainingAttempts) {
+        return projectRepository.pushTask(projectId, task.id(idGenerator.generateId()))
+                .orElseGet(() -> {
+                    if(!projectRepository.existsById(projectId)) {
+                        throw new ProjectNotFoundException(projectId);
+                    }
+                    if(remainingAttempts <= 1) {
+                        throw new DuplicateKeyException("Task id " + task.getId() + " already exists.");
+                    }
+                    return pushTaskWithGeneratedId(projectId, task, remainingAttempts - 1);
+                });
+    }
 }
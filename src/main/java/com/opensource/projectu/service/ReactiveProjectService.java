@@ -0,0 +1,202 @@
+package com.opensource.projectu.service;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.exception.PreconditionFailedException;
+import com.opensource.projectu.exception.ProjectNotFoundException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectDelta;
+import com.opensource.projectu.openapi.model.ProjectPatch;
+import com.opensource.projectu.openapi.model.ProjectStats;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.Tombstone;
+import com.opensource.projectu.repository.ProjectFilter;
+import com.opensource.projectu.repository.ReactiveProjectRepository;
+import com.opensource.projectu.repository.TaskPage;
+import com.opensource.projectu.util.IdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static com.opensource.projectu.util.CursorUtil.decodeCursor;
+import static com.opensource.projectu.util.CursorUtil.encodeCursor;
+import static com.opensource.projectu.util.ETagUtil.eTagOf;
+import static com.opensource.projectu.util.FilterUtil.validateFilter;
+import static com.opensource.projectu.util.ETagUtil.matchesIfNoneMatch;
+import static com.opensource.projectu.util.ETagUtil.parseIfMatch;
+import static com.opensource.projectu.util.ETagUtil.versionOf;
+import static com.opensource.projectu.util.PatchUtil.changesOf;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.assignTaskIds;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.getCurrentTimestamp;
+import static com.opensource.projectu.util.ProjectionUtil.parseProjection;
+import static com.opensource.projectu.util.ProjectionUtil.removeUnselectedKeys;
+import static com.opensource.projectu.util.SyncUtil.parseSyncToken;
+import static com.opensource.projectu.util.SyncUtil.projectTombstone;
+import static com.opensource.projectu.util.SyncUtil.syncedUntil;
+import static com.opensource.projectu.util.SyncUtil.toProjectDelta;
+
+/**
+ * Non-blocking counterpart of {@link ProjectService} used by the reactive serving mode.
+ */
+@Service
+public class ReactiveProjectService {
+
+    private static final int MAX_ID_GENERATION_ATTEMPTS = 3;
+
+    private final ReactiveProjectRepository projectRepository;
+    private final IdGenerator idGenerator;
+    private final Duration settleTime;
+
+    public ReactiveProjectService(ReactiveProjectRepository projectRepository, IdGenerator idGenerator,
+                                  @Value("${projectu.sync.settle-time:1s}") Duration settleTime) {
+        this.projectRepository = projectRepository;
+        this.idGenerator = idGenerator;
+        this.settleTime = settleTime;
+    }
+
+    public Mono<ProjectPage> getAllProjects(int limit, String after, String order, ProjectFilter filter,
+                                            List<String> fields, List<String> exclude) {
+        return Mono.defer(() -> {
+            var cursor = after == null ? null : decodeCursor(after);
+            var direction = Sort.Direction.fromOptionalString(order)
+                    .orElseThrow(() -> new InvalidParameterException("order", order));
+            var projection = parseProjection(fields, exclude);
+            return projectRepository.findPage(cursor, limit + 1, direction, validateFilter(filter), projection)
+                    .collectList()
+                    .map(projects -> {
+                        var page = projects.size() <= limit ? projects : projects.subList(0, limit);
+                        var nextCursor = projects.size() <= limit ? null : encodeCursor(page.get(limit - 1));
+                        page.forEach(project -> removeUnselectedKeys(project, projection));
+                        return ProjectPage.builder()
+                                .projects(page)
+                                .nextCursor(nextCursor)
+                                .build();
+                    });
+        });
+    }
+
+    public Mono<ProjectStats> getProjectStats(ProjectFilter filter) {
+        return Mono.defer(() -> projectRepository.findStats(validateFilter(filter)));
+    }
+
+    public Mono<ProjectDelta> getProjectChanges(String since, int limit) {
+        return Mono.defer(() -> {
+            var now = getCurrentTimestamp();
+            var token = parseSyncToken(since, now);
+            var until = syncedUntil(now, settleTime);
+            var tombstones = token == null
+                    ? Flux.<Tombstone>empty()
+                    : projectRepository.findTombstonesSince(token, until, limit + 1);
+            return Mono.zip(
+                    projectRepository.findModifiedSince(token, until, limit + 1).collectList(),
+                    tombstones.collectList(),
+                    (projects, deleted) -> toProjectDelta(token, projects, deleted, limit, until));
+        });
+    }
+
+    public Mono<ResponseEntity<Project>> getProjectById(UUID id, List<String> fields, List<String> exclude,
+                                                        String ifNoneMatch) {
+        return Mono.defer(() -> {
+            var projection = parseProjection(fields, exclude);
+            return (projection.isAll()
+                    ? projectRepository.findById(id)
+                    : projectRepository.findProjectById(id, projection))
+                    .switchIfEmpty(Mono.error(() -> new ProjectNotFoundException(id)))
+                    .map(project -> {
+                        var eTag = eTagOf(versionOf(project), projection);
+                        if(matchesIfNoneMatch(ifNoneMatch, eTag)) {
+                            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<Project>build();
+                        }
+                        return ResponseEntity.ok().eTag(eTag).body(removeUnselectedKeys(project, projection));
+                    });
+        });
+    }
+
+    public Mono<Project> createProject(Project project) {
+        var createdAt = getCurrentTimestamp();
+        return Mono.defer(() -> projectRepository.insert(project
+                        .tasks(assignTaskIds(project.getTasks(), idGenerator))
+                        .createdAt(createdAt)
+                        .modifiedAt(createdAt)
+                        .version(1L)
+                        .id(idGenerator.generateId())))
+                .retryWhen(retryOnDuplicateKey());
+    }
+
+    /**
+     * Without If-Match a missing project is created, with If-Match only the matching version is overwritten.
+     */
+    public Mono<ResponseEntity<Project>> updateProject(UUID id, Project updatedProject, String ifMatch) {
+        assignTaskIds(updatedProject.getTasks(), idGenerator);
+        var timestamp = getCurrentTimestamp();
+        updatedProject.id(id).modifiedAt(timestamp);
+        if(ifMatch == null) {
+            return projectRepository.upsertProject(id, updatedProject, timestamp)
+                    .map(previousProject -> updatedResponse(updatedProject, previousProject))
+                    .switchIfEmpty(Mono.fromSupplier(() -> versionedResponse(
+                            updatedProject.createdAt(timestamp).version(1L),
+                            HttpStatus.CREATED)));
+        }
+        return Mono.defer(() -> projectRepository.replaceProject(id, parseIfMatch(ifMatch), updatedProject, timestamp))
+                .map(previousProject -> updatedResponse(updatedProject, previousProject))
+                .switchIfEmpty(Mono.error(() -> new PreconditionFailedException(ifMatch)));
+    }
+
+    public Mono<ResponseEntity<Project>> patchProject(UUID id, ProjectPatch patch, String ifMatch) {
+        if(patch.getTasks() != null && patch.getTasks().isPresent()) {
+            assignTaskIds(patch.getTasks().get(), idGenerator);
+        }
+        return Mono.defer(() -> projectRepository.patchProject(
+                        id, ifMatch == null ? null : parseIfMatch(ifMatch), changesOf(patch), getCurrentTimestamp()))
+                .map(project -> versionedResponse(project, HttpStatus.OK))
+                .switchIfEmpty(Mono.error(() -> ifMatch == null
+                        ? new ProjectNotFoundException(id)
+                        : new PreconditionFailedException(ifMatch)));
+    }
+
+    private static ResponseEntity<Project> updatedResponse(Project updatedProject, Project previousProject) {
+        return versionedResponse(
+                updatedProject.createdAt(previousProject.getCreatedAt()).version(versionOf(previousProject) + 1),
+                HttpStatus.OK);
+    }
+
+    private static ResponseEntity<Project> versionedResponse(Project project, HttpStatus status) {
+        return ResponseEntity.status(status).eTag(eTagOf(project.getVersion())).body(project);
+    }
+
+    public Mono<Void> deleteProject(UUID id) {
+        return projectRepository.removeById(id)
+                .flatMap(deletedCount -> deletedCount == 0
+                        ? Mono.error(new ProjectNotFoundException(id))
+                        : projectRepository.saveTombstones(List.of(projectTombstone(id, getCurrentTimestamp()))));
+    }
+
+    public Mono<TaskPage> getProjectTasks(UUID id, int offset, int limit, Boolean done) {
+        return projectRepository.findTaskPage(id, offset, limit, done)
+                .switchIfEmpty(Mono.error(() -> new ProjectNotFoundException(id)));
+    }
+
+    public Mono<Project> createTask(UUID id, Task task) {
+        return Mono.defer(() -> projectRepository.pushTask(id, task.id(idGenerator.generateId())))
+                .switchIfEmpty(Mono.defer(() -> projectRepository.existsById(id)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new DuplicateKeyException("Task id " + task.getId() + " already exists.")
+                                : new ProjectNotFoundException(id)))))
+                .retryWhen(retryOnDuplicateKey());
+    }
+
+    private static Retry retryOnDuplicateKey() {
+        return Retry.max(MAX_ID_GENERATION_ATTEMPTS - 1)
+                .filter(DuplicateKeyException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+}
@@ -0,0 +1,73 @@
+package com.opensource.projectu.service;
+
+import com.opensource.projectu.exception.PreconditionFailedException;
+import com.opensource.projectu.exception.TaskNotFoundException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.TaskPatch;
+import com.opensource.projectu.repository.ReactiveProjectRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.opensource.projectu.util.ETagUtil.eTagOf;
+import static com.opensource.projectu.util.ETagUtil.matchesIfNoneMatch;
+import static com.opensource.projectu.util.ETagUtil.parseIfMatch;
+import static com.opensource.projectu.util.ETagUtil.versionOf;
+import static com.opensource.projectu.util.PatchUtil.changesOf;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.findTaskOfProjectById;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.getCurrentTimestamp;
+import static com.opensource.projectu.util.SyncUtil.taskTombstone;
+
+/**
+ * Non-blocking counterpart of {@link TaskService} used by the reactive serving mode.
+ * Tasks are embedded in their project, so the ETag of a task is the one of its project.
+ */
+@Service
+@AllArgsConstructor
+public class ReactiveTaskService {
+
+    private final ReactiveProjectRepository projectRepository;
+
+    public Mono<ResponseEntity<Task>> getTaskById(UUID id, String ifNoneMatch) {
+        return projectRepository.findByTasksId(id)
+                .flatMap(project -> Mono.justOrEmpty(findTaskOfProjectById(project, id))
+                        .map(task -> {
+                            var eTag = eTagOf(versionOf(project));
+                            if(matchesIfNoneMatch(ifNoneMatch, eTag)) {
+                                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<Task>build();
+                            }
+                            return ResponseEntity.ok().eTag(eTag).body(task);
+                        }))
+                .switchIfEmpty(Mono.error(() -> new TaskNotFoundException(id)));
+    }
+
+    public Mono<ResponseEntity<Task>> updateTask(UUID id, Task task, String ifMatch) {
+        return Mono.defer(() -> projectRepository.replaceTask(id, ifMatch == null ? null : parseIfMatch(ifMatch), task.id(id)))
+                .map(project -> ResponseEntity.ok().eTag(eTagOf(versionOf(project))).body(task))
+                .switchIfEmpty(Mono.error(() -> ifMatch == null
+                        ? new TaskNotFoundException(id)
+                        : new PreconditionFailedException(ifMatch)));
+    }
+
+    public Mono<ResponseEntity<Task>> patchTask(UUID id, TaskPatch patch, String ifMatch) {
+        return Mono.defer(() -> projectRepository.patchTask(id, ifMatch == null ? null : parseIfMatch(ifMatch), changesOf(patch)))
+                .map(project -> ResponseEntity.ok().eTag(eTagOf(versionOf(project))).body(project.getTasks().get(0)))
+                .switchIfEmpty(Mono.error(() -> ifMatch == null
+                        ? new TaskNotFoundException(id)
+                        : new PreconditionFailedException(ifMatch)));
+    }
+
+    public Mono<Project> deleteTask(UUID id) {
+        return projectRepository.pullTask(id)
+                .switchIfEmpty(Mono.error(() -> new TaskNotFoundException(id)))
+                .flatMap(project -> projectRepository.saveTombstones(
+                                List.of(taskTombstone(id, project.getId(), getCurrentTimestamp())))
+                        .thenReturn(project));
+    }
+}
@@ -1,41 +1,83 @@
 package com.opensource.projectu.service;
 
+import com.opensource.projectu.cache.ProjectCache;
+import com.opensource.projectu.exception.PreconditionFailedException;
 import com.opensource.projectu.exception.TaskNotFoundException;
 import com.opensource.projectu.openapi.model.Project;
 import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.TaskPatch;
 import com.opensource.projectu.repository.ProjectRepository;
+import com.opensource.projectu.writebehind.TaskUpdateWriter;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
-import static com.opensource.projectu.util.ProjectPersistenceUtil.*;
+import static com.opensource.projectu.util.ETagUtil.eTagOf;
+import static com.opensource.projectu.util.ETagUtil.matchesIfNoneMatch;
+import static com.opensource.projectu.util.ETagUtil.parseIfMatch;
+import static com.opensource.projectu.util.ETagUtil.versionOf;
+import static com.opensource.projectu.util.PatchUtil.changesOf;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.findTaskOfProjectById;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.getCurrentTimestamp;
+import static com.opensource.projectu.util.SyncUtil.taskTombstone;
 
+/**
+ * Tasks are embedded in their project, so the ETag of a task is the one of its project.
+ */
 @Service
 @AllArgsConstructor
 public class TaskService {
 
     private final ProjectRepository projectRepository;
+    private final ProjectCache projectCache;
+    private final TaskUpdateWriter taskUpdateWriter;
 
-    public Task getTaskById(UUID id) {
-        return projectRepository.findByTasksId(id)
-                .flatMap(project -> findTaskOfProjectById(project, id))
+    public ResponseEntity<Task> getTaskById(UUID id, String ifNoneMatch) {
+        var project = projectCache.getProjectOfTask(id, () -> projectRepository.findByTasksId(id))
                 .orElseThrow(() -> new TaskNotFoundException(id));
+        var task = findTaskOfProjectById(project, id)
+                .orElseThrow(() -> new TaskNotFoundException(id));
+
+        var eTag = eTagOf(versionOf(project));
+        if(matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(task);
     }
 
-    public Task updateTask(UUID id, Task task) {
-        return projectRepository.findByTasksId(id)
-                .map(project -> { projectRepository.save(
-                    overwriteTaskOfProject(id, task, project));
-                    return task;
-                })
-                .orElseThrow(() -> new TaskNotFoundException(id));
+    public ResponseEntity<Task> updateTask(UUID id, Task task, String ifMatch) {
+        var version = ifMatch == null ? null : parseIfMatch(ifMatch);
+        var project = taskUpdateWriter.replaceTask(id, version, task.id(id))
+                .orElseThrow(() -> ifMatch == null
+                        ? new TaskNotFoundException(id)
+                        : new PreconditionFailedException(ifMatch));
+        projectCache.changed(project.getId(), versionOf(project));
+        return ResponseEntity.ok().eTag(eTagOf(versionOf(project))).body(task);
+    }
+
+    public ResponseEntity<Task> patchTask(UUID id, TaskPatch patch, String ifMatch) {
+        var changes = changesOf(patch);
+        var version = ifMatch == null ? null : parseIfMatch(ifMatch);
+        var project = projectRepository.patchTask(id, version, changes)
+                .orElseThrow(() -> ifMatch == null
+                        ? new TaskNotFoundException(id)
+                        : new PreconditionFailedException(ifMatch));
+        projectCache.changed(project.getId(), versionOf(project));
+        return ResponseEntity.ok().eTag(eTagOf(versionOf(project))).body(project.getTasks().get(0));
     }
 
+    /**
+     * The deletion is recorded as a tombstone, so it is synced to clients holding the task.
+     */
     public Project deleteTask(UUID id) {
-        return projectRepository.findByTasksId(id)
-                .map(project -> projectRepository.save(
-                        removeTaskWithIdFromProject(id, project)))
+        var project = projectRepository.pullTask(id)
                 .orElseThrow(() -> new TaskNotFoundException(id));
+        projectCache.changed(project.getId(), versionOf(project));
+        projectRepository.saveTombstones(List.of(taskTombstone(id, project.getId(), getCurrentTimestamp())));
+        return project;
     }
 }
@@ -0,0 +1,56 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.repository.ProjectCursor;
+import com.opensource.projectu.repository.SyncToken;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+public final class CursorUtil {
+
+    private static final String SEPARATOR = ":";
+
+    public static String encodeCursor(Project project) {
+        var cursor = project.getCreatedAt() + SEPARATOR + project.getId();
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProjectCursor decodeCursor(String cursor) {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 2);
+            return new ProjectCursor(Long.parseLong(parts[0]), UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidParameterException("after", cursor);
+        }
+    }
+
+    public static String encodeSyncToken(SyncToken token) {
+        var value = token.getSource() == null
+                ? String.valueOf(token.getTimestamp())
+                : token.getTimestamp() + SEPARATOR + token.getSource() + SEPARATOR + token.getId();
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncToken decodeSyncToken(String token) {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 3);
+            var timestamp = Long.parseLong(parts[0]);
+            return parts.length == 1
+                    ? SyncToken.at(timestamp)
+                    : new SyncToken(timestamp, SyncToken.Source.valueOf(parts[1]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidParameterException("since", token);
+        }
+    }
+
+    private CursorUtil() {}
+}
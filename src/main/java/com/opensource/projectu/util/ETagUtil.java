@@ -0,0 +1,69 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.PreconditionFailedException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.repository.ProjectProjection;
+
+import java.util.Arrays;
+
+/**
+ * Strong ETags derived from the version of a project.
+ * Projected representations of a project get their own ETags, as they differ from the complete one.
+ */
+public final class ETagUtil {
+
+    public static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    /**
+     * Projects stored before versioning have no version, they are treated as version 0.
+     */
+    public static long versionOf(Project project) {
+        return project.getVersion() == null ? 0 : project.getVersion();
+    }
+
+    public static String eTagOf(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String eTagOf(long version, ProjectProjection projection) {
+        if(projection.isAll()) {
+            return eTagOf(version);
+        }
+        return "\"" + version + "-" + Integer.toHexString(projection.hashCode()) + "\"";
+    }
+
+    /**
+     * Weak comparison of If-None-Match as required for GET requests.
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, String eTag) {
+        if(ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+                .anyMatch(tag -> tag.equals(ANY) || tag.equals(eTag));
+    }
+
+    /**
+     * Strong comparison of If-Match. Returns null if any version matches.
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        var eTag = ifMatch.trim();
+        if(eTag.equals(ANY)) {
+            return null;
+        }
+        try {
+            if(eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+                return Long.parseLong(eTag.substring(1, eTag.length() - 1));
+            }
+        } catch (NumberFormatException e) {
+            // handled below, an unknown ETag never matches
+        }
+        throw new PreconditionFailedException(ifMatch);
+    }
+
+    private ETagUtil() {}
+}
@@ -0,0 +1,25 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.repository.ProjectFilter;
+
+public final class FilterUtil {
+
+    /**
+     * Rejects empty ranges, which would only cause a pointless query.
+     */
+    public static ProjectFilter validateFilter(ProjectFilter filter) {
+        if(filter.getCreatedFrom() != null && filter.getCreatedTo() != null
+                && filter.getCreatedFrom() >= filter.getCreatedTo()) {
+            throw new InvalidParameterException("createdTo", String.valueOf(filter.getCreatedTo()));
+        }
+        if(filter.getMinEstimatedDurationInHours() != null && filter.getMaxEstimatedDurationInHours() != null
+                && filter.getMinEstimatedDurationInHours() > filter.getMaxEstimatedDurationInHours()) {
+            throw new InvalidParameterException("maxEstimatedDurationInHours",
+                    String.valueOf(filter.getMaxEstimatedDurationInHours()));
+        }
+        return filter;
+    }
+
+    private FilterUtil() {}
+}
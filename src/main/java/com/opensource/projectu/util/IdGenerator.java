@@ -0,0 +1,12 @@
+package com.opensource.projectu.util;
+
+import java.util.UUID;
+
+/**
+ * Strategy for the IDs of newly created projects and tasks.
+ * Uniqueness is enforced by the database, so implementations only have to make collisions unlikely.
+ */
+public interface IdGenerator {
+
+    UUID generateId();
+}
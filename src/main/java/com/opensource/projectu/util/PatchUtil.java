@@ -0,0 +1,85 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.openapi.model.ProjectPatch;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.TaskPatch;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns JSON merge patches into the changed fields of a project or task.
+ * A field mapped to null is removed, fields missing in the patch are not contained.
+ */
+public final class PatchUtil {
+
+    public static Map<String, Object> changesOf(ProjectPatch patch) {
+        var changes = new LinkedHashMap<String, Object>();
+        putRequired(changes, "title", patch.getTitle());
+        put(changes, "description", patch.getDescription());
+        put(changes, "tasks", patch.getTasks());
+        putRequired(changes, "state", patch.getState());
+        putRequired(changes, "complexity", patch.getComplexity());
+        put(changes, "estimatedDurationInHours", patch.getEstimatedDurationInHours());
+        put(changes, "expectedResult", patch.getExpectedResult());
+        put(changes, "actualResult", patch.getActualResult());
+        put(changes, "startedAt", patch.getStartedAt());
+        put(changes, "finishedAt", patch.getFinishedAt());
+        if(changes.get("tasks") != null) {
+            validateTasks(patch.getTasks().get());
+        }
+        return requireChanges(changes);
+    }
+
+    public static Map<String, Object> changesOf(TaskPatch patch) {
+        var changes = new LinkedHashMap<String, Object>();
+        putRequired(changes, "title", patch.getTitle());
+        put(changes, "description", patch.getDescription());
+        putRequired(changes, "done", patch.getDone());
+        put(changes, "estimatedDurationInHours", patch.getEstimatedDurationInHours());
+        put(changes, "result", patch.getResult());
+        return requireChanges(changes);
+    }
+
+    /**
+     * Patches built in code leave their fields null instead of undefined.
+     */
+    private static void put(Map<String, Object> changes, String field, JsonNullable<?> value) {
+        if(value != null && value.isPresent()) {
+            changes.put(field, value.get());
+        }
+    }
+
+    private static void putRequired(Map<String, Object> changes, String field, JsonNullable<?> value) {
+        if(value != null && value.isPresent() && value.get() == null) {
+            throw new InvalidParameterException(field, null);
+        }
+        put(changes, field, value);
+    }
+
+    /**
+     * Replaced tasks are validated like the tasks of a complete project.
+     */
+    private static void validateTasks(List<Task> tasks) {
+        for(var task : tasks) {
+            if(task == null || task.getTitle() == null || task.getDone() == null) {
+                throw new InvalidParameterException("tasks", task == null ? null : String.valueOf(task.getId()));
+            }
+        }
+    }
+
+    /**
+     * An empty patch would only increment the version.
+     */
+    private static Map<String, Object> requireChanges(Map<String, Object> changes) {
+        if(changes.isEmpty()) {
+            throw new InvalidParameterException("patch", "{}");
+        }
+        return changes;
+    }
+
+    private PatchUtil() {}
+}
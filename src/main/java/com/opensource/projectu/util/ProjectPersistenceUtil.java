@@ -1,10 +1,12 @@
 package com.opensource.projectu.util;
 
+import com.opensource.projectu.exception.InvalidParameterException;
 import com.opensource.projectu.openapi.model.Project;
 import com.opensource.projectu.openapi.model.Task;
-import com.opensource.projectu.repository.ProjectRepository;
 
 import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -13,20 +15,6 @@ import static com.google.common.collect.Lists.newArrayList;
 
 public final class ProjectPersistenceUtil {
 
-    public static UUID generateUniqueIdForProject(UUID id, ProjectRepository projectRepository) {
-        if(projectRepository.existsById(id)) {
-            return generateUniqueIdForProject(UUID.randomUUID(), projectRepository);
-        }
-        return id;
-    }
-
-    public static UUID generateUniqueIdForTask(UUID id, ProjectRepository projectRepository) {
-        if(projectRepository.findByTasksId(id).isEmpty()) {
-            return id;
-        }
-        return generateUniqueIdForTask(UUID.randomUUID(), projectRepository);
-    }
-
     public static long getCurrentTimestamp() {
         return Calendar.getInstance().getTimeInMillis();
     }
@@ -57,5 +45,25 @@ public final class ProjectPersistenceUtil {
                 .collect(Collectors.toList()));
     }
 
+    /**
+     * Gives the tasks of a written project without an id a new one, so every stored task can be addressed by its id.
+     * The ids have to be unique within the project, the task collection keys the tasks by their id.
+     */
+    public static List<Task> assignTaskIds(List<Task> tasks, IdGenerator idGenerator) {
+        if(tasks == null) {
+            return null;
+        }
+        var taskIds = new HashSet<UUID>();
+        for(var task : tasks) {
+            if(task.getId() == null) {
+                task.id(idGenerator.generateId());
+            }
+            if(!taskIds.add(task.getId())) {
+                throw new InvalidParameterException("tasks.id", task.getId().toString());
+            }
+        }
+        return tasks;
+    }
+
     private ProjectPersistenceUtil() {}
 }
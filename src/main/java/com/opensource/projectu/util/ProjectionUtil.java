@@ -0,0 +1,61 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.repository.ProjectProjection;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class ProjectionUtil {
+
+    static final Set<String> PROJECT_FIELDS = Set.of(
+            "id", "title", "description", "tasks", "state", "complexity", "estimatedDurationInHours",
+            "expectedResult", "actualResult", "createdAt", "modifiedAt", "version", "startedAt", "finishedAt");
+
+    public static ProjectProjection parseProjection(List<String> fields, List<String> exclude) {
+        var includedFields = parseFields("fields", fields);
+        var excludedFields = parseFields("exclude", exclude);
+
+        if(!includedFields.isEmpty() && !excludedFields.isEmpty()) {
+            throw new InvalidParameterException("exclude", String.join(",", exclude));
+        }
+        if(includedFields.isEmpty() && excludedFields.isEmpty()) {
+            return ProjectProjection.ALL;
+        }
+        return new ProjectProjection(includedFields, excludedFields);
+    }
+
+    /**
+     * Removes the id, creation time and version of a project which were only read for paging or the ETag.
+     */
+    public static Project removeUnselectedKeys(Project project, ProjectProjection projection) {
+        if(!projection.selects("id")) {
+            project.id(null);
+        }
+        if(!projection.selects("createdAt")) {
+            project.createdAt(null);
+        }
+        if(!projection.selects("version")) {
+            project.version(null);
+        }
+        return project;
+    }
+
+    private static Set<String> parseFields(String parameter, List<String> fields) {
+        if(fields == null) {
+            return Set.of();
+        }
+        var parsedFields = fields.stream()
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        if(!PROJECT_FIELDS.containsAll(parsedFields)) {
+            throw new InvalidParameterException(parameter, String.join(",", fields));
+        }
+        return parsedFields;
+    }
+
+    private ProjectionUtil() {}
+}
@@ -0,0 +1,14 @@
+package com.opensource.projectu.util;
+
+import java.util.UUID;
+
+/**
+ * Generates random version 4 UUIDs.
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+    @Override
+    public UUID generateId() {
+        return UUID.randomUUID();
+    }
+}
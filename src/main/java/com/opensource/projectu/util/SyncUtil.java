@@ -0,0 +1,107 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.SyncTokenExpiredException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectDelta;
+import com.opensource.projectu.openapi.model.Tombstone;
+import com.opensource.projectu.openapi.model.TombstoneType;
+import com.opensource.projectu.repository.SyncToken;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.opensource.projectu.util.CursorUtil.decodeSyncToken;
+import static com.opensource.projectu.util.CursorUtil.encodeSyncToken;
+
+public final class SyncUtil {
+
+    /**
+     * Deletions are synced from tombstones, which are removed after this time.
+     * Older sync tokens are rejected, as deletions may be missed.
+     */
+    public static final Duration TOMBSTONE_RETENTION = Duration.ofDays(30);
+
+    public static SyncToken parseSyncToken(String since, long now) {
+        if(since == null) {
+            return null;
+        }
+        var token = decodeSyncToken(since);
+        if(token.getTimestamp() < now - TOMBSTONE_RETENTION.toMillis()) {
+            throw new SyncTokenExpiredException(since);
+        }
+        return token;
+    }
+
+    /**
+     * Changes are only returned once they are older than the settle time. Modification times are taken
+     * from the clock of the instance writing the change, so a change is only synced reliably if it is
+     * committed within the settle time and the clocks of the instances differ by less than it.
+     */
+    public static long syncedUntil(long now, Duration settleTime) {
+        return now - settleTime.toMillis();
+    }
+
+    /**
+     * Merges the projects and tombstones, both read in the order of their changes with up to limit + 1 entries,
+     * into the first limit changes. Changes at the same time are ordered projects first, like the sync token.
+     * If there are no more changes, the next sync starts at the time synced until.
+     */
+    public static ProjectDelta toProjectDelta(SyncToken since, List<Project> projects, List<Tombstone> tombstones,
+                                              int limit, long until) {
+        var changedProjects = new ArrayList<Project>();
+        var deleted = new ArrayList<Tombstone>();
+        SyncToken last = null;
+        int p = 0;
+        int t = 0;
+        while(p + t < limit && (p < projects.size() || t < tombstones.size())) {
+            if(t >= tombstones.size()
+                    || (p < projects.size() && modifiedAtOf(projects.get(p)) <= tombstones.get(t).getDeletedAt())) {
+                var project = projects.get(p++);
+                changedProjects.add(project);
+                last = new SyncToken(modifiedAtOf(project), SyncToken.Source.PROJECT, project.getId());
+            } else {
+                var tombstone = tombstones.get(t++);
+                deleted.add(tombstone);
+                last = new SyncToken(tombstone.getDeletedAt(), SyncToken.Source.TOMBSTONE, tombstone.getId());
+            }
+        }
+        var hasMore = projects.size() + tombstones.size() > limit;
+        var next = hasMore ? last
+                : since != null && since.getTimestamp() >= until - 1 ? since
+                : SyncToken.at(until - 1);
+        return ProjectDelta.builder()
+                .projects(changedProjects)
+                .deleted(deleted)
+                .nextToken(encodeSyncToken(next))
+                .hasMore(hasMore)
+                .build();
+    }
+
+    public static Tombstone projectTombstone(UUID id, long deletedAt) {
+        return Tombstone.builder()
+                .type(TombstoneType.PROJECT)
+                .id(id)
+                .deletedAt(deletedAt)
+                .build();
+    }
+
+    public static Tombstone taskTombstone(UUID id, UUID projectId, long deletedAt) {
+        return Tombstone.builder()
+                .type(TombstoneType.TASK)
+                .id(id)
+                .projectId(projectId)
+                .deletedAt(deletedAt)
+                .build();
+    }
+
+    /**
+     * Projects stored before modification times were recorded are synced as modified at 0.
+     */
+    private static long modifiedAtOf(Project project) {
+        return project.getModifiedAt() == null ? 0 : project.getModifiedAt();
+    }
+
+    private SyncUtil() {}
+}
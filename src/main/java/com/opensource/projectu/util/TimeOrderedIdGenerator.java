@@ -0,0 +1,36 @@
+package com.opensource.projectu.util;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.UUID;
+
+/**
+ * Generates version 7 UUIDs: a 48 bit unix timestamp in milliseconds followed by 74 random bits.
+ * IDs created later sort after older ones. Only with {@code spring.data.mongodb.uuid-representation=standard}
+ * are they stored in this order, so inserts append to the end of the _id index. The default JAVA_LEGACY
+ * representation reverses the bytes of each half, the stored IDs then start with random bits.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_IETF = 0x8000000000000000L;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Clock clock;
+
+    public TimeOrderedIdGenerator() {
+        this(Clock.systemUTC());
+    }
+
+    TimeOrderedIdGenerator(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID generateId() {
+        long timestamp = clock.millis() & 0xFFFFFFFFFFFFL;
+        long mostSignificantBits = (timestamp << 16) | VERSION_7 | (random.nextInt() & 0x0FFFL);
+        long leastSignificantBits = VARIANT_IETF | (random.nextLong() & 0x3FFFFFFFFFFFFFFFL);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
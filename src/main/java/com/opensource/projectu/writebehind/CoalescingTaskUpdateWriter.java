@@ -0,0 +1,209 @@
+package com.opensource.projectu.writebehind;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.repository.ProjectRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the replaced tasks for a short window and writes those of the same project with a single write,
+ * so a client firing an update per toggled checkbox causes one project write per window instead of one per task.
+ * The callers wait until their update is written, so they still get the new version of the project
+ * and a missing task is still reported.
+ * <p>
+ * A single thread flushes the windows one after another, so the updates of a project are written
+ * in the order they arrived. A later update of a task pending in the same window overwrites the earlier one.
+ * At most {@code maxPendingUpdates} updates wait for a window, once reached the window is flushed right away
+ * and further callers wait until it is taken. Updates with a version are conditional on the state
+ * the client has seen, they are written right away.
+ */
+@Slf4j
+public class CoalescingTaskUpdateWriter implements TaskUpdateWriter {
+
+    private final ProjectRepository projectRepository;
+    private final Duration window;
+    private final int maxPendingUpdates;
+    private final ScheduledThreadPoolExecutor flusher;
+    private final Timer flushTimer;
+
+    private Map<UUID, PendingUpdate> pendingUpdates = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private boolean stopped;
+
+    public CoalescingTaskUpdateWriter(ProjectRepository projectRepository, Duration window, int maxPendingUpdates,
+                                      MeterRegistry meterRegistry) {
+        this.projectRepository = projectRepository;
+        this.window = window;
+        this.maxPendingUpdates = maxPendingUpdates;
+        flusher = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "task-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        flushTimer = Timer.builder("projectu.tasks.write-behind.flush")
+                .description("Duration of writing the task updates collected in a window")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("projectu.tasks.write-behind.pending", this, CoalescingTaskUpdateWriter::pendingCount)
+                .description("Number of task updates waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<Project> replaceTask(UUID taskId, Long version, Task task) {
+        var update = version == null ? enqueue(taskId, task) : null;
+        if(update == null) {
+            return projectRepository.replaceTask(taskId, version, task);
+        }
+        try {
+            return update.result.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the pending updates and stops collecting further ones, which are then written right away.
+     */
+    @PreDestroy
+    public void stop() {
+        synchronized(this) {
+            if(stopped) {
+                return;
+            }
+            stopped = true;
+            notifyAll();
+        }
+        flusher.execute(this::flush);
+        flusher.shutdown();
+        try {
+            if(!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Pending task updates could not be written before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    synchronized int pendingCount() {
+        return pendingUpdates.size();
+    }
+
+    /**
+     * Returns null if the writer is stopped.
+     */
+    private synchronized PendingUpdate enqueue(UUID taskId, Task task) {
+        var update = pendingUpdates.get(taskId);
+        if(update != null) {
+            update.task = task;
+            return update;
+        }
+        while(!stopped && pendingUpdates.size() >= maxPendingUpdates) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        if(stopped) {
+            return null;
+        }
+        update = new PendingUpdate(taskId, task);
+        pendingUpdates.put(taskId, update);
+        if(pendingUpdates.size() >= maxPendingUpdates) {
+            flusher.execute(this::flush);
+            flushScheduled = true;
+        } else if(!flushScheduled) {
+            flusher.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+            flushScheduled = true;
+        }
+        return update;
+    }
+
+    private synchronized Map<UUID, PendingUpdate> takePendingUpdates() {
+        var updates = pendingUpdates;
+        pendingUpdates = new LinkedHashMap<>();
+        flushScheduled = false;
+        notifyAll();
+        return updates;
+    }
+
+    void flush() {
+        var updates = takePendingUpdates();
+        if(updates.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            try {
+                write(updates);
+            } catch (RuntimeException e) {
+                updates.values().forEach(update -> update.result.completeExceptionally(e));
+            }
+        });
+    }
+
+    /**
+     * Updates of tasks which do not exist complete empty. If a task was removed from its project meanwhile,
+     * the updates of the project are written one by one, so only the update of the missing task completes empty.
+     */
+    private void write(Map<UUID, PendingUpdate> updates) {
+        var projectIds = projectRepository.findProjectIdsByTaskIds(updates.keySet());
+        var updatesByProjectId = new LinkedHashMap<UUID, List<PendingUpdate>>();
+        for(var update : updates.values()) {
+            var projectId = projectIds.get(update.taskId);
+            if(projectId == null) {
+                update.result.complete(Optional.empty());
+            } else {
+                updatesByProjectId.computeIfAbsent(projectId, id -> new ArrayList<>()).add(update);
+            }
+        }
+        updatesByProjectId.forEach((projectId, projectUpdates) -> {
+            try {
+                var tasks = new ArrayList<Task>();
+                projectUpdates.forEach(update -> tasks.add(update.task));
+                var project = projectRepository.replaceTasks(projectId, tasks);
+                if(project.isPresent()) {
+                    projectUpdates.forEach(update -> update.result.complete(project));
+                } else {
+                    projectUpdates.forEach(update -> update.result.complete(
+                            projectRepository.replaceTask(update.taskId, null, update.task)));
+                }
+            } catch (RuntimeException e) {
+                projectUpdates.forEach(update -> update.result.completeExceptionally(e));
+            }
+        });
+    }
+
+    private static final class PendingUpdate {
+
+        private final UUID taskId;
+        private final CompletableFuture<Optional<Project>> result = new CompletableFuture<>();
+        private Task task;
+
+        PendingUpdate(UUID taskId, Task task) {
+            this.taskId = taskId;
+            this.task = task;
+        }
+    }
+}
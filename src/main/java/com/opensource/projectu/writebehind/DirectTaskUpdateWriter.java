@@ -0,0 +1,23 @@
+package com.opensource.projectu.writebehind;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.repository.ProjectRepository;
+import lombok.AllArgsConstructor;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Writes every replaced task right away with a write of its own.
+ */
+@AllArgsConstructor
+public class DirectTaskUpdateWriter implements TaskUpdateWriter {
+
+    private final ProjectRepository projectRepository;
+
+    @Override
+    public Optional<Project> replaceTask(UUID taskId, Long version, Task task) {
+        return projectRepository.replaceTask(taskId, version, task);
+    }
+}
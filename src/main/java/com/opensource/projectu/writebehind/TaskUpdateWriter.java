@@ -0,0 +1,20 @@
+package com.opensource.projectu.writebehind;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Task;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Writes the replaced tasks of the task endpoint, either one by one or coalesced per project.
+ */
+public interface TaskUpdateWriter {
+
+    /**
+     * Overwrites the task if its project has the given version, any version if null.
+     * Returns the id and new version of the project containing the task,
+     * or empty if no project with the version contains it.
+     */
+    Optional<Project> replaceTask(UUID taskId, Long version, Task task);
+}
@@ -0,0 +1,90 @@
+package com.opensource.projectu.cache;
+
+import com.opensource.projectu.openapi.model.ChangeType;
+import com.opensource.projectu.openapi.model.ProjectChange;
+import com.opensource.projectu.repository.ProjectChangeEvent;
+import com.opensource.projectu.repository.ProjectChangeFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeStreamInvalidationBusTest {
+
+    @Mock
+    ProjectChangeFeed changeFeed;
+
+    Sinks.Many<ProjectChangeEvent> changes;
+    List<ProjectInvalidation> invalidations;
+    ChangeStreamInvalidationBus invalidationBus;
+
+    @BeforeEach
+    void setup() {
+        changes = Sinks.many().unicast().onBackpressureBuffer();
+        invalidations = new ArrayList<>();
+        invalidationBus = new ChangeStreamInvalidationBus(changeFeed);
+        invalidationBus.subscribe(invalidations::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        invalidationBus.stop();
+    }
+
+    @Test
+    void startShouldDeliverChangesOfEveryInstance() {
+        var projectId = UUID.randomUUID();
+        when(changeFeed.changes(Set.of(), null))
+                .thenReturn(changes.asFlux());
+
+        invalidationBus.start();
+        changes.tryEmitNext(event(ChangeType.UPDATED, projectId, 3L));
+        changes.tryEmitNext(event(ChangeType.DELETED, projectId, null));
+        changes.tryEmitNext(event(ChangeType.RESET, null, null));
+
+        assertThat(invalidations).containsExactly(
+                ProjectInvalidation.changed(projectId, 3L),
+                ProjectInvalidation.deleted(projectId),
+                ProjectInvalidation.all());
+    }
+
+    @Test
+    void startShouldEvictEveryProjectAndResubscribeWhenChangesComplete() {
+        when(changeFeed.changes(Set.of(), null))
+                .thenReturn(changes.asFlux(), Flux.never());
+
+        invalidationBus.start();
+        changes.tryEmitComplete();
+
+        assertThat(invalidations).containsExactly(ProjectInvalidation.all());
+        verify(changeFeed, times(2)).changes(Set.of(), null);
+    }
+
+    @Test
+    void publishShouldNotDeliverInvalidationWhichChangeStreamDelivers() {
+        invalidationBus.publish(ProjectInvalidation.evict(UUID.randomUUID()));
+
+        assertThat(invalidations).isEmpty();
+    }
+
+    private static ProjectChangeEvent event(ChangeType type, UUID projectId, Long version) {
+        return new ProjectChangeEvent("8263A1", ProjectChange.builder()
+                .type(type)
+                .projectId(projectId)
+                .version(version)
+                .build());
+    }
+}
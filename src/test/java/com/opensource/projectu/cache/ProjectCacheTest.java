@@ -0,0 +1,240 @@
+package com.opensource.projectu.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static testutil.MockTestingUtil.buildMockProject;
+
+class ProjectCacheTest {
+
+    SimpleMeterRegistry meterRegistry;
+
+    LocalInvalidationBus invalidationBus;
+
+    ProjectCache projectCache;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        invalidationBus = new LocalInvalidationBus();
+        projectCache = new ProjectCache(100, Duration.ofMinutes(1), meterRegistry, invalidationBus);
+    }
+
+    @Test
+    void getProjectShouldLoadProjectOnlyOnceWhenProjectIsCached() {
+        var mockProject = buildMockProject();
+        var loadCount = new AtomicInteger();
+
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+        var returnedProject = projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+
+        assertThat(returnedProject).contains(mockProject);
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void getProjectShouldNotCacheProjectWhenProjectNotFound() {
+        var id = UUID.randomUUID();
+        var loadCount = new AtomicInteger();
+
+        projectCache.getProject(id, () -> {
+            loadCount.incrementAndGet();
+            return Optional.empty();
+        });
+        var returnedProject = projectCache.getProject(id, () -> {
+            loadCount.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertThat(returnedProject).isEmpty();
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void getProjectShouldLoadProjectAgainWhenProjectWasInvalidated() {
+        var mockProject = buildMockProject();
+        var loadCount = new AtomicInteger();
+
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+        projectCache.invalidate(mockProject.getId());
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void invalidateShouldEvictProjectFromCachesOfOtherInstances() {
+        var otherCache = new ProjectCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry(), invalidationBus);
+        var mockProject = buildMockProject();
+        var loadCount = new AtomicInteger();
+
+        otherCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+        projectCache.invalidate(mockProject.getId());
+        otherCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void getProjectShouldNotCacheProjectOlderThanInvalidatedVersion() {
+        var mockProject = buildMockProject().version(4L);
+        var loadCount = new AtomicInteger();
+
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            invalidationBus.publish(ProjectInvalidation.changed(mockProject.getId(), 5L));
+            return Optional.of(mockProject);
+        });
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void getProjectShouldNotCacheProjectLoadedBeforeLocalChange() {
+        var mockProject = buildMockProject().version(1L);
+        var loadCount = new AtomicInteger();
+
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            projectCache.changed(mockProject.getId(), 2L);
+            return Optional.of(mockProject);
+        });
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void getProjectShouldNotCacheProjectLoadedBeforeDeletion() {
+        var mockProject = buildMockProject().version(1L);
+        var loadCount = new AtomicInteger();
+
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            projectCache.deleted(mockProject.getId());
+            return Optional.of(mockProject);
+        });
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void getProjectShouldNotCacheProjectLoadedBeforeEviction() {
+        var mockProject = buildMockProject();
+        var loadCount = new AtomicInteger();
+
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            projectCache.invalidate(mockProject.getId());
+            return Optional.of(mockProject);
+        });
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void onInvalidationShouldKeepProjectWithInvalidatedVersion() {
+        var mockProject = buildMockProject().version(5L);
+        var loadCount = new AtomicInteger();
+
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+        invalidationBus.publish(ProjectInvalidation.changed(mockProject.getId(), 5L));
+        invalidationBus.publish(ProjectInvalidation.changed(UUID.randomUUID(), 1L));
+        projectCache.getProject(mockProject.getId(), () -> {
+            loadCount.incrementAndGet();
+            return Optional.of(mockProject);
+        });
+
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void onInvalidationShouldEvictEveryProjectWithoutProjectId() {
+        var mockProject = buildMockProject();
+
+        projectCache.getProject(mockProject.getId(), () -> Optional.of(mockProject));
+        invalidationBus.publish(ProjectInvalidation.all());
+        var returnedProject = projectCache.getProject(mockProject.getId(), Optional::empty);
+
+        assertThat(returnedProject).isEmpty();
+    }
+
+    @Test
+    void getProjectOfTaskShouldReturnCachedProjectWithoutLoading() {
+        var mockProject = buildMockProject();
+        var mockTask = mockProject.getTasks().get(1);
+
+        projectCache.getProject(mockProject.getId(), () -> Optional.of(mockProject));
+        var returnedProject = projectCache.getProjectOfTask(mockTask.getId(), Optional::empty);
+
+        assertThat(returnedProject).contains(mockProject);
+    }
+
+    @Test
+    void getProjectOfTaskShouldLoadProjectAgainWhenProjectOfTaskWasInvalidated() {
+        var mockProject = buildMockProject();
+        var mockTask = mockProject.getTasks().get(0);
+
+        projectCache.getProjectOfTask(mockTask.getId(), () -> Optional.of(mockProject));
+        projectCache.invalidate(mockProject.getId());
+        var returnedProject = projectCache.getProjectOfTask(mockTask.getId(), Optional::empty);
+
+        assertThat(returnedProject).isEmpty();
+    }
+
+    @Test
+    void cacheShouldRecordHitsAndMisses() {
+        var mockProject = buildMockProject();
+
+        projectCache.getProject(mockProject.getId(), () -> Optional.of(mockProject));
+        projectCache.getProject(mockProject.getId(), () -> Optional.of(mockProject));
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "projects").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "projects").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.opensource.projectu.concurrencylimit;
+
+import com.opensource.projectu.exception.DatabaseOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void invokeShouldProceedWithinLimit() throws Throwable {
+        var limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, Duration.ZERO, 10, meterRegistry);
+        var invocation = mock(MethodInvocation.class);
+        when(invocation.proceed()).thenReturn("result");
+
+        assertThat(limiter.invoke(invocation)).isEqualTo("result");
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void invokeShouldRejectBeyondLimitWithoutQueueWait() {
+        var limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, Duration.ZERO, 10, meterRegistry);
+        limiter.acquire();
+
+        assertThatThrownBy(() -> limiter.invoke(mock(MethodInvocation.class)))
+                .isInstanceOf(DatabaseOverloadedException.class);
+        assertThat(meterRegistry.get("projectu.mongo.concurrency.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("projectu.mongo.concurrency.in-flight").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void acquireShouldWaitForReleasedSlot() throws Exception {
+        var limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, Duration.ofSeconds(5), 10, meterRegistry);
+        limiter.acquire();
+
+        var waiting = CompletableFuture.supplyAsync(limiter::acquire);
+        while(limiter.queued() == 0) {
+            Thread.onSpinWait();
+        }
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1), 1, false);
+
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    void acquireShouldRejectWhenQueueIsFull() {
+        var limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, Duration.ofSeconds(5), 0, meterRegistry);
+        limiter.acquire();
+
+        assertThatThrownBy(limiter::acquire).isInstanceOf(DatabaseOverloadedException.class);
+    }
+
+    @Test
+    void invokeShouldLowerLimitOnTimeouts() throws Throwable {
+        var limiter = new AdaptiveConcurrencyLimiter(20, 5, 50, Duration.ZERO, 10, meterRegistry);
+        var invocation = mock(MethodInvocation.class);
+        when(invocation.proceed()).thenThrow(new QueryTimeoutException("timeout"));
+
+        for(int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> limiter.invoke(invocation)).isInstanceOf(QueryTimeoutException.class);
+        }
+
+        assertThat(limiter.limit()).isLessThan(20);
+        assertThat(meterRegistry.get("projectu.mongo.concurrency.limit").gauge().value()).isEqualTo(limiter.limit());
+    }
+}
@@ -0,0 +1,57 @@
+package com.opensource.projectu.concurrencylimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTest {
+
+    static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Test
+    void limitShouldGrowWhileLatencyStaysSteady() {
+        var gradientLimit = new GradientLimit(10, 5, 50);
+
+        for(int i = 0; i < 20; i++) {
+            gradientLimit.onSample(LATENCY, gradientLimit.limit(), false);
+        }
+
+        assertThat(gradientLimit.limit()).isGreaterThan(10);
+    }
+
+    @Test
+    void limitShouldNotGrowWithFewCallsInProgress() {
+        var gradientLimit = new GradientLimit(10, 5, 50);
+
+        for(int i = 0; i < 20; i++) {
+            gradientLimit.onSample(LATENCY, 2, false);
+        }
+
+        assertThat(gradientLimit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void limitShouldShrinkWhenLatencyRises() {
+        var gradientLimit = new GradientLimit(40, 5, 50);
+        for(int i = 0; i < GradientLimit.LONG_WINDOW; i++) {
+            gradientLimit.onSample(LATENCY, 1, false);
+        }
+
+        for(int i = 0; i < 30; i++) {
+            gradientLimit.onSample(20 * LATENCY, gradientLimit.limit(), false);
+        }
+
+        assertThat(gradientLimit.limit()).isLessThan(10);
+    }
+
+    @Test
+    void limitShouldBackOffOnDroppedCalls() {
+        var gradientLimit = new GradientLimit(40, 5, 50);
+
+        gradientLimit.onSample(LATENCY, 40, true);
+
+        assertThat(gradientLimit.limit()).isEqualTo(36);
+    }
+}
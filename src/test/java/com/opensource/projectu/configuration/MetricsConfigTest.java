@@ -0,0 +1,26 @@
+package com.opensource.projectu.configuration;
+
+import com.opensource.projectu.controller.ProjectController;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class MetricsConfigTest {
+
+    @Test
+    void operationTagShouldBeNameOfHandlerMethod() throws Exception {
+        var handler = new HandlerMethod(mock(ProjectController.class),
+                ProjectController.class.getMethod("deleteProject", UUID.class));
+
+        assertThat(MetricsConfig.operationTag(handler).getValue()).isEqualTo("deleteProject");
+    }
+
+    @Test
+    void operationTagShouldBeNoneWhenNoHandlerMethodMatched() {
+        assertThat(MetricsConfig.operationTag(null).getValue()).isEqualTo(MetricsConfig.NO_OPERATION);
+    }
+}
@@ -0,0 +1,34 @@
+package com.opensource.projectu.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadConfigTest {
+
+    private static final boolean VIRTUAL_THREADS_AVAILABLE = Runtime.version().feature() >= 21;
+
+    @Test
+    void newVirtualThreadPerTaskExecutorShouldRunTasksOnVirtualThreads() throws Exception {
+        assumeTrue(VIRTUAL_THREADS_AVAILABLE);
+        var executor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor();
+
+        var isVirtual = executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+
+        assertThat(isVirtual.get(5, TimeUnit.SECONDS)).isEqualTo(true);
+        executor.shutdown();
+    }
+
+    @Test
+    void newVirtualThreadPerTaskExecutorShouldThrowExceptionWhenJavaVersionIsTooOld() {
+        assumeTrue(!VIRTUAL_THREADS_AVAILABLE);
+
+        assertThatThrownBy(VirtualThreadConfig::newVirtualThreadPerTaskExecutor)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("requires Java 21");
+    }
+}
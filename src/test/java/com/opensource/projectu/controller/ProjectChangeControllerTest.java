@@ -0,0 +1,84 @@
+package com.opensource.projectu.controller;
+
+import com.opensource.projectu.configuration.JacksonConfig;
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.openapi.model.ChangeType;
+import com.opensource.projectu.openapi.model.ProjectChange;
+import com.opensource.projectu.service.ProjectChangeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProjectChangeController.class)
+@Import(JacksonConfig.class)
+class ProjectChangeControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    ProjectChangeService changeService;
+
+    @Test
+    void streamChangesShouldStreamServerSentEvents() throws Exception {
+        var projectId = UUID.randomUUID();
+        var change = ProjectChange.builder()
+                .type(ChangeType.UPDATED)
+                .projectId(projectId)
+                .version(2L)
+                .changedFields(List.of("title"))
+                .build();
+
+        when(changeService.streamChanges(List.of(projectId), "8263A1"))
+                .thenReturn(Flux.just(ServerSentEvent.builder(change).id("8263A2").event("UPDATED").build()));
+
+        var request = MockMvcRequestBuilders
+                .get("/changes")
+                .param("projectId", projectId.toString())
+                .header("Last-Event-ID", "8263A1")
+                .accept(MediaType.TEXT_EVENT_STREAM);
+
+        var result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id:8263A2")))
+                .andExpect(content().string(containsString("event:UPDATED")))
+                .andExpect(content().string(containsString("\"changedFields\":[\"title\"]")));
+    }
+
+    @Test
+    void streamChangesShouldReturn400WhenTooManyProjectIds() throws Exception {
+        when(changeService.streamChanges(anyList(), isNull()))
+                .thenThrow(new InvalidParameterException("projectId", "101"));
+
+        var request = MockMvcRequestBuilders
+                .get("/changes")
+                .param("projectId", UUID.randomUUID().toString())
+                .accept(MediaType.TEXT_EVENT_STREAM);
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest());
+    }
+}
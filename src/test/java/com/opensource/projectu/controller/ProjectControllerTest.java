@@ -1,22 +1,38 @@
 package com.opensource.projectu.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opensource.projectu.configuration.JacksonConfig;
+import com.opensource.projectu.exception.IdempotencyKeyMismatchException;
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.exception.PreconditionFailedException;
 import com.opensource.projectu.exception.ProjectNotFoundException;
+import com.opensource.projectu.exception.SyncTokenExpiredException;
 import com.opensource.projectu.openapi.model.Complexity;
 import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectDelta;
+import com.opensource.projectu.openapi.model.ProjectPatch;
+import com.opensource.projectu.openapi.model.ProjectStats;
 import com.opensource.projectu.openapi.model.State;
 import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.repository.ProjectFilter;
+import com.opensource.projectu.repository.TaskPage;
+import com.opensource.projectu.service.BatchService;
+import com.opensource.projectu.service.ProjectPage;
 import com.opensource.projectu.service.ProjectService;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -26,6 +42,7 @@ import static org.hamcrest.Matchers.*;
 import static testutil.MockTestingUtil.*;
 
 @WebMvcTest(ProjectController.class)
+@Import(JacksonConfig.class)
 class ProjectControllerTest {
 
     @Autowired
@@ -37,12 +54,15 @@ class ProjectControllerTest {
     @MockBean
     ProjectService projectService;
 
+    @MockBean
+    BatchService batchService;
+
     @Test
     void getAllProjectsShouldReturnAllProjectsWith200WhenSuccess() throws Exception {
         var mockProjects = buildMockProjects();
 
-        when(projectService.getAllProjects())
-                .thenReturn(mockProjects);
+        when(projectService.getAllProjects(100, null, "asc", ProjectFilter.NONE, null, null))
+                .thenReturn(ProjectPage.builder().projects(mockProjects).build());
 
         var request = MockMvcRequestBuilders
                 .get("/projects")
@@ -50,15 +70,200 @@ class ProjectControllerTest {
 
         mockMvc.perform(request)
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", notNullValue()));
+                .andExpect(jsonPath("$", hasSize(mockProjects.size())))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getAllProjectsShouldPassFiltersToService() throws Exception {
+        var filter = ProjectFilter.builder()
+                .state(State.IN_PROGRESS)
+                .complexity(Complexity.DIFFICULT)
+                .createdFrom(1508484583259L)
+                .maxEstimatedDurationInHours(40)
+                .build();
+
+        when(projectService.getAllProjects(100, null, "asc", filter, null, null))
+                .thenReturn(ProjectPage.builder().projects(buildMockProjects()).build());
+
+        var request = MockMvcRequestBuilders
+                .get("/projects")
+                .param("state", "IN_PROGRESS")
+                .param("complexity", "DIFFICULT")
+                .param("createdFrom", "1508484583259")
+                .param("maxEstimatedDurationInHours", "40")
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(buildMockProjects().size())));
+    }
+
+    @Test
+    void getProjectStatsShouldReturnStatsWith200() throws Exception {
+        var filter = ProjectFilter.builder()
+                .complexity(Complexity.DIFFICULT)
+                .build();
+
+        when(projectService.getProjectStats(filter))
+                .thenReturn(ProjectStats.builder().projectCount(4L).taskCompletionRatio(0.5).build());
+
+        var request = MockMvcRequestBuilders
+                .get("/projects/stats")
+                .param("complexity", "DIFFICULT")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.projectCount", is(4)))
+                .andExpect(jsonPath("$.taskCompletionRatio", is(0.5)));
+    }
+
+    @Test
+    void getProjectChangesShouldReturnDeltaWith200() throws Exception {
+        var mockProject = buildMockProject();
+
+        when(projectService.getProjectChanges("MTAwMA", 100))
+                .thenReturn(ProjectDelta.builder()
+                        .projects(List.of(mockProject))
+                        .deleted(List.of())
+                        .nextToken("MTk5OQ")
+                        .hasMore(false)
+                        .build());
+
+        var request = MockMvcRequestBuilders
+                .get("/projects/changes")
+                .param("since", "MTAwMA")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.projects", hasSize(1)))
+                .andExpect(jsonPath("$.nextToken", is("MTk5OQ")))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+    }
+
+    @Test
+    void getProjectChangesShouldReturn410WhenTokenIsExpired() throws Exception {
+        when(projectService.getProjectChanges("MTAwMA", 100))
+                .thenThrow(new SyncTokenExpiredException("MTAwMA"));
+
+        var request = MockMvcRequestBuilders
+                .get("/projects/changes")
+                .param("since", "MTAwMA")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void getAllProjectsShouldReturn400WhenStateIsUnknown() throws Exception {
+        var request = MockMvcRequestBuilders
+                .get("/projects")
+                .param("state", "SLEEPING")
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    void getAllProjectsShouldReturnNextCursorWhenMoreProjectsExist() throws Exception {
+        var mockProjects = buildMockProjects();
+
+        when(projectService.getAllProjects(2, "cursor", "desc", ProjectFilter.NONE, null, null))
+                .thenReturn(ProjectPage.builder()
+                        .projects(mockProjects.subList(0, 2))
+                        .nextCursor("next")
+                        .build());
+
+        var request = MockMvcRequestBuilders
+                .get("/projects")
+                .param("limit", "2")
+                .param("after", "cursor")
+                .param("order", "desc")
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string("X-Next-Cursor", "next"));
+    }
+
+    @Test
+    void getAllProjectsShouldReturnErrorResponseWith400WhenCursorIsInvalid() throws Exception {
+        when(projectService.getAllProjects(100, "invalid", "asc", ProjectFilter.NONE, null, null))
+                .thenThrow(new InvalidParameterException("after", "invalid"));
+
+        var request = MockMvcRequestBuilders
+                .get("/projects")
+                .param("after", "invalid")
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.httpStatus", is("BAD_REQUEST")));
+    }
+
+    @Test
+    void getAllProjectsShouldReturnErrorResponseWith400WhenLimitIsTooLarge() throws Exception {
+        var request = MockMvcRequestBuilders
+                .get("/projects")
+                .param("limit", "1001")
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.httpStatus", is("BAD_REQUEST")));
+    }
+
+    @Test
+    void getAllProjectsShouldPassSelectedFieldsAndOmitMissingFields() throws Exception {
+        var mockProject = Project.builder()
+                .title("title1")
+                .state(State.INITIATED)
+                .build();
+
+        when(projectService.getAllProjects(100, null, "asc", ProjectFilter.NONE, List.of("title", "state"), null))
+                .thenReturn(ProjectPage.builder().projects(List.of(mockProject)).build());
+
+        var request = MockMvcRequestBuilders
+                .get("/projects")
+                .param("fields", "title,state")
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title", is("title1")))
+                .andExpect(jsonPath("$[0].tasks").doesNotExist())
+                .andExpect(jsonPath("$[0].id").doesNotExist());
+    }
+
+    @Test
+    void getProjectByIdShouldReturnErrorResponseWith400WhenFieldIsUnknown() throws Exception {
+        var id = UUID.randomUUID();
+
+        when(projectService.getProjectById(id, List.of("secret"), null, null))
+                .thenThrow(new InvalidParameterException("fields", "secret"));
+
+        var request = MockMvcRequestBuilders
+                .get("/projects/{id}", id)
+                .param("fields", "secret")
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.httpStatus", is("BAD_REQUEST")));
     }
 
     @Test
     void getProjectByIdShouldReturnProjectWith200WhenProjectFound() throws Exception {
         var mockProject = buildMockProject();
 
-        when(projectService.getProjectById(mockProject.getId()))
-                .thenReturn(mockProject);
+        when(projectService.getProjectById(mockProject.getId(), null, null, null))
+                .thenReturn(ResponseEntity.ok().eTag("\"1\"").body(mockProject));
 
         var request = MockMvcRequestBuilders
                 .get("/projects/{id}", mockProject.getId())
@@ -66,14 +271,32 @@ class ProjectControllerTest {
 
         mockMvc.perform(request)
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
                 .andExpect(jsonPath("$", notNullValue()));
     }
 
+    @Test
+    void getProjectByIdShouldReturn304WhenIfNoneMatchMatches() throws Exception {
+        var id = UUID.randomUUID();
+
+        when(projectService.getProjectById(id, null, null, "\"1\""))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1\"").build());
+
+        var request = MockMvcRequestBuilders
+                .get("/projects/{id}", id)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1\"");
+
+        mockMvc.perform(request)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getProjectByIdShouldReturnExceptionWith404WhenProjectNotFound() throws Exception {
         var id = UUID.randomUUID();
 
-        when(projectService.getProjectById(id))
+        when(projectService.getProjectById(id, null, null, null))
                 .thenThrow(new ProjectNotFoundException(id));
 
         var request = MockMvcRequestBuilders
@@ -91,7 +314,7 @@ class ProjectControllerTest {
     void createProjectShouldReturnProjectWith201WhenSuccess() throws Exception {
         var mockProject = buildMockProject();
 
-        when(projectService.createProject(mockProject))
+        when(projectService.createProject(mockProject, null))
                 .thenReturn(mockProject);
 
         var request = MockMvcRequestBuilders
@@ -105,6 +328,43 @@ class ProjectControllerTest {
                 .andExpect(jsonPath("$", notNullValue()));
     }
 
+    @Test
+    void createProjectShouldPassIdempotencyKeyToService() throws Exception {
+        var mockProject = buildMockProject();
+
+        when(projectService.createProject(mockProject, "key-1"))
+                .thenReturn(mockProject);
+
+        var request = MockMvcRequestBuilders
+                .post("/projects")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(mockProject));
+
+        mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(mockProject.getId().toString()));
+    }
+
+    @Test
+    void createProjectShouldReturn422WhenIdempotencyKeyWasUsedForDifferentRequest() throws Exception {
+        var mockProject = buildMockProject();
+
+        when(projectService.createProject(mockProject, "key-1"))
+                .thenThrow(new IdempotencyKeyMismatchException("key-1"));
+
+        var request = MockMvcRequestBuilders
+                .post("/projects")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(mockProject));
+
+        mockMvc.perform(request)
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void createProjectShouldReturnProjectWith201WhenRequiredFieldsAreThere() throws Exception {
         var mockProject = Project.builder()
@@ -114,7 +374,7 @@ class ProjectControllerTest {
                 .complexity(Complexity.EASY)
                 .build();
 
-        when(projectService.createProject(mockProject))
+        when(projectService.createProject(mockProject, null))
                 .thenReturn(mockProject);
 
         var request = MockMvcRequestBuilders
@@ -201,7 +461,7 @@ class ProjectControllerTest {
     void updateProjectShouldReturnProjectWith200WhenSuccess() throws Exception {
         var mockProject = buildMockProject();
 
-        when(projectService.updateProject(mockProject.getId(), mockProject))
+        when(projectService.updateProject(mockProject.getId(), mockProject, null))
                 .thenReturn(new ResponseEntity<>(mockProject, HttpStatus.OK));
 
         var request = MockMvcRequestBuilders
@@ -219,7 +479,7 @@ class ProjectControllerTest {
     void updateProjectShouldReturnProjectWith201WhenProjectNotFound() throws Exception {
         var mockProject = buildMockProject();
 
-        when(projectService.updateProject(mockProject.getId(), mockProject))
+        when(projectService.updateProject(mockProject.getId(), mockProject, null))
                 .thenReturn(new ResponseEntity<>(mockProject, HttpStatus.CREATED));
 
         var request = MockMvcRequestBuilders
@@ -233,6 +493,62 @@ class ProjectControllerTest {
                 .andExpect(jsonPath("$", notNullValue()));
     }
 
+    @Test
+    void patchProjectShouldReturnProjectWith200WhenSuccess() throws Exception {
+        var mockProject = buildMockProject();
+
+        when(projectService.patchProject(eq(mockProject.getId()), Mockito.any(ProjectPatch.class), isNull()))
+                .thenReturn(ResponseEntity.ok().eTag("\"2\"").body(mockProject));
+
+        var request = MockMvcRequestBuilders
+                .patch("/projects/{id}", mockProject.getId())
+                .contentType("application/merge-patch+json")
+                .accept(MediaType.APPLICATION_JSON)
+                .content("{\"state\":\"FINISHED\",\"actualResult\":null}");
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.id", is(mockProject.getId().toString())));
+    }
+
+    @Test
+    void patchProjectShouldReturnErrorResponseWith400WhenTitleIsRemoved() throws Exception {
+        var id = UUID.randomUUID();
+
+        when(projectService.patchProject(eq(id), Mockito.any(ProjectPatch.class), isNull()))
+                .thenThrow(new InvalidParameterException("title", null));
+
+        var request = MockMvcRequestBuilders
+                .patch("/projects/{id}", id)
+                .contentType("application/merge-patch+json")
+                .accept(MediaType.APPLICATION_JSON)
+                .content("{\"title\":null}");
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.httpStatus", is("BAD_REQUEST")));
+    }
+
+    @Test
+    void updateProjectShouldReturnErrorResponseWith412WhenIfMatchDoesNotMatch() throws Exception {
+        var mockProject = buildMockProject();
+
+        when(projectService.updateProject(mockProject.getId(), mockProject, "\"1\""))
+                .thenThrow(new PreconditionFailedException("\"1\""));
+
+        var request = MockMvcRequestBuilders
+                .put("/projects/{id}", mockProject.getId())
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(mockProject));
+
+        mockMvc.perform(request)
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.httpStatus", is("PRECONDITION_FAILED")));
+    }
+
     @Test
     void updateProjectShouldReturnProjectWith200WhenRequiredFieldsAreThere() throws Exception {
         var mockProject = Project.builder()
@@ -242,7 +558,7 @@ class ProjectControllerTest {
                 .complexity(Complexity.EASY)
                 .build();
 
-        when(projectService.updateProject(mockProject.getId(), mockProject))
+        when(projectService.updateProject(mockProject.getId(), mockProject, null))
                 .thenReturn(new ResponseEntity<>(mockProject, HttpStatus.OK));
 
         var request = MockMvcRequestBuilders
@@ -356,7 +672,7 @@ class ProjectControllerTest {
     void methodShouldReturnCustomErrorResponseWith500WhenUnexpectedException() throws Exception {
         var id = UUID.randomUUID();
 
-        when(projectService.getProjectById(id))
+        when(projectService.getProjectById(id, null, null, null))
                 .thenThrow(new RuntimeException());
 
         var request = MockMvcRequestBuilders
@@ -369,12 +685,47 @@ class ProjectControllerTest {
                 .andExpect(jsonPath("$.httpStatus", is("INTERNAL_SERVER_ERROR")));
     }
 
+    @Test
+    void getProjectTasksShouldReturnPageOfTasksWithTotalCount() throws Exception {
+        var mockProject = buildMockProject();
+
+        when(projectService.getProjectTasks(mockProject.getId(), 2, 1, false))
+                .thenReturn(TaskPage.builder().tasks(List.of(buildMockTask())).totalCount(3).build());
+
+        var request = MockMvcRequestBuilders
+                .get("/projects/{id}/tasks", mockProject.getId())
+                .param("offset", "2")
+                .param("limit", "1")
+                .param("done", "false")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void getProjectTasksShouldReturnExceptionWith404WhenProjectNotFound() throws Exception {
+        var mockId = UUID.randomUUID();
+
+        when(projectService.getProjectTasks(mockId, 0, 100, null))
+                .thenThrow(new ProjectNotFoundException(mockId));
+
+        var request = MockMvcRequestBuilders
+                .get("/projects/{id}/tasks", mockId)
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void createTaskShouldReturnProjectWith201WhenSuccess() throws Exception {
         var mockProject = buildMockProject();
         var mockTask = buildMockTask();
 
-        when(projectService.createTask(mockProject.getId(), mockTask))
+        when(projectService.createTask(mockProject.getId(), mockTask, null))
                 .thenReturn(mockProject);
 
         var request = MockMvcRequestBuilders
@@ -438,7 +789,7 @@ class ProjectControllerTest {
 
         var invalidTask = buildMockTask();
 
-        when(projectService.createTask(mockId, invalidTask))
+        when(projectService.createTask(mockId, invalidTask, null))
                 .thenThrow(new ProjectNotFoundException(mockId));
 
         var request = MockMvcRequestBuilders
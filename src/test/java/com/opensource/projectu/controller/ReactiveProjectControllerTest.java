@@ -0,0 +1,134 @@
+package com.opensource.projectu.controller;
+
+import com.opensource.projectu.configuration.JacksonConfig;
+import com.opensource.projectu.exception.ProjectNotFoundException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectPatch;
+import com.opensource.projectu.repository.ProjectFilter;
+import com.opensource.projectu.service.BatchService;
+import com.opensource.projectu.service.ProjectPage;
+import com.opensource.projectu.service.ReactiveProjectService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static testutil.MockTestingUtil.buildMockProject;
+import static testutil.MockTestingUtil.buildMockProjects;
+
+@WebFluxTest(ReactiveProjectController.class)
+@Import(JacksonConfig.class)
+class ReactiveProjectControllerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockBean
+    ReactiveProjectService projectService;
+
+    @MockBean
+    BatchService batchService;
+
+    @Test
+    void getAllProjectsShouldReturnPageWithNextCursor() {
+        var mockProjects = buildMockProjects();
+
+        when(projectService.getAllProjects(2, null, "asc", ProjectFilter.NONE, null, null))
+                .thenReturn(Mono.just(ProjectPage.builder()
+                        .projects(mockProjects.subList(0, 2))
+                        .nextCursor("next")
+                        .build()));
+
+        webTestClient.get()
+                .uri("/projects?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", "next")
+                .expectBodyList(Project.class).hasSize(2);
+    }
+
+    @Test
+    void getProjectByIdShouldReturn404WhenProjectNotFound() {
+        var id = UUID.randomUUID();
+
+        when(projectService.getProjectById(id, null, null, null))
+                .thenReturn(Mono.error(new ProjectNotFoundException(id)));
+
+        webTestClient.get()
+                .uri("/projects/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Project with id " + id + " not found.");
+    }
+
+    @Test
+    void createProjectShouldReturnProjectWith201WhenSuccess() {
+        var mockProject = buildMockProject();
+
+        when(projectService.createProject(any(Project.class)))
+                .thenReturn(Mono.just(mockProject));
+
+        webTestClient.post()
+                .uri("/projects")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(mockProject)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(mockProject.getId().toString());
+    }
+
+    @Test
+    void createProjectShouldReturn400WhenProjectIsInvalid() {
+        webTestClient.post()
+                .uri("/projects")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(buildMockProject().title(null))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void patchProjectShouldReturnPatchedProjectWithETag() {
+        var mockProject = buildMockProject();
+
+        when(projectService.patchProject(eq(mockProject.getId()), any(ProjectPatch.class), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok().eTag("\"2\"").body(mockProject)));
+
+        webTestClient.patch()
+                .uri("/projects/{id}", mockProject.getId())
+                .contentType(MediaType.valueOf("application/merge-patch+json"))
+                .bodyValue("{\"description\":null}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(mockProject.getId().toString());
+    }
+
+    @Test
+    void deleteProjectShouldReturn204WhenSuccess() {
+        var id = UUID.randomUUID();
+
+        when(projectService.deleteProject(id))
+                .thenReturn(Mono.empty());
+
+        webTestClient.delete()
+                .uri("/projects/{id}", id)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+}
@@ -1,28 +1,43 @@
 package com.opensource.projectu.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opensource.projectu.configuration.JacksonConfig;
+import com.opensource.projectu.exception.PreconditionFailedException;
 import com.opensource.projectu.exception.TaskNotFoundException;
 import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.TaskPatch;
+import com.opensource.projectu.service.BatchService;
 import com.opensource.projectu.service.TaskService;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static testutil.MockTestingUtil.buildMockProject;
 import static testutil.MockTestingUtil.buildMockTask;
 
 @WebMvcTest(TaskController.class)
+@Import(JacksonConfig.class)
 class TaskControllerTest {
 
     @Autowired
@@ -34,12 +49,15 @@ class TaskControllerTest {
     @MockBean
     TaskService taskService;
 
+    @MockBean
+    BatchService batchService;
+
     @Test
     void getTaskByIdShouldReturnProjectWith200WhenTaskFound() throws Exception {
         var mockTask = buildMockTask();
 
-        when(taskService.getTaskById(mockTask.getId()))
-                .thenReturn(mockTask);
+        when(taskService.getTaskById(mockTask.getId(), null))
+                .thenReturn(ResponseEntity.ok().eTag("\"1\"").body(mockTask));
 
         var request = MockMvcRequestBuilders
                 .get("/tasks/{id}", mockTask.getId())
@@ -48,14 +66,32 @@ class TaskControllerTest {
 
         mockMvc.perform(request)
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
                 .andExpect(jsonPath("$", notNullValue()));
     }
 
+    @Test
+    void getTaskByIdShouldReturn304WhenIfNoneMatchMatches() throws Exception {
+        var id = UUID.randomUUID();
+
+        when(taskService.getTaskById(id, "\"1\""))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1\"").build());
+
+        var request = MockMvcRequestBuilders
+                .get("/tasks/{id}", id)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(request)
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getTaskByIdShouldReturnExceptionWith404WhenTaskNotFound() throws Exception {
         var id = UUID.randomUUID();
 
-        when(taskService.getTaskById(id))
+        when(taskService.getTaskById(id, null))
                 .thenThrow(new TaskNotFoundException(id));
 
         var request = MockMvcRequestBuilders
@@ -73,8 +109,8 @@ class TaskControllerTest {
     void updateTaskShouldReturnTaskWith200WhenTaskFound() throws Exception {
         var mockTask = buildMockTask();
 
-        when(taskService.updateTask(mockTask.getId(), mockTask))
-                .thenReturn(mockTask);
+        when(taskService.updateTask(mockTask.getId(), mockTask, null))
+                .thenReturn(ResponseEntity.ok().eTag("\"2\"").body(mockTask));
 
         var request = MockMvcRequestBuilders
                 .put("/tasks/{id}", mockTask.getId())
@@ -87,11 +123,34 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$", notNullValue()));
     }
 
+    @Test
+    void patchTaskShouldPassChangedAndRemovedFieldsToService() throws Exception {
+        var mockTask = buildMockTask();
+        var patch = ArgumentCaptor.forClass(TaskPatch.class);
+
+        when(taskService.patchTask(eq(mockTask.getId()), patch.capture(), eq("\"2\"")))
+                .thenReturn(ResponseEntity.ok().eTag("\"3\"").body(mockTask));
+
+        var request = MockMvcRequestBuilders
+                .patch("/tasks/{id}", mockTask.getId())
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType("application/merge-patch+json")
+                .accept(MediaType.APPLICATION_JSON)
+                .content("{\"done\":true,\"result\":null}");
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        assertThat(patch.getValue().getDone()).isEqualTo(JsonNullable.of(true));
+        assertThat(patch.getValue().getResult()).isEqualTo(JsonNullable.of(null));
+        assertThat(patch.getValue().getTitle()).isEqualTo(JsonNullable.undefined());
+    }
+
     @Test
     void updateTaskShouldReturnExceptionWith404WhenTaskNotFound() throws Exception {
         var mockTask = buildMockTask();
 
-        when(taskService.updateTask(mockTask.getId(), mockTask))
+        when(taskService.updateTask(mockTask.getId(), mockTask, null))
                 .thenThrow(new TaskNotFoundException(mockTask.getId()));
 
         var request = MockMvcRequestBuilders
@@ -106,6 +165,25 @@ class TaskControllerTest {
                         assertTrue(result.getResolvedException() instanceof TaskNotFoundException));
     }
 
+    @Test
+    void updateTaskShouldReturnErrorResponseWith412WhenIfMatchDoesNotMatch() throws Exception {
+        var mockTask = buildMockTask();
+
+        when(taskService.updateTask(mockTask.getId(), mockTask, "\"1\""))
+                .thenThrow(new PreconditionFailedException("\"1\""));
+
+        var request = MockMvcRequestBuilders
+                .put("/tasks/{id}", mockTask.getId())
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(mockTask));
+
+        mockMvc.perform(request)
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.httpStatus", is("PRECONDITION_FAILED")));
+    }
+
     @Test
     void updateTaskShouldReturnErrorResponseWith400WhenTitleIsMissing() throws Exception {
         var invalidTask = Task.builder()
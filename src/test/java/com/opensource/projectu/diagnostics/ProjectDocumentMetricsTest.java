@@ -0,0 +1,71 @@
+package com.opensource.projectu.diagnostics;
+
+import com.opensource.projectu.openapi.model.Project;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectDocumentMetricsTest {
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void sampleShouldRecordSizesAndTaskCountsComputedByDatabase() {
+        var projectDocumentMetrics = new ProjectDocumentMetrics(
+                meterRegistry, mongoTemplate, Duration.ofMinutes(5), 100, "embedded");
+
+        when(mongoTemplate.getCollectionName(Project.class))
+                .thenReturn("project");
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("project"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("size", 300).append("taskCount", 3),
+                        new Document("size", 500).append("taskCount", 0)), new Document()));
+
+        projectDocumentMetrics.sample();
+
+        var documentSizes = meterRegistry.get("projectu.project.document.size").summary();
+        assertThat(documentSizes.count()).isEqualTo(2);
+        assertThat(documentSizes.totalAmount()).isEqualTo(800);
+        assertThat(meterRegistry.get("projectu.project.tasks").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void sampleStagesShouldCountTasksOfTaskCollection() {
+        var embedded = new ProjectDocumentMetrics(meterRegistry, mongoTemplate, Duration.ofMinutes(5), 100, "embedded");
+        var collection = new ProjectDocumentMetrics(meterRegistry, mongoTemplate, Duration.ofMinutes(5), 100, "collection");
+
+        assertThat(stageNames(embedded)).containsExactly("$sample", "$project");
+        assertThat(stageNames(collection)).containsExactly("$sample", "$project", "$lookup", "$project");
+    }
+
+    private static List<String> stageNames(ProjectDocumentMetrics projectDocumentMetrics) {
+        return projectDocumentMetrics.sampleStages().stream()
+                .map(stage -> stage.toDocument(null).keySet().iterator().next())
+                .collect(Collectors.toList());
+    }
+}
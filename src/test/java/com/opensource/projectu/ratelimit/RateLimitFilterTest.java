@@ -0,0 +1,192 @@
+package com.opensource.projectu.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.opensource.projectu.configuration.WebConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    static final Map<EndpointClass, RateLimit> LIMITS = Map.of(
+            EndpointClass.LIST, new RateLimit(2, 1),
+            EndpointClass.READ, new RateLimit(5, 5),
+            EndpointClass.WRITE, new RateLimit(5, 5));
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    AtomicLong nanoTime = new AtomicLong();
+
+    RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitFilter = new RateLimitFilter(LIMITS, "X-Api-Key", 10, WebConfig.corsConfiguration(), objectMapper, meterRegistry, nanoTime::get);
+    }
+
+    @Test
+    void filterShouldRejectRequestsExceedingBudgetWithRetryAfter() throws Exception {
+        assertThat(send("GET", "/projects", "client").getStatus()).isEqualTo(200);
+        assertThat(send("GET", "/projects", "client").getStatus()).isEqualTo(200);
+
+        var response = send("GET", "/projects", "client");
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getContentAsString()).contains("\"httpStatus\":\"TOO_MANY_REQUESTS\"");
+        assertThat(meterRegistry.get("projectu.rate-limit.requests")
+                .tags("endpoint", "list", "outcome", "limited").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("projectu.rate-limit.requests")
+                .tags("endpoint", "list", "outcome", "allowed").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void filterShouldExposeRetryAfterToCrossOriginClients() throws Exception {
+        send("GET", "/projects", "client");
+        send("GET", "/projects", "client");
+        var request = request("GET", "/projects");
+        request.addHeader("X-Api-Key", "client");
+        request.addHeader("Origin", "https://app.example.com");
+        var response = new MockHttpServletResponse();
+
+        rateLimitFilter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Access-Control-Allow-Origin")).isEqualTo("*");
+        assertThat(response.getHeader("Access-Control-Expose-Headers")).contains("Retry-After");
+    }
+
+    @Test
+    void filterShouldNotLimitCorsPreflightRequests() throws Exception {
+        send("GET", "/projects", "client");
+        send("GET", "/projects", "client");
+        var request = request("OPTIONS", "/projects");
+        request.addHeader("X-Api-Key", "client");
+        request.addHeader("Origin", "https://app.example.com");
+        request.addHeader("Access-Control-Request-Method", "GET");
+        var response = new MockHttpServletResponse();
+
+        rateLimitFilter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(send("GET", "/projects", "client").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void filterShouldCountEndpointClassesAndClientsSeparately() throws Exception {
+        send("GET", "/projects", "client");
+        send("GET", "/projects", "client");
+
+        assertThat(send("GET", "/projects", "client").getStatus()).isEqualTo(429);
+        assertThat(send("GET", "/projects/2ebeba4e-67a0-44f9-baed-2ebf6c903648", "client").getStatus()).isEqualTo(200);
+        assertThat(send("GET", "/projects", "other").getStatus()).isEqualTo(200);
+        assertThat(send("GET", "/projects", null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void filterShouldAllowRequestsAgainAfterRefill() throws Exception {
+        send("GET", "/projects", "client");
+        send("GET", "/projects", "client");
+        assertThat(send("GET", "/projects", "client").getStatus()).isEqualTo(429);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(send("GET", "/projects", "client").getStatus()).isEqualTo(200);
+        assertThat(send("GET", "/projects", "client").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void filterShouldShedRequestsExceedingMaxConcurrentRequests() throws Exception {
+        rateLimitFilter = new RateLimitFilter(LIMITS, "X-Api-Key", 1, WebConfig.corsConfiguration(), objectMapper, meterRegistry, nanoTime::get);
+        var nestedResponse = new AtomicReference<MockHttpServletResponse>();
+        var inProgress = new AtomicLong();
+
+        var response = send("POST", "/projects", "client", new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                inProgress.set(rateLimitFilter.inProgressCount());
+                try {
+                    nestedResponse.set(send("POST", "/projects", "other"));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(inProgress.get()).isEqualTo(1);
+        assertThat(nestedResponse.get().getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertThat(nestedResponse.get().getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rateLimitFilter.inProgressCount()).isZero();
+        assertThat(meterRegistry.get("projectu.rate-limit.requests")
+                .tags("endpoint", "write", "outcome", "shed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void endpointClassShouldSeparateListsFromOtherReadsAndWrites() {
+        assertThat(EndpointClass.of(request("GET", "/projects"))).isEqualTo(EndpointClass.LIST);
+        assertThat(EndpointClass.of(request("GET", "/projects/stats"))).isEqualTo(EndpointClass.LIST);
+        assertThat(EndpointClass.of(request("GET", "/projects/changes"))).isEqualTo(EndpointClass.LIST);
+        assertThat(EndpointClass.of(request("GET", "/projects/2ebeba4e-67a0-44f9-baed-2ebf6c903648/tasks")))
+                .isEqualTo(EndpointClass.LIST);
+        assertThat(EndpointClass.of(request("GET", "/projects/2ebeba4e-67a0-44f9-baed-2ebf6c903648")))
+                .isEqualTo(EndpointClass.READ);
+        assertThat(EndpointClass.of(request("HEAD", "/tasks/2ebeba4e-67a0-44f9-baed-2ebf6c903648")))
+                .isEqualTo(EndpointClass.READ);
+        assertThat(EndpointClass.of(request("POST", "/projects"))).isEqualTo(EndpointClass.WRITE);
+        assertThat(EndpointClass.of(request("DELETE", "/tasks/2ebeba4e-67a0-44f9-baed-2ebf6c903648")))
+                .isEqualTo(EndpointClass.WRITE);
+    }
+
+    @Test
+    void endpointClassShouldClassifyListsLikeSpringMvcMatchesThem() {
+        assertThat(EndpointClass.of(request("GET", "/projects/"))).isEqualTo(EndpointClass.LIST);
+        assertThat(EndpointClass.of(request("GET", "/projects;x=1"))).isEqualTo(EndpointClass.LIST);
+        assertThat(EndpointClass.of(request("GET", "/projects/stats;x=1/"))).isEqualTo(EndpointClass.LIST);
+        assertThat(EndpointClass.of(request("GET", "//projects"))).isEqualTo(EndpointClass.LIST);
+        assertThat(EndpointClass.of(request("GET", "/%70rojects"))).isEqualTo(EndpointClass.LIST);
+        assertThat(EndpointClass.of(request("GET", "/projects/2ebeba4e-67a0-44f9-baed-2ebf6c903648/tasks/")))
+                .isEqualTo(EndpointClass.LIST);
+    }
+
+    @Test
+    void endpointClassShouldIgnoreContextPath() {
+        var request = request("GET", "/api/projects/");
+        request.setContextPath("/api");
+
+        assertThat(EndpointClass.of(request)).isEqualTo(EndpointClass.LIST);
+    }
+
+    private MockHttpServletResponse send(String method, String path, String apiKey) throws Exception {
+        return send(method, path, apiKey, new MockFilterChain());
+    }
+
+    private MockHttpServletResponse send(String method, String path, String apiKey, MockFilterChain filterChain)
+            throws Exception {
+        var request = request(method, path);
+        if(apiKey != null) {
+            request.addHeader("X-Api-Key", apiKey);
+        }
+        var response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request, response, filterChain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        return new MockHttpServletRequest(method, path);
+    }
+}
@@ -0,0 +1,195 @@
+package com.opensource.projectu.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.opensource.projectu.openapi.model.Project;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.opensource.projectu.repository.CollectionTaskStore.NEXT_POSITION;
+import static com.opensource.projectu.repository.CollectionTaskStore.POSITION;
+import static com.opensource.projectu.repository.CollectionTaskStore.PROJECT_ID;
+import static com.opensource.projectu.repository.CollectionTaskStore.TASK_COLLECTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static testutil.MockTestingUtil.buildMockProject;
+import static testutil.MockTestingUtil.buildMockTask;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionTaskStoreTest {
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    CollectionTaskStore taskStore;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        lenient().when(mongoTemplate.getCollectionName(Project.class))
+                .thenReturn("project");
+        taskStore = new CollectionTaskStore(mongoTemplate, false);
+    }
+
+    @Test
+    void toProjectDocumentShouldLeaveOutTasks() {
+        var project = buildMockProject();
+
+        var document = (Document) taskStore.toProjectDocument(project);
+
+        assertThat(document).doesNotContainKey("tasks");
+        assertThat(document.get(NEXT_POSITION)).isEqualTo(project.getTasks().size());
+        assertThat(document.get("_id")).isEqualTo(project.getId());
+    }
+
+    @Test
+    void toProjectPatchShouldLeaveOutTasks() {
+        var tasks = List.of(buildMockTask(), buildMockTask());
+
+        var update = taskStore.toProjectPatch(Map.of("title", "Patched", "tasks", tasks), 100L).getUpdateObject();
+
+        assertThat(update.get("$set", Document.class))
+                .containsEntry("title", "Patched")
+                .containsEntry(NEXT_POSITION, 2)
+                .doesNotContainKey("tasks");
+        assertThat(update.get("$unset", Document.class)).containsKey("tasks");
+    }
+
+    @Test
+    void saveTasksShouldUpsertTasksBeforeRemovingOthers() {
+        var projectId = UUID.randomUUID();
+        var tasks = List.of(buildMockTask(), buildMockTask());
+        var bulkOperations = mock(BulkOperations.class);
+
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TASK_COLLECTION))
+                .thenReturn(bulkOperations);
+
+        taskStore.saveTasks(projectId, tasks);
+
+        var inOrder = inOrder(bulkOperations, mongoTemplate);
+        inOrder.verify(bulkOperations, times(2)).replaceOne(any(Query.class), any(Document.class),
+                any(FindAndReplaceOptions.class));
+        inOrder.verify(bulkOperations).execute();
+        var removeQuery = ArgumentCaptor.forClass(Query.class);
+        inOrder.verify(mongoTemplate).remove(removeQuery.capture(), eq(TASK_COLLECTION));
+        assertThat(removeQuery.getValue().getQueryObject())
+                .containsEntry(PROJECT_ID, projectId)
+                .containsEntry("_id", new Document("$nin", List.of(tasks.get(0).getId(), tasks.get(1).getId())));
+    }
+
+    @Test
+    void pushTaskShouldInsertTaskAtReservedPosition() {
+        var projectId = UUID.randomUUID();
+        var task = buildMockTask();
+
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq("project")))
+                .thenReturn(new Document(NEXT_POSITION, 5));
+
+        taskStore.pushTask(projectId, task);
+
+        var inserted = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).insert(inserted.capture(), eq(TASK_COLLECTION));
+        assertThat(inserted.getValue())
+                .containsEntry("_id", task.getId())
+                .containsEntry(PROJECT_ID, projectId)
+                .containsEntry(POSITION, 4L);
+    }
+
+    @Test
+    void pushTaskShouldReturnEmptyWhenProjectDoesNotExist() {
+        assertThat(taskStore.pushTask(UUID.randomUUID(), buildMockTask())).isEmpty();
+        verify(mongoTemplate, never()).insert(any(Document.class), eq(TASK_COLLECTION));
+    }
+
+    @Test
+    void withTasksShouldAttachTasksToTheirProjects() {
+        var project = buildMockProject().tasks(null);
+        var otherProject = buildMockProject().id(UUID.randomUUID()).tasks(null);
+        var taskId = UUID.randomUUID();
+
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(TASK_COLLECTION)))
+                .thenReturn(List.of(new Document("_id", taskId)
+                        .append("title", "a title")
+                        .append("done", false)
+                        .append(PROJECT_ID, project.getId())
+                        .append(POSITION, 0L)));
+
+        taskStore.withTasks(List.of(project, otherProject));
+
+        assertThat(project.getTasks()).hasSize(1);
+        assertThat(project.getTasks().get(0).getId()).isEqualTo(taskId);
+        assertThat(otherProject.getTasks()).isEmpty();
+    }
+
+    @Test
+    void replaceTasksShouldReturnEmptyWhenTaskBelongsToAnotherProject() {
+        var task = buildMockTask();
+
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(TASK_COLLECTION)))
+                .thenReturn(List.of(new Document("_id", task.getId())
+                        .append(PROJECT_ID, UUID.randomUUID())
+                        .append(POSITION, 0L)));
+
+        assertThat(taskStore.replaceTasks(UUID.randomUUID(), List.of(task))).isEmpty();
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Project.class));
+    }
+
+    @Test
+    void replaceTaskShouldReturnEmptyWhenTaskWasRemovedMeanwhile() {
+        var projectId = UUID.randomUUID();
+        var task = buildMockTask();
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq(TASK_COLLECTION)))
+                .thenReturn(new Document("_id", task.getId())
+                        .append(PROJECT_ID, projectId)
+                        .append(POSITION, 0L));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Project.class)))
+                .thenReturn(buildMockProject().id(projectId));
+
+        assertThat(taskStore.replaceTask(task.getId(), null, task)).isEmpty();
+    }
+
+    @Test
+    void replaceTasksShouldReturnEmptyWhenTaskWasRemovedMeanwhile() {
+        var projectId = UUID.randomUUID();
+        var tasks = List.of(buildMockTask(), buildMockTask());
+        var bulkOperations = mock(BulkOperations.class);
+
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(TASK_COLLECTION)))
+                .thenReturn(List.of(
+                        new Document("_id", tasks.get(0).getId()).append(PROJECT_ID, projectId).append(POSITION, 0L),
+                        new Document("_id", tasks.get(1).getId()).append(PROJECT_ID, projectId).append(POSITION, 1L)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Project.class)))
+                .thenReturn(buildMockProject().id(projectId));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TASK_COLLECTION))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.execute())
+                .thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        assertThat(taskStore.replaceTasks(projectId, tasks)).isEmpty();
+    }
+}
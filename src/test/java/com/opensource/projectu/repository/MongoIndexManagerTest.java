@@ -0,0 +1,117 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.Tombstone;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexManagerTest {
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    @Mock
+    IndexOperations indexOperations;
+
+    MongoIndexManager indexManager;
+
+    @BeforeEach
+    void setup() {
+        indexManager = new MongoIndexManager(mongoTemplate);
+
+        when(mongoTemplate.getCollectionName(Project.class))
+                .thenReturn("project");
+        when(mongoTemplate.indexOps("project"))
+                .thenReturn(indexOperations);
+        when(mongoTemplate.getCollectionName(Tombstone.class))
+                .thenReturn("tombstone");
+        when(mongoTemplate.indexOps("tombstone"))
+                .thenReturn(indexOperations);
+        when(mongoTemplate.getCollectionName(IdempotencyRecord.class))
+                .thenReturn("idempotency");
+        when(mongoTemplate.indexOps("idempotency"))
+                .thenReturn(indexOperations);
+    }
+
+    @Test
+    void checkIndexesShouldReportPresentWhenEveryIndexExists() {
+        when(indexOperations.getIndexInfo())
+                .thenReturn(MongoIndexManager.REQUIRED_INDEXES.stream()
+                        .map(index -> new IndexInfo(Collections.emptyList(), index.getName(), false, false, ""))
+                        .collect(Collectors.toList()));
+
+        var report = indexManager.checkIndexes();
+
+        assertThat(report.getStatus()).isEqualTo(IndexStatus.State.PRESENT);
+        assertThat(report.getIndexes()).hasSameSizeAs(MongoIndexManager.REQUIRED_INDEXES);
+    }
+
+    @Test
+    void checkIndexesShouldReportMissingWhenTaskIdIndexDoesNotExist() {
+        when(indexOperations.getIndexInfo())
+                .thenReturn(List.of(new IndexInfo(Collections.emptyList(), "_id_", false, false, "")));
+
+        var report = indexManager.checkIndexes();
+
+        assertThat(report.getStatus()).isEqualTo(IndexStatus.State.MISSING);
+        assertThat(report.getIndexes())
+                .filteredOn(status -> status.getName().equals("tasks_id"))
+                .extracting(IndexStatus::getState)
+                .containsExactly(IndexStatus.State.MISSING);
+    }
+
+    @Test
+    void checkIndexesShouldReportUnknownWhenDatabaseIsNotReachable() {
+        when(indexOperations.getIndexInfo())
+                .thenThrow(new DataAccessResourceFailureException("timeout"));
+
+        var report = indexManager.checkIndexes();
+
+        assertThat(report.getStatus()).isEqualTo(IndexStatus.State.UNKNOWN);
+        assertThat(report.getIndexes())
+                .allMatch(status -> "timeout".equals(status.getError()));
+    }
+
+    @Test
+    void ensureIndexesShouldCreateEveryRequiredIndexWhenEnabled() {
+        ReflectionTestUtils.setField(indexManager, "createOnStartup", true);
+        when(mongoTemplate.indexOps(Project.class))
+                .thenReturn(indexOperations);
+        when(mongoTemplate.indexOps(Tombstone.class))
+                .thenReturn(indexOperations);
+        when(mongoTemplate.indexOps(IdempotencyRecord.class))
+                .thenReturn(indexOperations);
+
+        indexManager.ensureIndexes();
+
+        verify(indexOperations, times(MongoIndexManager.REQUIRED_INDEXES.size()))
+                .ensureIndex(any());
+    }
+
+    @Test
+    void ensureIndexesShouldOnlyCheckIndexesWhenDisabled() {
+        ReflectionTestUtils.setField(indexManager, "createOnStartup", false);
+
+        indexManager.ensureIndexes();
+
+        verify(indexOperations, never()).ensureIndex(any());
+        verify(indexOperations, atLeastOnce()).getIndexInfo();
+    }
+}
@@ -0,0 +1,136 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.ChangeType;
+import com.opensource.projectu.openapi.model.ProjectChange;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.opensource.projectu.repository.ProjectChangeStream.eventIdOf;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectChangeFeedTest {
+
+    final UUID projectId = UUID.randomUUID();
+    final UUID otherProjectId = UUID.randomUUID();
+
+    Sinks.Many<ProjectChangeEvent> changeStream;
+    Map<String, Sinks.Many<ProjectChangeEvent>> resumedStreams;
+    AtomicInteger openStreams;
+    ProjectChangeFeed changeFeed;
+
+    @BeforeEach
+    void setup() {
+        changeStream = Sinks.many().multicast().directBestEffort();
+        resumedStreams = new HashMap<>();
+        openStreams = new AtomicInteger();
+        changeFeed = new ProjectChangeFeed(this::openStream, 3);
+    }
+
+    @Test
+    void changesShouldOnlyEmitChangesOfGivenProjects() {
+        StepVerifier.create(changeFeed.changes(Set.of(projectId), null))
+                .then(() -> {
+                    emit(changeStream, "1", otherProjectId);
+                    emit(changeStream, "2", projectId);
+                })
+                .expectNextMatches(event -> event.getId().equals("2"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void changesShouldShareChangeStreamWhileSubscribed() {
+        var first = changeFeed.changes(Set.of(), null).subscribe();
+        var second = changeFeed.changes(Set.of(), null).subscribe();
+
+        assertThat(openStreams).hasValue(1);
+        assertThat(changeFeed.subscriberCount()).isEqualTo(2);
+
+        first.dispose();
+        second.dispose();
+
+        assertThat(openStreams).hasValue(0);
+        assertThat(changeFeed.subscriberCount()).isZero();
+    }
+
+    @Test
+    void changesShouldReplayRecentEventsAfterLastEventId() {
+        var running = changeFeed.changes(Set.of(), null).subscribe();
+        emit(changeStream, "1", projectId);
+        emit(changeStream, "2", projectId);
+        emit(changeStream, "3", projectId);
+
+        StepVerifier.create(changeFeed.changes(Set.of(), "1"))
+                .expectNextMatches(event -> event.getId().equals("2"))
+                .expectNextMatches(event -> event.getId().equals("3"))
+                .then(() -> emit(changeStream, "4", projectId))
+                .expectNextMatches(event -> event.getId().equals("4"))
+                .thenCancel()
+                .verify();
+        running.dispose();
+    }
+
+    @Test
+    void changesShouldCatchUpWithOwnChangeStreamWithoutDuplicates() {
+        var resumed = resumedStream("0");
+
+        StepVerifier.create(changeFeed.changes(Set.of(), "0"))
+                .then(() -> {
+                    emit(changeStream, "2", projectId);
+                    emit(resumed, "1", projectId);
+                    emit(resumed, "2", projectId);
+                    emit(changeStream, "3", projectId);
+                })
+                .expectNextMatches(event -> event.getId().equals("1"))
+                .expectNextMatches(event -> event.getId().equals("2"))
+                .expectNextMatches(event -> event.getId().equals("3"))
+                .thenCancel()
+                .verify();
+        assertThat(openStreams).hasValue(0);
+    }
+
+    @Test
+    void changesShouldEmitResetIfChangesCanNotBeCaughtUp() {
+        var resumed = resumedStream("0");
+
+        StepVerifier.create(changeFeed.changes(Set.of(), "0"))
+                .then(() -> {
+                    emit(changeStream, "5", projectId);
+                    resumed.tryEmitError(new IllegalStateException("resume token not found"));
+                })
+                .expectNextMatches(event -> event.getChange().getType() == ChangeType.RESET)
+                .expectNextMatches(event -> event.getId().equals("5"))
+                .thenCancel()
+                .verify();
+    }
+
+    private Flux<ProjectChangeEvent> openStream(BsonValue resumeToken) {
+        var stream = resumeToken == null ? changeStream : resumedStreams.get(eventIdOf(resumeToken));
+        return stream.asFlux()
+                .doOnSubscribe(subscription -> openStreams.incrementAndGet())
+                .doFinally(signal -> openStreams.decrementAndGet());
+    }
+
+    private Sinks.Many<ProjectChangeEvent> resumedStream(String eventId) {
+        Sinks.Many<ProjectChangeEvent> stream = Sinks.many().unicast().onBackpressureBuffer();
+        resumedStreams.put(eventId, stream);
+        return stream;
+    }
+
+    private static void emit(Sinks.Many<ProjectChangeEvent> stream, String id, UUID projectId) {
+        stream.tryEmitNext(new ProjectChangeEvent(id, ProjectChange.builder()
+                .type(ChangeType.UPDATED)
+                .projectId(projectId)
+                .build()));
+    }
+}
@@ -0,0 +1,66 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.ChangeType;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.opensource.projectu.repository.ProjectChangeStream.changeStreamOptions;
+import static com.opensource.projectu.repository.ProjectChangeStream.eventIdOf;
+import static com.opensource.projectu.repository.ProjectChangeStream.resumeTokenOf;
+import static com.opensource.projectu.repository.ProjectChangeStream.toProjectChange;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectChangeStreamTest {
+
+    @Test
+    void toProjectChangeShouldReduceChangedFieldsToTopLevelFields() {
+        var projectId = UUID.randomUUID();
+        var body = new Document("projectId", projectId)
+                .append("version", 4)
+                .append("modifiedAt", 1649693507720L)
+                .append("changedFields", List.of("title", "tasks.2.done", "tasks.3.title", "version", "modifiedAt"));
+
+        var change = toProjectChange("update", body);
+
+        assertThat(change.getType()).isEqualTo(ChangeType.UPDATED);
+        assertThat(change.getProjectId()).isEqualTo(projectId);
+        assertThat(change.getVersion()).isEqualTo(4L);
+        assertThat(change.getModifiedAt()).isEqualTo(1649693507720L);
+        assertThat(change.getChangedFields()).containsExactly("title", "tasks");
+    }
+
+    @Test
+    void toProjectChangeShouldReportTaskChangesOfCollectionStorage() {
+        var versionOnly = new Document("projectId", UUID.randomUUID())
+                .append("changedFields", List.of("version", "modifiedAt"));
+        var nextPosition = new Document("projectId", UUID.randomUUID())
+                .append("changedFields", List.of(CollectionTaskStore.NEXT_POSITION, "version", "modifiedAt"));
+
+        assertThat(toProjectChange("update", versionOnly).getChangedFields()).containsExactly("tasks");
+        assertThat(toProjectChange("update", nextPosition).getChangedFields()).containsExactly("tasks");
+    }
+
+    @Test
+    void toProjectChangeShouldMapOperationTypes() {
+        var body = new Document("projectId", UUID.randomUUID());
+
+        assertThat(toProjectChange("insert", body).getType()).isEqualTo(ChangeType.CREATED);
+        assertThat(toProjectChange("replace", body).getType()).isEqualTo(ChangeType.UPDATED);
+        assertThat(toProjectChange("replace", body).getChangedFields()).isEmpty();
+        assertThat(toProjectChange("delete", body).getType()).isEqualTo(ChangeType.DELETED);
+        assertThat(toProjectChange("delete", body).getVersion()).isNull();
+    }
+
+    @Test
+    void changeStreamOptionsShouldResumeAfterToken() {
+        var token = resumeTokenOf("8263A1");
+
+        assertThat(changeStreamOptions(null).getResumeToken()).isEmpty();
+        assertThat(changeStreamOptions(token).getResumeToken()).contains(token);
+        assertThat(changeStreamOptions(token).getFilter()).isPresent();
+        assertThat(eventIdOf(token)).isEqualTo("8263A1");
+    }
+}
@@ -0,0 +1,131 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Complexity;
+import com.opensource.projectu.openapi.model.State;
+import com.opensource.projectu.openapi.model.Tombstone;
+import com.opensource.projectu.openapi.model.TombstoneType;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static testutil.MockTestingUtil.buildMockTask;
+
+class ProjectQueriesTest {
+
+    @Test
+    void pageQueryShouldContainOnlyGivenFilters() {
+        var filter = ProjectFilter.builder()
+                .state(State.IN_PROGRESS)
+                .createdFrom(100L)
+                .createdTo(200L)
+                .minEstimatedDurationInHours(8)
+                .build();
+
+        var query = ProjectQueries.pageQuery(null, 10, Sort.Direction.ASC, filter, ProjectProjection.ALL);
+
+        assertThat(query.getQueryObject())
+                .containsEntry("state", State.IN_PROGRESS)
+                .containsEntry("createdAt", new Document("$gte", 100L).append("$lt", 200L))
+                .containsEntry("estimatedDurationInHours", new Document("$gte", 8))
+                .doesNotContainKey("complexity");
+    }
+
+    @Test
+    void pageQueryShouldCombineFiltersWithCursor() {
+        var filter = ProjectFilter.builder()
+                .complexity(Complexity.EASY)
+                .createdFrom(100L)
+                .build();
+
+        var query = ProjectQueries.pageQuery(new ProjectCursor(150L, UUID.randomUUID()), 10,
+                Sort.Direction.ASC, filter, ProjectProjection.ALL);
+
+        assertThat(query.getQueryObject())
+                .containsEntry("complexity", Complexity.EASY)
+                .containsEntry("createdAt", new Document("$gte", 100L))
+                .containsKey("$or");
+    }
+
+    @Test
+    void pageQueryShouldNotFilterWhenFilterIsEmpty() {
+        var query = ProjectQueries.pageQuery(null, 10, Sort.Direction.ASC, ProjectFilter.NONE, ProjectProjection.ALL);
+
+        assertThat(query.getQueryObject()).isEmpty();
+    }
+
+    @Test
+    void modifiedSinceQueryShouldSkipProjectsAtTokenTimeWhenTokenIsAtTombstone() {
+        var since = new SyncToken(150L, SyncToken.Source.TOMBSTONE, UUID.randomUUID());
+
+        var query = ProjectQueries.modifiedSinceQuery(since, 1000L, 10);
+
+        assertThat(query.getQueryObject())
+                .containsEntry("modifiedAt", new Document("$gt", 150L).append("$lt", 1000L));
+        assertThat(query.getSortObject()).containsKeys("modifiedAt", "id");
+    }
+
+    @Test
+    void tombstonesSinceQueryShouldReadEveryTombstoneAtTokenTimeWhenTokenIsAtProject() {
+        var since = new SyncToken(150L, SyncToken.Source.PROJECT, UUID.randomUUID());
+
+        var query = ProjectQueries.tombstonesSinceQuery(since, 1000L, 10);
+
+        assertThat(query.getQueryObject().get("$or", List.class))
+                .containsExactly(
+                        new Document("deletedAt", new Document("$gt", 150L).append("$lt", 1000L)),
+                        new Document("deletedAt", 150L));
+    }
+
+    @Test
+    void tombstoneUpdateShouldSetExpirationTime() {
+        var tombstone = Tombstone.builder()
+                .type(TombstoneType.PROJECT)
+                .id(UUID.randomUUID())
+                .deletedAt(1000L)
+                .build();
+
+        var update = ProjectQueries.tombstoneUpdate(tombstone).getUpdateObject();
+
+        assertThat(update.get("$set", Document.class).get(ProjectQueries.EXPIRE_AT, Date.class))
+                .isAfter(new Date(1000L));
+        assertThat(update.get("$unset", Document.class)).containsKey("projectId");
+    }
+
+    @Test
+    void patchUpdateShouldSetChangedAndUnsetRemovedFieldsOfMatchedTask() {
+        var changes = new LinkedHashMap<String, Object>();
+        changes.put("done", true);
+        changes.put("result", null);
+
+        var update = ProjectQueries.patchUpdate(ProjectQueries.MATCHED_TASK, changes, 100L).getUpdateObject();
+
+        assertThat(update.get("$set", Document.class))
+                .containsEntry("tasks.$.done", true)
+                .containsEntry("modifiedAt", 100L)
+                .hasSize(2);
+        assertThat(update.get("$unset", Document.class)).containsOnlyKeys("tasks.$.result");
+        assertThat(update.get("$inc", Document.class)).containsEntry("version", 1);
+    }
+
+    @Test
+    void replaceTasksUpdateShouldMatchEveryTaskWithArrayFilterOfItsOwn() {
+        var task = buildMockTask();
+        var otherTask = buildMockTask().id(UUID.randomUUID());
+
+        var update = ProjectQueries.replaceTasksUpdate(List.of(task, otherTask));
+
+        assertThat(update.getUpdateObject().get("$set", Document.class))
+                .containsEntry("tasks.$[t0]", task)
+                .containsEntry("tasks.$[t1]", otherTask);
+        assertThat(update.getUpdateObject().get("$inc", Document.class)).containsEntry("version", 1);
+        assertThat(update.getArrayFilters())
+                .extracting(filter -> filter.asDocument())
+                .containsExactly(new Document("t0._id", task.getId()), new Document("t1._id", otherTask.getId()));
+    }
+}
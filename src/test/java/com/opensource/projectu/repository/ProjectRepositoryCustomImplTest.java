@@ -0,0 +1,83 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.Project;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static testutil.MockTestingUtil.buildMockProject;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectRepositoryCustomImplTest {
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    @Mock
+    TaskStore taskStore;
+
+    ProjectRepository projectRepository;
+
+    @BeforeEach
+    void setup() {
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        projectRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(ProjectRepository.class,
+                RepositoryFragments.just(new ProjectRepositoryCustomImpl(mongoTemplate, taskStore)));
+    }
+
+    @Test
+    void findByIdShouldReadProjectWithTasksFromTaskStore() {
+        var project = buildMockProject();
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Project.class)))
+                .thenReturn(project);
+        when(taskStore.withTasks(List.of(project)))
+                .thenReturn(List.of(project));
+
+        assertThat(projectRepository.findById(project.getId())).contains(project);
+        verify(taskStore).withTasks(List.of(project));
+    }
+
+    @Test
+    void insertShouldSaveTasksInTaskStore() {
+        var project = buildMockProject();
+
+        when(mongoTemplate.getCollectionName(Project.class))
+                .thenReturn("project");
+        when(taskStore.toProjectDocument(project))
+                .thenReturn(project);
+
+        projectRepository.insert(project);
+
+        verify(mongoTemplate).insert(project, "project");
+        verify(taskStore).saveTasks(project.getId(), project.getTasks());
+    }
+
+    @Test
+    void removeByIdShouldNotRemoveTasksWhenProjectDoesNotExist() {
+        var project = buildMockProject();
+
+        when(mongoTemplate.remove(any(Query.class), eq(Project.class)))
+                .thenReturn(com.mongodb.client.result.DeleteResult.acknowledged(0));
+
+        assertThat(projectRepository.removeById(project.getId())).isZero();
+        verify(taskStore, never()).removeTasks(any());
+    }
+}
@@ -1,9 +1,11 @@
 package com.opensource.projectu.repository;
 
+import com.opensource.projectu.configuration.TaskStorageConfig;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -11,6 +13,7 @@ import static testutil.MockTestingUtil.buildMockProject;
 import static testutil.MockTestingUtil.buildMockProjects;
 
 @DataMongoTest
+@Import(TaskStorageConfig.class)
 class ProjectRepositoryTest {
 
     @Autowired
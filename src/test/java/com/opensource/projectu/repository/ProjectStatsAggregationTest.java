@@ -0,0 +1,82 @@
+package com.opensource.projectu.repository;
+
+import com.opensource.projectu.openapi.model.State;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectStatsAggregationTest {
+
+    @Test
+    void statsAggregationShouldMatchFilterBeforeFacets() {
+        var filter = ProjectFilter.builder()
+                .state(State.FINISHED)
+                .build();
+
+        var pipeline = ProjectStatsAggregation.statsAggregation(filter).toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertThat(pipeline).hasSize(2);
+        assertThat(pipeline.get(0)).containsKey("$match");
+        assertThat(pipeline.get(1).get("$facet", Document.class))
+                .containsKeys("totals", "byState", "byComplexity", "estimatedVsActual");
+    }
+
+    @Test
+    void statsAggregationShouldOnlyContainFacetsWhenFilterIsEmpty() {
+        var pipeline = ProjectStatsAggregation.statsAggregation(ProjectFilter.NONE).toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertThat(pipeline).hasSize(1);
+        assertThat(pipeline.get(0)).containsKey("$facet");
+    }
+
+    @Test
+    void toProjectStatsShouldMapFacets() {
+        var result = new Document()
+                .append("totals", List.of(new Document("_id", null)
+                        .append("projectCount", 3)
+                        .append("estimatedDurationInHours", 60)
+                        .append("averageEstimatedDurationInHours", 20.0)
+                        .append("taskCount", 8)
+                        .append("doneTaskCount", 2)
+                        .append("taskEstimatedDurationInHours", 45L)))
+                .append("byState", List.of(new Document("_id", "FINISHED")
+                        .append("projectCount", 1)
+                        .append("taskCount", 4)
+                        .append("doneTaskCount", 2)))
+                .append("byComplexity", List.of())
+                .append("estimatedVsActual", List.of(new Document("_id", null)
+                        .append("projectCount", 1)
+                        .append("estimatedDurationInHours", 10)
+                        .append("actualDurationInMillis", 9_000_000L)));
+
+        var stats = ProjectStatsAggregation.toProjectStats(result);
+
+        assertThat(stats.getProjectCount()).isEqualTo(3);
+        assertThat(stats.getTaskCompletionRatio()).isEqualTo(0.25);
+        assertThat(stats.getTaskEstimatedDurationInHours()).isEqualTo(45);
+        assertThat(stats.getByState()).hasSize(1);
+        assertThat(stats.getByState().get(0).getValue()).isEqualTo("FINISHED");
+        assertThat(stats.getByState().get(0).getEstimatedDurationInHours()).isZero();
+        assertThat(stats.getByComplexity()).isEmpty();
+        assertThat(stats.getEstimatedVsActual().getActualDurationInHours()).isEqualTo(2.5);
+    }
+
+    @Test
+    void toProjectStatsShouldReturnZerosWhenNoProjectMatched() {
+        var result = new Document()
+                .append("totals", List.of())
+                .append("byState", List.of())
+                .append("byComplexity", List.of())
+                .append("estimatedVsActual", List.of());
+
+        var stats = ProjectStatsAggregation.toProjectStats(result);
+
+        assertThat(stats.getProjectCount()).isZero();
+        assertThat(stats.getTaskCompletionRatio()).isZero();
+        assertThat(stats.getAverageEstimatedDurationInHours()).isNull();
+    }
+}
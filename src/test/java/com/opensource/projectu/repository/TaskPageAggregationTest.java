@@ -0,0 +1,55 @@
+package com.opensource.projectu.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskPageAggregationTest {
+
+    @Test
+    void taskPageAggregationShouldSliceFilteredTasks() {
+        var pipeline = TaskPageAggregation.taskPageAggregation(UUID.randomUUID(), 20, 10, true)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertThat(pipeline).hasSize(3);
+        assertThat(pipeline.get(1).get("$project", Document.class).get("tasks", Document.class))
+                .containsKey("$filter");
+        assertThat(pipeline.get(2).get("$project", Document.class).get("tasks", Document.class).get("$slice"))
+                .isEqualTo(List.of("$tasks", 20, 10));
+    }
+
+    @Test
+    void taskPageAggregationShouldNotFilterTasksWhenDoneIsNull() {
+        var pipeline = TaskPageAggregation.taskPageAggregation(UUID.randomUUID(), 0, 10, null)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertThat(pipeline.get(1).get("$project", Document.class).get("tasks", Document.class))
+                .containsOnlyKeys("$ifNull");
+    }
+
+    @Test
+    void toTaskPageShouldMapEmbeddedTaskIds() {
+        var taskId = UUID.randomUUID();
+        var result = new Document("_id", UUID.randomUUID())
+                .append("totalCount", 7)
+                .append("tasks", List.of(new Document("_id", taskId)
+                        .append("title", "a title")
+                        .append("done", true)));
+        var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+
+        var page = TaskPageAggregation.toTaskPage(result, converter);
+
+        assertThat(page.getTotalCount()).isEqualTo(7);
+        assertThat(page.getTasks()).hasSize(1);
+        assertThat(page.getTasks().get(0).getId()).isEqualTo(taskId);
+        assertThat(page.getTasks().get(0).getDone()).isTrue();
+    }
+}
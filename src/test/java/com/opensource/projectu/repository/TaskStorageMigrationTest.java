@@ -0,0 +1,119 @@
+package com.opensource.projectu.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.util.RandomIdGenerator;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.opensource.projectu.repository.CollectionTaskStore.NEXT_POSITION;
+import static com.opensource.projectu.repository.CollectionTaskStore.POSITION;
+import static com.opensource.projectu.repository.CollectionTaskStore.PROJECT_ID;
+import static com.opensource.projectu.repository.CollectionTaskStore.TASK_COLLECTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStorageMigrationTest {
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    TaskStorageMigration migration;
+
+    UUID projectId = UUID.randomUUID();
+    UUID firstTaskId = UUID.randomUUID();
+    UUID secondTaskId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        lenient().when(mongoTemplate.getCollectionName(Project.class))
+                .thenReturn("project");
+        when(mongoTemplate.findDistinct(any(Query.class), eq(PROJECT_ID), eq(TASK_COLLECTION), eq(UUID.class)))
+                .thenReturn(List.of(projectId));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(TASK_COLLECTION)))
+                .thenReturn(List.of(taskDocument(firstTaskId, 0), taskDocument(secondTaskId, 1)));
+        migration = new TaskStorageMigration(mongoTemplate, new RandomIdGenerator());
+    }
+
+    @Test
+    void migrateToEmbeddedShouldOnlyAddTasksWhichAreNotEmbeddedYet() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("project")))
+                .thenReturn(projectDocument(3L, secondTaskId));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("project")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertThat(migration.migrateToEmbedded()).isEqualTo(1);
+
+        var query = ArgumentCaptor.forClass(Query.class);
+        var update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq("project"));
+        assertThat(query.getValue().getQueryObject()).containsEntry("version", 3L);
+        var push = ((Update.Modifiers) update.getValue().getUpdateObject().get("$push", Document.class).get("tasks"))
+                .getModifiers().stream()
+                .collect(Collectors.toMap(Update.Modifier::getKey, Update.Modifier::getValue));
+        assertThat(push.get("$position")).isEqualTo(0);
+        assertThat((Object[]) push.get("$each"))
+                .extracting(task -> ((Document) task).get("_id"))
+                .containsExactly(firstTaskId);
+        assertThat((Document) ((Object[]) push.get("$each"))[0])
+                .doesNotContainKeys(PROJECT_ID, POSITION);
+        verify(mongoTemplate).remove(any(Query.class), eq(TASK_COLLECTION));
+    }
+
+    @Test
+    void migrateToEmbeddedShouldReadProjectAgainWhenItChangedMeanwhile() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("project")))
+                .thenReturn(projectDocument(3L), projectDocument(4L));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("project")))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+
+        assertThat(migration.migrateToEmbedded()).isEqualTo(1);
+
+        var query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateFirst(query.capture(), any(UpdateDefinition.class), eq("project"));
+        assertThat(query.getAllValues().get(1).getQueryObject()).containsEntry("version", 4L);
+    }
+
+    @Test
+    void migrateToEmbeddedShouldNotAddTasksWhenEmbeddedTasksWereOverwritten() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("project")))
+                .thenReturn(new Document("_id", projectId).append("version", 5L));
+
+        assertThat(migration.migrateToEmbedded()).isZero();
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), anyString());
+        verify(mongoTemplate).remove(any(Query.class), eq(TASK_COLLECTION));
+    }
+
+    private Document taskDocument(UUID taskId, long position) {
+        return new Document("_id", taskId)
+                .append("title", "task " + position)
+                .append(PROJECT_ID, projectId)
+                .append(POSITION, position);
+    }
+
+    private Document projectDocument(long version, UUID... embeddedTaskIds) {
+        return new Document("_id", projectId)
+                .append("version", version)
+                .append(NEXT_POSITION, 2)
+                .append("tasks", List.of(embeddedTaskIds).stream()
+                        .map(taskId -> new Document("_id", taskId))
+                        .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,270 @@
+package com.opensource.projectu.service;
+
+import com.opensource.projectu.cache.LocalInvalidationBus;
+import com.opensource.projectu.cache.ProjectCache;
+import com.opensource.projectu.openapi.model.BatchItemResult;
+import com.opensource.projectu.openapi.model.BatchItemStatus;
+import com.opensource.projectu.openapi.model.BatchOperationType;
+import com.opensource.projectu.openapi.model.ProjectBatchOperation;
+import com.opensource.projectu.openapi.model.ProjectBatchRequest;
+import com.opensource.projectu.openapi.model.TaskBatchOperation;
+import com.opensource.projectu.openapi.model.TaskBatchRequest;
+import com.opensource.projectu.repository.BulkWriteOutcome;
+import com.opensource.projectu.repository.ProjectRepository;
+import com.opensource.projectu.util.TimeOrderedIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static testutil.MockTestingUtil.buildMockProject;
+import static testutil.MockTestingUtil.buildMockTask;
+
+@ExtendWith(MockitoExtension.class)
+class BatchServiceTest {
+
+    @Mock
+    ProjectRepository projectRepository;
+
+    BatchService batchService;
+
+    @BeforeEach
+    void setup() {
+        batchService = new BatchService(
+                projectRepository,
+                new TimeOrderedIdGenerator(),
+                new ProjectCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry(), new LocalInvalidationBus()));
+    }
+
+    @Test
+    void batchProjectsShouldReturnResultOfEveryOperationWhenSuccess() {
+        var deletedId = UUID.randomUUID();
+        var request = ProjectBatchRequest.builder()
+                .operations(List.of(
+                        ProjectBatchOperation.builder().type(BatchOperationType.CREATE).project(buildMockProject()).build(),
+                        ProjectBatchOperation.builder().type(BatchOperationType.UPDATE).id(UUID.randomUUID()).project(buildMockProject()).build(),
+                        ProjectBatchOperation.builder().type(BatchOperationType.UPDATE).id(UUID.randomUUID()).project(buildMockProject()).build(),
+                        ProjectBatchOperation.builder().type(BatchOperationType.DELETE).id(deletedId).build()))
+                .build();
+
+        when(projectRepository.findExistingIds(Set.of(deletedId)))
+                .thenReturn(Set.of(deletedId));
+        when(projectRepository.bulkWriteProjects(anyList(), eq(true)))
+                .thenReturn(outcome(3, Set.of(2), Map.of()));
+
+        var results = batchService.batchProjects(request).getResults();
+
+        assertThat(results)
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.CREATED, BatchItemStatus.UPDATED, BatchItemStatus.CREATED, BatchItemStatus.DELETED);
+        assertThat(results.get(0).getId()).isNotNull();
+    }
+
+    @Test
+    void batchProjectsShouldExecuteRemainingOperationsWhenUnorderedAndProjectNotFound() {
+        var request = ProjectBatchRequest.builder()
+                .ordered(false)
+                .operations(List.of(
+                        ProjectBatchOperation.builder().type(BatchOperationType.DELETE).id(UUID.randomUUID()).build(),
+                        ProjectBatchOperation.builder().type(BatchOperationType.CREATE).project(buildMockProject()).build()))
+                .build();
+
+        when(projectRepository.findExistingIds(anyCollection()))
+                .thenReturn(Set.of());
+        when(projectRepository.bulkWriteProjects(argThat(writes -> writes.size() == 1), eq(false)))
+                .thenReturn(outcome(1, Set.of(), Map.of()));
+
+        var results = batchService.batchProjects(request).getResults();
+
+        assertThat(results)
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.NOT_FOUND, BatchItemStatus.CREATED);
+    }
+
+    @Test
+    void batchProjectsShouldSkipRemainingOperationsWhenOrderedAndOperationIsInvalid() {
+        var request = ProjectBatchRequest.builder()
+                .operations(List.of(
+                        ProjectBatchOperation.builder().type(BatchOperationType.CREATE).project(buildMockProject()).build(),
+                        ProjectBatchOperation.builder().type(BatchOperationType.UPDATE).project(buildMockProject()).build(),
+                        ProjectBatchOperation.builder().type(BatchOperationType.CREATE).project(buildMockProject()).build()))
+                .build();
+
+        when(projectRepository.bulkWriteProjects(argThat(writes -> writes.size() == 1), eq(true)))
+                .thenReturn(outcome(1, Set.of(), Map.of()));
+
+        var results = batchService.batchProjects(request).getResults();
+
+        assertThat(results)
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.CREATED, BatchItemStatus.INVALID, BatchItemStatus.SKIPPED);
+    }
+
+    @Test
+    void batchProjectsShouldRejectTasksOfOtherProjects() {
+        var updatedId = UUID.randomUUID();
+        var updatedProject = buildMockProject();
+        var foreignProject = buildMockProject();
+        var repeatedTaskProject = buildMockProject().tasks(List.of(updatedProject.getTasks().get(0)));
+        var request = ProjectBatchRequest.builder()
+                .ordered(false)
+                .operations(List.of(
+                        ProjectBatchOperation.builder().type(BatchOperationType.UPDATE).id(updatedId).project(updatedProject).build(),
+                        ProjectBatchOperation.builder().type(BatchOperationType.CREATE).project(foreignProject).build(),
+                        ProjectBatchOperation.builder().type(BatchOperationType.CREATE).project(repeatedTaskProject).build()))
+                .build();
+
+        when(projectRepository.findProjectIdsByTaskIds(anyCollection()))
+                .thenReturn(Map.of(
+                        updatedProject.getTasks().get(0).getId(), updatedId,
+                        foreignProject.getTasks().get(0).getId(), UUID.randomUUID()));
+        when(projectRepository.bulkWriteProjects(argThat(writes -> writes.size() == 1), eq(false)))
+                .thenReturn(outcome(1, Set.of(), Map.of()));
+
+        var results = batchService.batchProjects(request).getResults();
+
+        assertThat(results)
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.UPDATED, BatchItemStatus.INVALID, BatchItemStatus.INVALID);
+    }
+
+    @Test
+    void batchProjectsShouldReturnFailedAndSkipRemainingOperationsWhenOrderedAndWriteFails() {
+        var request = ProjectBatchRequest.builder()
+                .operations(List.of(
+                        ProjectBatchOperation.builder().type(BatchOperationType.CREATE).project(buildMockProject()).build(),
+                        ProjectBatchOperation.builder().type(BatchOperationType.CREATE).project(buildMockProject()).build()))
+                .build();
+
+        when(projectRepository.bulkWriteProjects(anyList(), anyBoolean()))
+                .thenReturn(outcome(0, Set.of(), Map.of(0, "duplicate key")));
+
+        var results = batchService.batchProjects(request).getResults();
+
+        assertThat(results)
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.FAILED, BatchItemStatus.SKIPPED);
+        assertThat(results.get(0).getMessage()).isEqualTo("duplicate key");
+    }
+
+    @Test
+    void batchTasksShouldReturnNotFoundWhenProjectOrTaskDoesNotExist() {
+        var existingTask = buildMockTask();
+        var existingProjectId = UUID.randomUUID();
+        var request = TaskBatchRequest.builder()
+                .ordered(false)
+                .operations(List.of(
+                        TaskBatchOperation.builder().type(BatchOperationType.CREATE).projectId(existingProjectId).task(buildMockTask()).build(),
+                        TaskBatchOperation.builder().type(BatchOperationType.CREATE).projectId(UUID.randomUUID()).task(buildMockTask()).build(),
+                        TaskBatchOperation.builder().type(BatchOperationType.UPDATE).id(existingTask.getId()).task(existingTask).build(),
+                        TaskBatchOperation.builder().type(BatchOperationType.DELETE).id(UUID.randomUUID()).build()))
+                .build();
+
+        when(projectRepository.findExistingIds(anyCollection()))
+                .thenReturn(Set.of(existingProjectId));
+        when(projectRepository.findProjectIdsByTaskIds(anyCollection()))
+                .thenReturn(Map.of(existingTask.getId(), existingProjectId));
+        when(projectRepository.bulkWriteTasks(argThat(writes -> writes.size() == 2), eq(false)))
+                .thenReturn(outcome(2, Set.of(), Map.of()));
+
+        var results = batchService.batchTasks(request).getResults();
+
+        assertThat(results)
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.CREATED, BatchItemStatus.NOT_FOUND, BatchItemStatus.UPDATED, BatchItemStatus.NOT_FOUND);
+    }
+
+    @Test
+    void batchTasksShouldRejectIdWrittenByEarlierOperation() {
+        var taskId = UUID.randomUUID();
+        var projectId = UUID.randomUUID();
+        var request = TaskBatchRequest.builder()
+                .ordered(false)
+                .operations(List.of(
+                        TaskBatchOperation.builder().type(BatchOperationType.DELETE).id(taskId).build(),
+                        TaskBatchOperation.builder().type(BatchOperationType.DELETE).id(taskId).build(),
+                        TaskBatchOperation.builder().type(BatchOperationType.UPDATE).id(taskId).task(buildMockTask()).build()))
+                .build();
+
+        when(projectRepository.findProjectIdsByTaskIds(anyCollection()))
+                .thenReturn(Map.of(taskId, projectId));
+        when(projectRepository.bulkWriteTasks(argThat(writes -> writes.size() == 1), eq(false)))
+                .thenReturn(BulkWriteOutcome.builder().upsertedIndexes(Set.of()).errors(Map.of()).deletedCount(1).build());
+
+        var results = batchService.batchTasks(request).getResults();
+
+        assertThat(results)
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.DELETED, BatchItemStatus.INVALID, BatchItemStatus.INVALID);
+    }
+
+    @Test
+    void batchTasksShouldReturnNotFoundWhenWritesMatchedNothing() {
+        var updatedTask = buildMockTask();
+        var deletedTaskId = UUID.randomUUID();
+        var projectId = UUID.randomUUID();
+        var request = TaskBatchRequest.builder()
+                .ordered(false)
+                .operations(List.of(
+                        TaskBatchOperation.builder().type(BatchOperationType.UPDATE).id(updatedTask.getId()).task(updatedTask).build(),
+                        TaskBatchOperation.builder().type(BatchOperationType.DELETE).id(deletedTaskId).build()))
+                .build();
+
+        when(projectRepository.findProjectIdsByTaskIds(anyCollection()))
+                .thenReturn(Map.of(updatedTask.getId(), projectId, deletedTaskId, projectId), Map.of());
+        when(projectRepository.bulkWriteTasks(anyList(), eq(false)))
+                .thenReturn(outcome(0, Set.of(), Map.of()));
+
+        var results = batchService.batchTasks(request).getResults();
+
+        assertThat(results)
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.NOT_FOUND, BatchItemStatus.NOT_FOUND);
+        verify(projectRepository).saveTombstones(List.of());
+    }
+
+    @Test
+    void batchTasksShouldGenerateIdForCreatedTask() {
+        var projectId = UUID.randomUUID();
+        var task = buildMockTask().id(null);
+        var request = TaskBatchRequest.builder()
+                .operations(List.of(
+                        TaskBatchOperation.builder().type(BatchOperationType.CREATE).projectId(projectId).task(task).build()))
+                .build();
+
+        when(projectRepository.findExistingIds(Set.of(projectId)))
+                .thenReturn(Set.of(projectId));
+        when(projectRepository.bulkWriteTasks(anyList(), eq(true)))
+                .thenReturn(outcome(1, Set.of(), Map.of()));
+
+        var results = batchService.batchTasks(request).getResults();
+
+        assertThat(task.getId()).isNotNull();
+        assertThat(results.get(0).getId()).isEqualTo(task.getId());
+        verify(projectRepository).bulkWriteTasks(argThat(writes -> writes.get(0).getProjectId().equals(projectId)), eq(true));
+    }
+
+    private static BulkWriteOutcome outcome(int matchedCount, Set<Integer> upsertedIndexes, Map<Integer, String> errors) {
+        return BulkWriteOutcome.builder()
+                .upsertedIndexes(upsertedIndexes)
+                .errors(errors)
+                .matchedCount(matchedCount)
+                .build();
+    }
+}
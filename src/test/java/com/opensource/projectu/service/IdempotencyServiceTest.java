@@ -0,0 +1,165 @@
+package com.opensource.projectu.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opensource.projectu.exception.IdempotencyKeyInUseException;
+import com.opensource.projectu.exception.IdempotencyKeyMismatchException;
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.exception.ProjectNotFoundException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.repository.IdempotencyRecord;
+import com.opensource.projectu.repository.IdempotencyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static testutil.MockTestingUtil.buildMockProject;
+import static testutil.MockTestingUtil.buildMockTask;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    IdempotencyRepository idempotencyRepository;
+
+    @Test
+    void executeShouldExecuteRequestEveryTimeWithoutKey() {
+        var executions = new AtomicInteger();
+
+        idempotencyService().execute(null, "createProject", buildMockProject(), () -> created(executions));
+        idempotencyService().execute(null, "createProject", buildMockProject(), () -> created(executions));
+
+        assertThat(executions).hasValue(2);
+        verifyNoInteractions(idempotencyRepository);
+    }
+
+    @Test
+    void executeShouldReturnResponseRecordedByOtherInstanceWithoutExecutingAgain() {
+        var request = buildMockProject();
+        var executions = new AtomicInteger();
+
+        when(idempotencyRepository.reserve(eq("key-1"), anyString(), any()))
+                .thenReturn(true, false);
+        var response = idempotencyService().execute("key-1", "createProject", request, () -> created(executions));
+        var record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRepository).complete(record.capture());
+        when(idempotencyRepository.findByKey("key-1"))
+                .thenReturn(Optional.of(record.getValue()));
+
+        var replayedResponse = idempotencyService().execute("key-1", "createProject", request, () -> created(executions));
+
+        assertThat(replayedResponse).isEqualTo(response);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void executeShouldRecordReducedResponseAndRebuildItOnRetry() {
+        var idempotencyService = idempotencyService();
+        var project = buildMockProject();
+        var currentProject = buildMockProject().id(project.getId()).title("current");
+        var task = buildMockTask();
+        var executions = new AtomicInteger();
+
+        when(idempotencyRepository.reserve(eq("key-1"), anyString(), any()))
+                .thenReturn(true);
+        var response = idempotencyService.execute("key-1", "createTask " + project.getId(), task,
+                () -> {
+                    executions.incrementAndGet();
+                    return project;
+                },
+                created -> Project.builder().id(created.getId()).build(),
+                recorded -> recorded.getId().equals(project.getId()) ? currentProject : null);
+        var replayedResponse = idempotencyService.execute("key-1", "createTask " + project.getId(), task,
+                () -> {
+                    executions.incrementAndGet();
+                    return project;
+                },
+                created -> Project.builder().id(created.getId()).build(),
+                recorded -> recorded.getId().equals(project.getId()) ? currentProject : null);
+
+        var record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRepository).complete(record.capture());
+        assertThat(record.getValue().getResponse()).isEqualTo(Project.builder().id(project.getId()).build());
+        assertThat(response).isSameAs(project);
+        assertThat(replayedResponse).isSameAs(currentProject);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void executeShouldThrowExceptionWhenKeyWasUsedForDifferentRequest() {
+        var idempotencyService = idempotencyService();
+        var projectId = UUID.randomUUID();
+
+        when(idempotencyRepository.reserve(eq("key-1"), anyString(), any()))
+                .thenReturn(true);
+        idempotencyService.execute("key-1", "createTask " + projectId, buildMockTask(), Project::new);
+
+        assertThatThrownBy(
+                () -> idempotencyService.execute("key-1", "createTask " + projectId, buildMockTask().title("other"), Project::new))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void executeShouldThrowExceptionWhenFirstRequestIsInProgress() {
+        var request = buildMockProject();
+
+        when(idempotencyRepository.reserve(eq("key-1"), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    when(idempotencyRepository.findByKey("key-1"))
+                            .thenReturn(Optional.of(IdempotencyRecord.builder()
+                                    .key("key-1")
+                                    .fingerprint(invocation.getArgument(1))
+                                    .build()));
+                    return false;
+                });
+
+        assertThatThrownBy(
+                () -> idempotencyService().execute("key-1", "createProject", request, Project::new))
+                .isInstanceOf(IdempotencyKeyInUseException.class);
+    }
+
+    @Test
+    void executeShouldReleaseKeyWhenRequestFails() {
+        var projectId = UUID.randomUUID();
+
+        when(idempotencyRepository.reserve(eq("key-1"), anyString(), any()))
+                .thenReturn(true);
+
+        assertThatThrownBy(
+                () -> idempotencyService().execute("key-1", "createTask " + projectId, buildMockTask(), () -> {
+                    throw new ProjectNotFoundException(projectId);
+                }))
+                .isInstanceOf(ProjectNotFoundException.class);
+        verify(idempotencyRepository).release("key-1");
+        verify(idempotencyRepository, never()).complete(any());
+    }
+
+    @Test
+    void executeShouldThrowExceptionWhenKeyIsTooLong() {
+        assertThatThrownBy(
+                () -> idempotencyService().execute("k".repeat(256), "createProject", buildMockProject(), Project::new))
+                .isInstanceOf(InvalidParameterException.class);
+    }
+
+    private IdempotencyService idempotencyService() {
+        return new IdempotencyService(idempotencyRepository, new ObjectMapper(), new SimpleMeterRegistry(),
+                Duration.ofHours(24), 100);
+    }
+
+    private static Project created(AtomicInteger executions) {
+        executions.incrementAndGet();
+        return buildMockProject();
+    }
+}
@@ -1,20 +1,53 @@
 package com.opensource.projectu.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opensource.projectu.cache.LocalInvalidationBus;
+import com.opensource.projectu.cache.ProjectCache;
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.exception.PreconditionFailedException;
 import com.opensource.projectu.exception.ProjectNotFoundException;
+import com.opensource.projectu.exception.SyncTokenExpiredException;
 import com.opensource.projectu.openapi.model.Complexity;
 import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.openapi.model.ProjectPatch;
 import com.opensource.projectu.openapi.model.State;
 import com.opensource.projectu.openapi.model.Task;
+import com.opensource.projectu.openapi.model.TombstoneType;
+import com.opensource.projectu.repository.IdempotencyRepository;
 import com.opensource.projectu.repository.ProjectRepository;
+import com.opensource.projectu.repository.ProjectFilter;
+import com.opensource.projectu.repository.ProjectProjection;
+import com.opensource.projectu.repository.SyncToken;
+import com.opensource.projectu.util.TimeOrderedIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
 import java.util.*;
+
+import static com.opensource.projectu.util.CursorUtil.decodeCursor;
+import static com.opensource.projectu.util.CursorUtil.encodeCursor;
+import static com.opensource.projectu.util.CursorUtil.decodeSyncToken;
+import static com.opensource.projectu.util.CursorUtil.encodeSyncToken;
+import static com.opensource.projectu.util.SyncUtil.projectTombstone;
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static com.opensource.projectu.util.ProjectPersistenceUtil.addTaskToProject;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
 import static testutil.MockTestingUtil.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,21 +56,30 @@ class ProjectServiceTest {
     @Mock
     ProjectRepository projectRepository;
 
+    @Mock
+    IdempotencyRepository idempotencyRepository;
+
     ProjectService projectService;
 
     @BeforeEach
     void setup() {
-        projectService = new ProjectService(projectRepository);
+        projectService = new ProjectService(
+                projectRepository,
+                new TimeOrderedIdGenerator(),
+                new ProjectCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry(), new LocalInvalidationBus()),
+                new IdempotencyService(idempotencyRepository, new ObjectMapper(), new SimpleMeterRegistry(),
+                        Duration.ofHours(24), 100),
+                Duration.ofSeconds(1));
     }
 
     @Test
     void getAllProjectsWithSuccess() {
         var mockProjects = buildMockProjects();
 
-        when(projectRepository.findAll())
+        when(projectRepository.findPage(null, 101, Sort.Direction.ASC, ProjectFilter.NONE, ProjectProjection.ALL))
                 .thenReturn(mockProjects);
 
-        var returnedProjects = projectService.getAllProjects();
+        var returnedProjects = projectService.getAllProjects(100, null, "asc", ProjectFilter.NONE, null, null).getProjects();
         int randomIndex = generateRandomInteger(mockProjects.size()-1);
         var returnedProject = returnedProjects.get(randomIndex);
         var mockProject = mockProjects.get(randomIndex);
@@ -46,6 +88,130 @@ class ProjectServiceTest {
         assertThat(returnedProject).isEqualTo(mockProject);
     }
 
+    @Test
+    void getAllProjectsShouldReturnNoCursorWhenLastPage() {
+        var mockProjects = buildMockProjects();
+
+        when(projectRepository.findPage(null, mockProjects.size() + 1, Sort.Direction.ASC, ProjectFilter.NONE, ProjectProjection.ALL))
+                .thenReturn(mockProjects);
+
+        var returnedPage = projectService.getAllProjects(mockProjects.size(), null, "asc", ProjectFilter.NONE, null, null);
+
+        assertThat(returnedPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getAllProjectsShouldReturnCursorOfLastProjectWhenMoreProjectsExist() {
+        var mockProjects = buildMockProjects();
+        var limit = mockProjects.size() - 1;
+
+        when(projectRepository.findPage(null, limit + 1, Sort.Direction.DESC, ProjectFilter.NONE, ProjectProjection.ALL))
+                .thenReturn(mockProjects);
+
+        var returnedPage = projectService.getAllProjects(limit, null, "desc", ProjectFilter.NONE, null, null);
+
+        assertThat(returnedPage.getProjects()).hasSize(limit);
+        assertThat(decodeCursor(returnedPage.getNextCursor()).getId())
+                .isEqualTo(mockProjects.get(limit - 1).getId());
+    }
+
+    @Test
+    void getAllProjectsShouldContinueAfterGivenCursor() {
+        var mockProjects = buildMockProjects();
+        var cursor = encodeCursor(mockProjects.get(0));
+
+        when(projectRepository.findPage(decodeCursor(cursor), 101, Sort.Direction.ASC, ProjectFilter.NONE, ProjectProjection.ALL))
+                .thenReturn(mockProjects.subList(1, mockProjects.size()));
+
+        var returnedProjects = projectService.getAllProjects(100, cursor, "asc", ProjectFilter.NONE, null, null).getProjects();
+
+        assertThat(returnedProjects).hasSize(mockProjects.size() - 1);
+    }
+
+    @Test
+    void getAllProjectsShouldThrowExceptionWhenOrderIsInvalid() {
+        assertThatThrownBy(
+                () -> projectService.getAllProjects(100, null, "sideways", ProjectFilter.NONE, null, null))
+                .isInstanceOf(InvalidParameterException.class);
+    }
+
+    @Test
+    void getAllProjectsShouldReadOnlySelectedFieldsAndRemoveUnselectedKeys() {
+        var mockProjects = buildMockProjects();
+        var projection = new ProjectProjection(Set.of("title", "state"), Set.of());
+        var limit = mockProjects.size() - 1;
+
+        when(projectRepository.findPage(null, limit + 1, Sort.Direction.ASC, ProjectFilter.NONE, projection))
+                .thenReturn(mockProjects);
+
+        var returnedPage = projectService.getAllProjects(limit, null, "asc", ProjectFilter.NONE, List.of("title", "state"), null);
+
+        assertThat(returnedPage.getNextCursor()).isNotNull();
+        assertThat(returnedPage.getProjects())
+                .allSatisfy(project -> {
+                    assertThat(project.getId()).isNull();
+                    assertThat(project.getCreatedAt()).isNull();
+                });
+    }
+
+    @Test
+    void getAllProjectsShouldPassFilterToRepository() {
+        var mockProjects = buildMockProjects();
+        var filter = ProjectFilter.builder()
+                .state(State.IN_PROGRESS)
+                .complexity(Complexity.DIFFICULT)
+                .build();
+
+        when(projectRepository.findPage(null, 101, Sort.Direction.ASC, filter, ProjectProjection.ALL))
+                .thenReturn(mockProjects);
+
+        var returnedProjects = projectService.getAllProjects(100, null, "asc", filter, null, null).getProjects();
+
+        assertThat(returnedProjects).isEqualTo(mockProjects);
+    }
+
+    @Test
+    void getAllProjectsShouldThrowExceptionWhenDurationRangeIsEmpty() {
+        var filter = ProjectFilter.builder()
+                .minEstimatedDurationInHours(10)
+                .maxEstimatedDurationInHours(5)
+                .build();
+
+        assertThatThrownBy(
+                () -> projectService.getAllProjects(100, null, "asc", filter, null, null))
+                .isInstanceOf(InvalidParameterException.class);
+        verifyNoInteractions(projectRepository);
+    }
+
+    @Test
+    void getProjectStatsShouldThrowExceptionWhenCreationTimeRangeIsEmpty() {
+        var filter = ProjectFilter.builder()
+                .createdFrom(200L)
+                .createdTo(100L)
+                .build();
+
+        assertThatThrownBy(
+                () -> projectService.getProjectStats(filter))
+                .isInstanceOf(InvalidParameterException.class);
+        verifyNoInteractions(projectRepository);
+    }
+
+    @Test
+    void getProjectByIdShouldReadProjectionFromRepositoryWhenFieldsAreExcluded() {
+        var mockProject = buildMockProject().tasks(null);
+        var projection = new ProjectProjection(Set.of(), Set.of("tasks"));
+
+        when(projectRepository.findProjectById(mockProject.getId(), projection))
+                .thenReturn(Optional.of(mockProject));
+
+        projectService.getProjectById(mockProject.getId(), null, List.of("tasks"), null);
+        var returnedProject = projectService.getProjectById(mockProject.getId(), null, List.of("tasks"), null).getBody();
+
+        assertThat(returnedProject).isEqualTo(mockProject);
+        verify(projectRepository, times(2)).findProjectById(mockProject.getId(), projection);
+        verify(projectRepository, never()).findById(mockProject.getId());
+    }
+
     @Test
     void getProjectByIdShouldReturnProjectWhenProjectFound() {
         var mockProject = buildMockProject();
@@ -53,9 +219,68 @@ class ProjectServiceTest {
         when(projectRepository.findById(mockProject.getId()))
                 .thenReturn(Optional.of(mockProject));
 
-        var returnedProject = projectService.getProjectById(mockProject.getId());
+        var response = projectService.getProjectById(mockProject.getId(), null, null, null);
+
+        assertThat(response.getBody()).isEqualTo(mockProject);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"0\"");
+    }
+
+    @Test
+    void getProjectByIdShouldReturnNotModifiedWhenIfNoneMatchMatchesVersion() {
+        var mockProject = buildMockProject().version(5L);
+
+        when(projectRepository.findById(mockProject.getId()))
+                .thenReturn(Optional.of(mockProject));
+
+        var response = projectService.getProjectById(mockProject.getId(), null, null, "W/\"4\", \"5\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"5\"");
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void getProjectByIdShouldReturnDifferentETagWhenProjected() {
+        var mockProject = buildMockProject().tasks(null).version(5L);
+
+        when(projectRepository.findProjectById(eq(mockProject.getId()), any()))
+                .thenReturn(Optional.of(mockProject));
+
+        var response = projectService.getProjectById(mockProject.getId(), null, List.of("tasks"), "\"5\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo("\"5\"").startsWith("\"5-");
+    }
+
+    @Test
+    void getProjectByIdShouldReadProjectFromCacheWhenProjectWasReadBefore() {
+        var mockProject = buildMockProject();
+
+        when(projectRepository.findById(mockProject.getId()))
+                .thenReturn(Optional.of(mockProject));
+
+        projectService.getProjectById(mockProject.getId(), null, null, null);
+        var returnedProject = projectService.getProjectById(mockProject.getId(), null, null, null).getBody();
 
         assertThat(returnedProject).isEqualTo(mockProject);
+        verify(projectRepository, times(1)).findById(mockProject.getId());
+    }
+
+    @Test
+    void getProjectByIdShouldReadProjectFromRepositoryWhenProjectWasUpdated() {
+        var mockProject = buildMockProject().version(1L);
+        var storedProject = buildMockProject().id(mockProject.getId()).version(1L);
+
+        when(projectRepository.findById(mockProject.getId()))
+                .thenReturn(Optional.of(storedProject));
+        when(projectRepository.upsertProject(eq(mockProject.getId()), eq(mockProject), anyLong()))
+                .thenReturn(Optional.of(storedProject));
+
+        projectService.getProjectById(mockProject.getId(), null, null, null);
+        projectService.updateProject(mockProject.getId(), mockProject, null);
+        projectService.getProjectById(mockProject.getId(), null, null, null);
+
+        verify(projectRepository, times(2)).findById(mockProject.getId());
     }
 
     @Test
@@ -66,7 +291,7 @@ class ProjectServiceTest {
                 .thenReturn(Optional.empty());
 
         assertThatThrownBy(
-                () -> projectService.getProjectById(id))
+                () -> projectService.getProjectById(id, null, null, null))
                 .isInstanceOf(ProjectNotFoundException.class);
     }
 
@@ -74,97 +299,326 @@ class ProjectServiceTest {
     void createProjectShouldReturnProjectWhenSuccessful() {
         var mockProject = buildMockProject();
 
-        when(projectRepository.save(mockProject))
+        when(projectRepository.insert(mockProject))
                 .thenReturn(mockProject);
 
-        var returnedProject = projectService.createProject(mockProject);
+        var returnedProject = projectService.createProject(mockProject, null);
 
         assertThat(returnedProject).isEqualTo(mockProject);
+        assertThat(returnedProject.getVersion()).isEqualTo(1L);
+        assertThat(returnedProject.getModifiedAt()).isEqualTo(returnedProject.getCreatedAt());
     }
 
     @Test
-    void updateProjectShouldReturnProjectWhenProjectFound() {
+    void createProjectShouldNotInsertAgainWhenRetriedWithSameIdempotencyKey() {
         var mockProject = buildMockProject();
 
-        when(projectRepository.findById(mockProject.getId()))
-                .thenReturn(Optional.of(mockProject));
+        when(idempotencyRepository.reserve(eq("key-1"), anyString(), any()))
+                .thenReturn(true);
+        when(projectRepository.insert(any(Project.class)))
+                .thenReturn(mockProject);
+
+        var returnedProject = projectService.createProject(buildNewProject(), "key-1");
+        var retriedProject = projectService.createProject(buildNewProject(), "key-1");
+
+        assertThat(retriedProject).isSameAs(returnedProject);
+        verify(projectRepository, times(1)).insert(any(Project.class));
+    }
+
+    @Test
+    void createProjectShouldRetryWithNewIdWhenIdAlreadyExists() {
+        var mockProject = buildMockProject();
+        var usedIds = new ArrayList<UUID>();
 
-        when(projectRepository.save(mockProject))
+        when(projectRepository.insert(mockProject))
+                .thenAnswer(invocation -> {
+                    usedIds.add(mockProject.getId());
+                    throw new DuplicateKeyException("duplicate id");
+                })
                 .thenReturn(mockProject);
 
-        var returnedProject = projectService.updateProject(mockProject.getId(), mockProject).getBody();
+        var returnedProject = projectService.createProject(mockProject, null);
 
-        assertThat(returnedProject).isEqualTo(mockProject);
+        assertThat(returnedProject.getId()).isNotIn(usedIds);
     }
 
     @Test
-    void updateProjectShouldReturnProjectWhenProjectNotFound() {
+    void createProjectShouldThrowExceptionWhenEveryGeneratedIdAlreadyExists() {
         var mockProject = buildMockProject();
 
-        when(projectRepository.findById(mockProject.getId()))
+        when(projectRepository.insert(mockProject))
+                .thenThrow(new DuplicateKeyException("duplicate id"));
+
+        assertThatThrownBy(
+                () -> projectService.createProject(mockProject, null))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void updateProjectShouldReturnProjectWith200WhenProjectFound() {
+        var mockProject = buildMockProject();
+        var previousProject = Project.builder()
+                .id(mockProject.getId())
+                .createdAt(1508484583267L)
+                .version(3L)
+                .build();
+
+        when(projectRepository.upsertProject(eq(mockProject.getId()), eq(mockProject), anyLong()))
+                .thenReturn(Optional.of(previousProject));
+
+        var response = projectService.updateProject(mockProject.getId(), mockProject, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(mockProject);
+        assertThat(response.getBody().getCreatedAt()).isEqualTo(previousProject.getCreatedAt());
+        assertThat(response.getBody().getVersion()).isEqualTo(4L);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
+    @Test
+    void updateProjectShouldThrowExceptionWhenTaskBelongsToOtherProject() {
+        var mockProject = buildMockProject();
+        var taskId = mockProject.getTasks().get(0).getId();
+
+        when(projectRepository.findProjectIdsByTaskIds(anyCollection()))
+                .thenReturn(Map.of(taskId, UUID.randomUUID()));
+
+        assertThatThrownBy(
+                () -> projectService.updateProject(mockProject.getId(), mockProject, null))
+                .isInstanceOf(InvalidParameterException.class);
+        verify(projectRepository, never()).upsertProject(any(), any(), anyLong());
+    }
+
+    @Test
+    void updateProjectShouldReturnProjectWith201WhenProjectNotFound() {
+        var mockProject = buildMockProject();
+
+        when(projectRepository.upsertProject(eq(mockProject.getId()), eq(mockProject), anyLong()))
                 .thenReturn(Optional.empty());
 
-        when(projectRepository.save(mockProject))
-                .thenReturn(mockProject);
+        var response = projectService.updateProject(mockProject.getId(), mockProject, null);
 
-        var returnedProject = projectService.updateProject(mockProject.getId(), mockProject).getBody();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).isEqualTo(mockProject);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"1\"");
+    }
 
-        assertThat(returnedProject).isEqualTo(mockProject);
+    @Test
+    void updateProjectShouldReplaceMatchingVersionWhenIfMatchIsGiven() {
+        var mockProject = buildMockProject();
+        var previousProject = Project.builder()
+                .id(mockProject.getId())
+                .createdAt(1508484583267L)
+                .version(2L)
+                .build();
+
+        when(projectRepository.replaceProject(eq(mockProject.getId()), eq(2L), eq(mockProject), anyLong()))
+                .thenReturn(Optional.of(previousProject));
+
+        var response = projectService.updateProject(mockProject.getId(), mockProject, "\"2\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"3\"");
+        verify(projectRepository, never()).upsertProject(any(), any(), anyLong());
+    }
+
+    @Test
+    void updateProjectShouldThrowExceptionWhenIfMatchDoesNotMatchVersion() {
+        var mockProject = buildMockProject();
+
+        when(projectRepository.replaceProject(eq(mockProject.getId()), eq(2L), eq(mockProject), anyLong()))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(
+                () -> projectService.updateProject(mockProject.getId(), mockProject, "\"2\""))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    void updateProjectShouldReturnProjectWithIdOfPath() {
+        var id = UUID.randomUUID();
+        var mockProject = buildMockProject();
+
+        when(projectRepository.upsertProject(eq(id), eq(mockProject), anyLong()))
+                .thenReturn(Optional.empty());
+
+        var returnedProject = projectService.updateProject(id, mockProject, null).getBody();
+
+        assertThat(returnedProject.getId()).isEqualTo(id);
+    }
+
+    @Test
+    void patchProjectShouldWriteOnlyChangedFields() {
+        var mockProject = buildMockProject().version(5L);
+        var patch = ProjectPatch.builder()
+                .state(JsonNullable.of(State.FINISHED))
+                .actualResult(JsonNullable.of(null))
+                .build();
+        var changes = new HashMap<String, Object>();
+        changes.put("state", State.FINISHED);
+        changes.put("actualResult", null);
+
+        when(projectRepository.patchProject(eq(mockProject.getId()), isNull(), eq(changes), anyLong()))
+                .thenReturn(Optional.of(mockProject));
+
+        var response = projectService.patchProject(mockProject.getId(), patch, null);
+
+        assertThat(response.getBody()).isEqualTo(mockProject);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"5\"");
+    }
+
+    @Test
+    void patchProjectShouldThrowExceptionWhenIfMatchDoesNotMatchVersion() {
+        var id = UUID.randomUUID();
+        var patch = ProjectPatch.builder()
+                .title(JsonNullable.of("Patched"))
+                .build();
+
+        when(projectRepository.patchProject(eq(id), eq(2L), anyMap(), anyLong()))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(
+                () -> projectService.patchProject(id, patch, "\"2\""))
+                .isInstanceOf(PreconditionFailedException.class);
     }
 
     @Test
     void deleteProjectShouldNotThrowExceptionWhenProjectFound() {
         var id = UUID.randomUUID();
 
-        when(projectRepository.existsById(id))
-                .thenReturn(true);
-        
+        when(projectRepository.removeById(id))
+                .thenReturn(1L);
+
         assertThatCode(
                 () -> projectService.deleteProject(id))
                 .doesNotThrowAnyException();
+        verify(projectRepository).saveTombstones(argThat(tombstones -> tombstones.size() == 1
+                && tombstones.get(0).getId().equals(id)
+                && tombstones.get(0).getType() == TombstoneType.PROJECT));
     }
 
     @Test
     void deleteProjectShouldThrowExceptionWhenProjectNotFound() {
         var id = UUID.randomUUID();
 
-        when(projectRepository.existsById(id))
-                .thenReturn(false);
+        when(projectRepository.removeById(id))
+                .thenReturn(0L);
 
         assertThatThrownBy(
                 () -> projectService.deleteProject(id))
                 .isInstanceOf(ProjectNotFoundException.class);
+        verify(projectRepository, never()).saveTombstones(any());
+    }
+
+    @Test
+    void getProjectChangesShouldReturnEveryProjectWithoutTombstonesWhenNoToken() {
+        var mockProject = buildMockProject();
+
+        when(projectRepository.findModifiedSince(isNull(), anyLong(), eq(11)))
+                .thenReturn(List.of(mockProject));
+
+        var returnedDelta = projectService.getProjectChanges(null, 10);
+
+        assertThat(returnedDelta.getProjects()).containsExactly(mockProject);
+        assertThat(returnedDelta.getDeleted()).isEmpty();
+        assertThat(returnedDelta.getHasMore()).isFalse();
+        verify(projectRepository, never()).findTombstonesSince(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getProjectChangesShouldReadTombstonesSinceToken() {
+        var since = encodeSyncToken(SyncToken.at(System.currentTimeMillis() - 60_000));
+
+        when(projectRepository.findModifiedSince(any(SyncToken.class), anyLong(), eq(11)))
+                .thenReturn(List.of());
+        when(projectRepository.findTombstonesSince(any(SyncToken.class), anyLong(), eq(11)))
+                .thenReturn(List.of(projectTombstone(UUID.randomUUID(), System.currentTimeMillis() - 30_000)));
+
+        var returnedDelta = projectService.getProjectChanges(since, 10);
+
+        assertThat(returnedDelta.getDeleted()).hasSize(1);
+        assertThat(returnedDelta.getNextToken()).isNotEqualTo(since);
+    }
+
+    @Test
+    void getProjectChangesShouldLeaveChangesWithinSettleTimeForNextSync() {
+        var settledService = new ProjectService(projectRepository, new TimeOrderedIdGenerator(),
+                new ProjectCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry(), new LocalInvalidationBus()),
+                new IdempotencyService(idempotencyRepository, new ObjectMapper(), new SimpleMeterRegistry(),
+                        Duration.ofHours(24), 100),
+                Duration.ofSeconds(30));
+        var before = System.currentTimeMillis();
+
+        when(projectRepository.findModifiedSince(isNull(), anyLong(), eq(11)))
+                .thenReturn(List.of());
+
+        var returnedDelta = settledService.getProjectChanges(null, 10);
+
+        var until = decodeSyncToken(returnedDelta.getNextToken()).getTimestamp() + 1;
+        assertThat(until).isBetween(before - 30_000, System.currentTimeMillis() - 30_000);
+    }
+
+    @Test
+    void getProjectChangesShouldThrowExceptionWhenTokenIsExpired() {
+        var since = encodeSyncToken(SyncToken.at(System.currentTimeMillis() - Duration.ofDays(31).toMillis()));
+
+        assertThatThrownBy(
+                () -> projectService.getProjectChanges(since, 10))
+                .isInstanceOf(SyncTokenExpiredException.class);
+        verifyNoInteractions(projectRepository);
+    }
+
+    @Test
+    void getProjectTasksShouldThrowExceptionWhenProjectNotFound() {
+        var mockId = UUID.randomUUID();
+
+        when(projectRepository.findTaskPage(mockId, 0, 10, true))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(
+                () -> projectService.getProjectTasks(mockId, 0, 10, true))
+                .isInstanceOf(ProjectNotFoundException.class);
     }
 
     @Test
     void createTaskShouldReturnProjectWithNewTaskWhenSuccess() {
         var mockProject = buildMockProject();
         var mockTask = buildMockTask();
-        var originalTaskCount = mockProject.getTasks().size();
 
-        when(projectRepository.findById(mockProject.getId()))
-                .thenReturn(Optional.of(mockProject));
-
-        when(projectRepository.save(mockProject))
-                .thenReturn(mockProject);
+        when(projectRepository.pushTask(mockProject.getId(), mockTask))
+                .thenReturn(Optional.of(addTaskToProject(mockProject, mockTask)));
 
-        var returnedProject = projectService.createTask(mockProject.getId(), mockTask);
+        var returnedProject = projectService.createTask(mockProject.getId(), mockTask, null);
 
         assertThat(returnedProject.getTasks())
-                .hasSize(originalTaskCount + 1)
                 .contains(mockTask);
     }
 
     @Test
-    void createTaskShouldReturnProjectIncludingNewTaskWithGeneratedUniqueId() {
-        var mockProject = Project.builder()
-                .id(UUID.randomUUID())
-                .title("title1")
-                .tasks(Collections.emptyList())
-                .state(State.INITIATED)
-                .complexity(Complexity.EASY)
-                .build();
+    void createTaskShouldReadProjectAgainWhenRetriedWithSameIdempotencyKey() {
+        var mockProject = buildMockProject();
+        var mockTask = buildMockTask();
+        var storedProject = addTaskToProject(buildMockProject().id(mockProject.getId()), mockTask);
+
+        when(idempotencyRepository.reserve(eq("key-1"), anyString(), any()))
+                .thenReturn(true);
+        when(projectRepository.pushTask(eq(mockProject.getId()), any(Task.class)))
+                .thenReturn(Optional.of(addTaskToProject(mockProject, mockTask)));
+        when(projectRepository.findById(mockProject.getId()))
+                .thenReturn(Optional.of(storedProject));
+
+        projectService.createTask(mockProject.getId(), buildNewTask(), "key-1");
+        var retriedProject = projectService.createTask(mockProject.getId(), buildNewTask(), "key-1");
 
+        assertThat(retriedProject).isEqualTo(storedProject);
+        verify(projectRepository, times(1)).pushTask(any(), any());
+        verify(idempotencyRepository).complete(argThat(record ->
+                record.getResponse().equals(Project.builder().id(mockProject.getId()).build())));
+    }
+
+    @Test
+    void createTaskShouldPushNewTaskWithGeneratedUniqueId() {
+        var mockProject = buildMockProject();
         var mockTaskWithoutId = Task.builder()
                 .title("new task")
                 .description("task description new")
@@ -172,16 +626,30 @@ class ProjectServiceTest {
                 .estimatedDurationInHours(30)
                 .build();
 
-        when(projectRepository.findById(mockProject.getId()))
+        when(projectRepository.pushTask(mockProject.getId(), mockTaskWithoutId))
                 .thenReturn(Optional.of(mockProject));
 
-        when(projectRepository.save(mockProject))
-                .thenReturn(mockProject);
+        projectService.createTask(mockProject.getId(), mockTaskWithoutId, null);
+
+        assertThat(mockTaskWithoutId.getId()).isNotNull();
+    }
+
+    @Test
+    void createTaskShouldRetryWithNewIdWhenTaskIdAlreadyExistsInProject() {
+        var mockProject = buildMockProject();
+        var mockTask = buildMockTask();
+
+        when(projectRepository.pushTask(mockProject.getId(), mockTask))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(mockProject));
+
+        when(projectRepository.existsById(mockProject.getId()))
+                .thenReturn(true);
 
-        var returnedProject = projectService.createTask(mockProject.getId(), mockTaskWithoutId);
-        var returnedTask = returnedProject.getTasks().get(0);
+        var returnedProject = projectService.createTask(mockProject.getId(), mockTask, null);
 
-        assertThat(returnedTask.getId()).isNotNull();
+        assertThat(returnedProject).isEqualTo(mockProject);
+        verify(projectRepository, times(2)).pushTask(mockProject.getId(), mockTask);
     }
 
     @Test
@@ -189,11 +657,31 @@ class ProjectServiceTest {
         var id = UUID.randomUUID();
         var mockTask = buildMockTask();
 
-        when(projectRepository.findById(id))
+        when(projectRepository.pushTask(id, mockTask))
                 .thenReturn(Optional.empty());
 
+        when(projectRepository.existsById(id))
+                .thenReturn(false);
+
         assertThatThrownBy(
-                () -> projectService.createTask(id, mockTask))
+                () -> projectService.createTask(id, mockTask, null))
                 .isInstanceOf(ProjectNotFoundException.class);
     }
+
+    private static Project buildNewProject() {
+        return Project.builder()
+                .title("title 1")
+                .state(State.IN_PROGRESS)
+                .complexity(Complexity.EASY)
+                .build();
+    }
+
+    private static Task buildNewTask() {
+        return Task.builder()
+                .title("new task")
+                .description("task description new")
+                .done(false)
+                .estimatedDurationInHours(30)
+                .build();
+    }
 }
@@ -0,0 +1,161 @@
+package com.opensource.projectu.service;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.exception.PreconditionFailedException;
+import com.opensource.projectu.exception.ProjectNotFoundException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.repository.ReactiveProjectRepository;
+import com.opensource.projectu.repository.ProjectFilter;
+import com.opensource.projectu.repository.ProjectProjection;
+import com.opensource.projectu.util.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static com.opensource.projectu.util.CursorUtil.encodeCursor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static testutil.MockTestingUtil.buildMockProject;
+import static testutil.MockTestingUtil.buildMockProjects;
+import static testutil.MockTestingUtil.buildMockTask;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProjectServiceTest {
+
+    @Mock
+    ReactiveProjectRepository projectRepository;
+
+    ReactiveProjectService projectService;
+
+    @BeforeEach
+    void setup() {
+        projectService = new ReactiveProjectService(projectRepository, new TimeOrderedIdGenerator(), Duration.ofSeconds(1));
+    }
+
+    @Test
+    void getAllProjectsShouldReturnNextCursorWhenMoreProjectsExist() {
+        var mockProjects = buildMockProjects();
+
+        when(projectRepository.findPage(null, 3, Sort.Direction.ASC, ProjectFilter.NONE, ProjectProjection.ALL))
+                .thenReturn(Flux.fromIterable(mockProjects.subList(0, 3)));
+
+        StepVerifier.create(projectService.getAllProjects(2, null, "asc", ProjectFilter.NONE, null, null))
+                .assertNext(page -> {
+                    assertThat(page.getProjects()).containsExactlyElementsOf(mockProjects.subList(0, 2));
+                    assertThat(page.getNextCursor()).isEqualTo(encodeCursor(mockProjects.get(1)));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllProjectsShouldEmitErrorWhenCursorIsInvalid() {
+        StepVerifier.create(projectService.getAllProjects(2, "not a cursor", "asc", ProjectFilter.NONE, null, null))
+                .verifyError(InvalidParameterException.class);
+    }
+
+    @Test
+    void getProjectByIdShouldEmitErrorWhenProjectNotFound() {
+        var id = UUID.randomUUID();
+
+        when(projectRepository.findById(id))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(projectService.getProjectById(id, null, null, null))
+                .verifyError(ProjectNotFoundException.class);
+    }
+
+    @Test
+    void createProjectShouldRetryWithNewIdWhenIdAlreadyExists() {
+        var mockProject = buildMockProject();
+
+        when(projectRepository.insert(any(Project.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")))
+                .thenReturn(Mono.just(mockProject));
+
+        StepVerifier.create(projectService.createProject(mockProject))
+                .expectNext(mockProject)
+                .verifyComplete();
+        verify(projectRepository, times(2)).insert(any(Project.class));
+    }
+
+    @Test
+    void updateProjectShouldReturn201WhenProjectWasCreated() {
+        var id = UUID.randomUUID();
+
+        when(projectRepository.upsertProject(eq(id), any(Project.class), anyLong()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(projectService.updateProject(id, buildMockProject(), null))
+                .assertNext(response -> {
+                    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+                    assertThat(response.getBody().getId()).isEqualTo(id);
+                    assertThat(response.getHeaders().getETag()).isEqualTo("\"1\"");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void updateProjectShouldEmitErrorWhenIfMatchDoesNotMatchVersion() {
+        var id = UUID.randomUUID();
+
+        when(projectRepository.replaceProject(eq(id), eq(7L), any(Project.class), anyLong()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(projectService.updateProject(id, buildMockProject(), "\"7\""))
+                .verifyError(PreconditionFailedException.class);
+    }
+
+    @Test
+    void deleteProjectShouldEmitErrorWhenProjectNotFound() {
+        var id = UUID.randomUUID();
+
+        when(projectRepository.removeById(id))
+                .thenReturn(Mono.just(0L));
+
+        StepVerifier.create(projectService.deleteProject(id))
+                .verifyError(ProjectNotFoundException.class);
+    }
+
+    @Test
+    void createTaskShouldEmitErrorWhenProjectNotFound() {
+        var id = UUID.randomUUID();
+
+        when(projectRepository.pushTask(eq(id), any()))
+                .thenReturn(Mono.empty());
+        when(projectRepository.existsById(id))
+                .thenReturn(Mono.just(false));
+
+        StepVerifier.create(projectService.createTask(id, buildMockTask()))
+                .verifyError(ProjectNotFoundException.class);
+    }
+
+    @Test
+    void createTaskShouldEmitDuplicateKeyErrorWhenAttemptsAreExhausted() {
+        var id = UUID.randomUUID();
+
+        when(projectRepository.pushTask(eq(id), any()))
+                .thenReturn(Mono.empty());
+        when(projectRepository.existsById(id))
+                .thenReturn(Mono.just(true));
+
+        StepVerifier.create(projectService.createTask(id, buildMockTask()))
+                .verifyError(DuplicateKeyException.class);
+        verify(projectRepository, times(3)).pushTask(eq(id), any());
+    }
+}
@@ -1,18 +1,31 @@
 package com.opensource.projectu.service;
 
+import com.opensource.projectu.cache.LocalInvalidationBus;
+import com.opensource.projectu.cache.ProjectCache;
+import com.opensource.projectu.exception.PreconditionFailedException;
 import com.opensource.projectu.exception.TaskNotFoundException;
+import com.opensource.projectu.openapi.model.TaskPatch;
+import com.opensource.projectu.openapi.model.TombstoneType;
 import com.opensource.projectu.repository.ProjectRepository;
+import com.opensource.projectu.writebehind.DirectTaskUpdateWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static testutil.MockTestingUtil.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,7 +38,10 @@ class TaskServiceTest {
 
     @BeforeEach
     void setup() {
-        taskService = new TaskService(projectRepository);
+        taskService = new TaskService(
+                projectRepository,
+                new ProjectCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry(), new LocalInvalidationBus()),
+                new DirectTaskUpdateWriter(projectRepository));
     }
 
     @Test
@@ -33,11 +49,25 @@ class TaskServiceTest {
         var mockTask = buildMockTask();
 
         when(projectRepository.findByTasksId(mockTask.getId()))
-                .thenReturn(Optional.of(buildProjectContainingTask(mockTask)));
+                .thenReturn(Optional.of(buildProjectContainingTask(mockTask).id(UUID.randomUUID())));
 
-        var returnedTask = taskService.getTaskById(mockTask.getId());
+        var response = taskService.getTaskById(mockTask.getId(), null);
 
-        assertThat(returnedTask).isEqualTo(mockTask);
+        assertThat(response.getBody()).isEqualTo(mockTask);
+    }
+
+    @Test
+    void getTaskByIdShouldReadTaskFromCacheWhenProjectWasReadBefore() {
+        var mockTask = buildMockTask();
+
+        when(projectRepository.findByTasksId(mockTask.getId()))
+                .thenReturn(Optional.of(buildProjectContainingTask(mockTask).id(UUID.randomUUID())));
+
+        taskService.getTaskById(mockTask.getId(), null);
+        var response = taskService.getTaskById(mockTask.getId(), null);
+
+        assertThat(response.getBody()).isEqualTo(mockTask);
+        verify(projectRepository, times(1)).findByTasksId(mockTask.getId());
     }
 
     @Test
@@ -48,20 +78,48 @@ class TaskServiceTest {
                 .thenReturn(Optional.empty());
 
         assertThatThrownBy(
-                () -> taskService.getTaskById(id))
+                () -> taskService.getTaskById(id, null))
                 .isInstanceOf(TaskNotFoundException.class);
     }
 
     @Test
-    void updateTaskShouldReturnTaskWhenTaskFound() {
+    void getTaskByIdShouldReturnNotModifiedWhenETagOfProjectMatches() {
         var mockTask = buildMockTask();
 
         when(projectRepository.findByTasksId(mockTask.getId()))
-                .thenReturn(Optional.of(buildProjectContainingTask(mockTask)));
+                .thenReturn(Optional.of(buildProjectContainingTask(mockTask).id(UUID.randomUUID()).version(3L)));
+
+        var response = taskService.getTaskById(mockTask.getId(), "\"3\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"3\"");
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void updateTaskShouldReturnTaskWithETagOfProjectWhenTaskFound() {
+        var mockTask = buildMockTask();
+
+        when(projectRepository.replaceTask(mockTask.getId(), null, mockTask))
+                .thenReturn(Optional.of(buildMockProject().version(4L)));
 
-        var returnedTask = taskService.updateTask(mockTask.getId(), mockTask);
+        var response = taskService.updateTask(mockTask.getId(), mockTask, null);
 
-        assertThat(returnedTask).isEqualTo(mockTask);
+        assertThat(response.getBody()).isEqualTo(mockTask);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
+    @Test
+    void updateTaskShouldKeepIdOfPathWhenTaskContainsDifferentId() {
+        var id = UUID.randomUUID();
+        var mockTask = buildMockTask();
+
+        when(projectRepository.replaceTask(id, null, mockTask))
+                .thenReturn(Optional.of(buildMockProject()));
+
+        var response = taskService.updateTask(id, mockTask, null);
+
+        assertThat(response.getBody().getId()).isEqualTo(id);
     }
 
     @Test
@@ -69,37 +127,82 @@ class TaskServiceTest {
         var id = UUID.randomUUID();
         var mockTask = buildMockTask();
 
-        when(projectRepository.findByTasksId(id))
+        when(projectRepository.replaceTask(id, null, mockTask))
                 .thenReturn(Optional.empty());
 
         assertThatThrownBy(
-                () -> taskService.updateTask(id, mockTask))
+                () -> taskService.updateTask(id, mockTask, null))
                 .isInstanceOf(TaskNotFoundException.class);
     }
 
     @Test
-    void deleteTaskShouldReturnProjectWhenTaskFound() {
+    void updateTaskShouldThrowExceptionWhenIfMatchDoesNotMatchVersionOfProject() {
+        var id = UUID.randomUUID();
         var mockTask = buildMockTask();
 
-        var mockProject = buildProjectContainingTask(mockTask);
+        when(projectRepository.replaceTask(id, 2L, mockTask))
+                .thenReturn(Optional.empty());
 
-        when(projectRepository.findByTasksId(mockTask.getId()))
-                .thenReturn(Optional.of(mockProject));
+        assertThatThrownBy(
+                () -> taskService.updateTask(id, mockTask, "\"2\""))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    void patchTaskShouldReturnPatchedTaskWithETagOfProject() {
+        var mockTask = buildMockTask().done(true);
+        var patch = TaskPatch.builder()
+                .done(JsonNullable.of(true))
+                .build();
+
+        when(projectRepository.patchTask(mockTask.getId(), 3L, Map.of("done", true)))
+                .thenReturn(Optional.of(buildMockProject().version(4L).tasks(List.of(mockTask))));
 
-        when(projectRepository.save(mockProject))
-                .thenReturn(mockProject);
+        var response = taskService.patchTask(mockTask.getId(), patch, "\"3\"");
+
+        assertThat(response.getBody()).isEqualTo(mockTask);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
+    @Test
+    void patchTaskShouldThrowExceptionWhenTaskNotFound() {
+        var id = UUID.randomUUID();
+        var patch = TaskPatch.builder()
+                .result(JsonNullable.of(null))
+                .build();
+
+        when(projectRepository.patchTask(eq(id), isNull(), anyMap()))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(
+                () -> taskService.patchTask(id, patch, null))
+                .isInstanceOf(TaskNotFoundException.class);
+    }
+
+    @Test
+    void deleteTaskShouldReturnProjectWhenTaskFound() {
+        var mockTask = buildMockTask();
+
+        var mockProject = buildProjectContainingTask(mockTask).id(UUID.randomUUID());
+
+        when(projectRepository.pullTask(mockTask.getId()))
+                .thenReturn(Optional.of(mockProject.tasks(Collections.emptyList())));
 
         var returnedProject = taskService.deleteTask(mockTask.getId());
 
         assertThat(returnedProject.getTasks())
                 .isEmpty();
+        verify(projectRepository).saveTombstones(argThat(tombstones -> tombstones.size() == 1
+                && tombstones.get(0).getId().equals(mockTask.getId())
+                && tombstones.get(0).getProjectId().equals(mockProject.getId())
+                && tombstones.get(0).getType() == TombstoneType.TASK));
     }
 
     @Test
     void deleteTaskShouldThrowExceptionWhenTaskNotFound() {
         var id = UUID.randomUUID();
 
-        when(projectRepository.findByTasksId(id))
+        when(projectRepository.pullTask(id))
                 .thenReturn(Optional.empty());
 
         assertThatThrownBy(
@@ -0,0 +1,64 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.repository.SyncToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static com.opensource.projectu.util.CursorUtil.decodeCursor;
+import static com.opensource.projectu.util.CursorUtil.decodeSyncToken;
+import static com.opensource.projectu.util.CursorUtil.encodeCursor;
+import static com.opensource.projectu.util.CursorUtil.encodeSyncToken;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static testutil.MockTestingUtil.buildMockProject;
+
+class CursorUtilTest {
+
+    @Test
+    void decodeCursorShouldReturnCreatedAtAndIdOfEncodedProject() {
+        var mockProject = buildMockProject();
+
+        var returnedCursor = decodeCursor(encodeCursor(mockProject));
+
+        assertThat(returnedCursor.getCreatedAt()).isEqualTo(mockProject.getCreatedAt());
+        assertThat(returnedCursor.getId()).isEqualTo(mockProject.getId());
+    }
+
+    @Test
+    void encodeCursorShouldReturnUrlSafeString() {
+        var returnedCursor = encodeCursor(buildMockProject());
+
+        assertThat(returnedCursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void decodeCursorShouldThrowExceptionWhenCursorIsNotBase64() {
+        assertThatThrownBy(
+                () -> decodeCursor("not a cursor!"))
+                .isInstanceOf(InvalidParameterException.class);
+    }
+
+    @Test
+    void decodeSyncTokenShouldReturnEncodedToken() {
+        var token = new SyncToken(123L, SyncToken.Source.TOMBSTONE, UUID.randomUUID());
+
+        assertThat(decodeSyncToken(encodeSyncToken(token))).isEqualTo(token);
+        assertThat(decodeSyncToken(encodeSyncToken(SyncToken.at(456L)))).isEqualTo(SyncToken.at(456L));
+    }
+
+    @Test
+    void decodeSyncTokenShouldThrowExceptionWhenSourceIsUnknown() {
+        assertThatThrownBy(
+                () -> decodeSyncToken("MTIzOkZPTzoxMjM"))
+                .isInstanceOf(InvalidParameterException.class);
+    }
+
+    @Test
+    void decodeCursorShouldThrowExceptionWhenCursorHasNoId() {
+        assertThatThrownBy(
+                () -> decodeCursor("MTIz"))
+                .isInstanceOf(InvalidParameterException.class);
+    }
+}
@@ -0,0 +1,58 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.PreconditionFailedException;
+import com.opensource.projectu.repository.ProjectProjection;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static com.opensource.projectu.util.ETagUtil.eTagOf;
+import static com.opensource.projectu.util.ETagUtil.matchesIfNoneMatch;
+import static com.opensource.projectu.util.ETagUtil.parseIfMatch;
+import static com.opensource.projectu.util.ETagUtil.versionOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static testutil.MockTestingUtil.buildMockProject;
+
+class ETagUtilTest {
+
+    @Test
+    void versionOfShouldReturnZeroWhenProjectHasNoVersion() {
+        assertThat(versionOf(buildMockProject().version(null))).isZero();
+    }
+
+    @Test
+    void eTagOfShouldDifferBetweenCompleteAndProjectedRepresentation() {
+        var projection = new ProjectProjection(Set.of("title"), Set.of());
+
+        assertThat(eTagOf(3, ProjectProjection.ALL)).isEqualTo("\"3\"");
+        assertThat(eTagOf(3, projection))
+                .isNotEqualTo(eTagOf(3))
+                .isEqualTo(eTagOf(3, new ProjectProjection(Set.of("title"), Set.of())));
+    }
+
+    @Test
+    void matchesIfNoneMatchShouldCompareWeakly() {
+        assertThat(matchesIfNoneMatch("W/\"3\"", "\"3\"")).isTrue();
+        assertThat(matchesIfNoneMatch("\"1\", \"3\"", "\"3\"")).isTrue();
+        assertThat(matchesIfNoneMatch("*", "\"3\"")).isTrue();
+        assertThat(matchesIfNoneMatch("\"2\"", "\"3\"")).isFalse();
+        assertThat(matchesIfNoneMatch(null, "\"3\"")).isFalse();
+    }
+
+    @Test
+    void parseIfMatchShouldReturnVersionOfETag() {
+        assertThat(parseIfMatch("\"42\"")).isEqualTo(42L);
+        assertThat(parseIfMatch("*")).isNull();
+    }
+
+    @Test
+    void parseIfMatchShouldThrowExceptionWhenETagIsNotAVersion() {
+        assertThatThrownBy(
+                () -> parseIfMatch("W/\"42\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(
+                () -> parseIfMatch("\"3-1a2b\""))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+}
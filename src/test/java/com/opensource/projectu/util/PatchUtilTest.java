@@ -0,0 +1,63 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.openapi.model.ProjectPatch;
+import com.opensource.projectu.openapi.model.State;
+import com.opensource.projectu.openapi.model.TaskPatch;
+import org.junit.jupiter.api.Test;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+import java.util.List;
+
+import static com.opensource.projectu.util.PatchUtil.changesOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static testutil.MockTestingUtil.buildMockTask;
+
+class PatchUtilTest {
+
+    @Test
+    void changesOfShouldContainOnlyFieldsOfPatch() {
+        var patch = ProjectPatch.builder()
+                .state(JsonNullable.of(State.FINISHED))
+                .description(JsonNullable.of(null))
+                .expectedResult(JsonNullable.undefined())
+                .build();
+
+        var changes = changesOf(patch);
+
+        assertThat(changes)
+                .containsOnlyKeys("state", "description")
+                .containsEntry("state", State.FINISHED)
+                .containsEntry("description", null);
+    }
+
+    @Test
+    void changesOfShouldThrowExceptionWhenRequiredFieldIsRemoved() {
+        var patch = TaskPatch.builder()
+                .done(JsonNullable.of(null))
+                .build();
+
+        assertThatThrownBy(
+                () -> changesOf(patch))
+                .isInstanceOf(InvalidParameterException.class);
+    }
+
+    @Test
+    void changesOfShouldThrowExceptionWhenReplacedTaskHasNoTitle() {
+        var patch = ProjectPatch.builder()
+                .tasks(JsonNullable.of(List.of(buildMockTask(), buildMockTask().title(null))))
+                .build();
+
+        assertThatThrownBy(
+                () -> changesOf(patch))
+                .isInstanceOf(InvalidParameterException.class);
+    }
+
+    @Test
+    void changesOfShouldThrowExceptionWhenPatchIsEmpty() {
+        assertThatThrownBy(
+                () -> changesOf(TaskPatch.builder().build()))
+                .isInstanceOf(InvalidParameterException.class);
+    }
+}
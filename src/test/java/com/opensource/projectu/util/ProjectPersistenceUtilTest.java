@@ -1,81 +1,24 @@
 package com.opensource.projectu.util;
 
+import com.opensource.projectu.exception.InvalidParameterException;
 import com.opensource.projectu.openapi.model.Complexity;
 import com.opensource.projectu.openapi.model.Project;
 import com.opensource.projectu.openapi.model.State;
 import com.opensource.projectu.openapi.model.Task;
-import com.opensource.projectu.repository.ProjectRepository;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import static com.opensource.projectu.util.ProjectPersistenceUtil.*;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static testutil.MockTestingUtil.buildMockProject;
 import static testutil.MockTestingUtil.buildMockTask;
 
-@ExtendWith(MockitoExtension.class)
 class ProjectPersistenceUtilTest {
 
-    @Mock
-    ProjectRepository projectRepository;
-
-    @Test
-    void generateUniqueIdForProjectShouldReturnSameIdWhenIdDoesNotExist() {
-        var mockId = UUID.randomUUID();
-
-        when(projectRepository.existsById(mockId))
-                .thenReturn(false);
-
-        var returnedId = ProjectPersistenceUtil.generateUniqueIdForProject(mockId, projectRepository);
-
-        assertThat(returnedId).isEqualTo(mockId);
-    }
-
-    @Test
-    void generateUniqueIdForProjectShouldReturnDifferentIdWhenIdAlreadyExists() {
-        var mockId = UUID.randomUUID();
-
-        when(projectRepository.existsById(mockId))
-                .thenReturn(true);
-
-        var returnedId = ProjectPersistenceUtil.generateUniqueIdForProject(mockId, projectRepository);
-
-        assertThat(returnedId).isNotEqualTo(mockId);
-    }
-
-    @Test
-    void generateUniqueIdForTaskShouldReturnSameIdWhenIdDoesNotExist() {
-        var mockId = UUID.randomUUID();
-
-        when(projectRepository.findByTasksId(mockId))
-                .thenReturn(Optional.empty());
-
-        var returnedId = ProjectPersistenceUtil.generateUniqueIdForTask(mockId, projectRepository);
-
-        assertThat(returnedId).isEqualTo(mockId);
-    }
-
-    @Test
-    void generateUniqueIdForTaskShouldReturnDifferentIdWhenIdAlreadyExists() {
-        var mockId = UUID.randomUUID();
-
-        when(projectRepository.findByTasksId(mockId))
-                .thenReturn(Optional.of(buildMockProject()));
-
-        var returnedId = ProjectPersistenceUtil.generateUniqueIdForTask(mockId, projectRepository);
-
-        assertThat(returnedId).isNotEqualTo(mockId);
-    }
-
     @Test
     void addTaskToProjectShouldReturnProjectIncludingNewTask() {
         var mockProject = buildMockProject();
@@ -179,4 +122,24 @@ class ProjectPersistenceUtilTest {
 
         assertThat(returnedProject).isEqualTo(mockProject);
     }
+
+    @Test
+    void assignTaskIdsShouldGiveTasksWithoutIdNewId() {
+        var id = UUID.randomUUID();
+        var taskWithId = buildMockTask();
+        var taskWithoutId = buildMockTask().id(null);
+
+        var tasks = assignTaskIds(List.of(taskWithId, taskWithoutId), () -> id);
+
+        assertThat(tasks).extracting(Task::getId).containsExactly(taskWithId.getId(), id);
+    }
+
+    @Test
+    void assignTaskIdsShouldRejectDuplicateIds() {
+        var task = buildMockTask();
+        var duplicate = buildMockTask().id(task.getId());
+
+        assertThatThrownBy(() -> assignTaskIds(List.of(task, duplicate), UUID::randomUUID))
+                .isInstanceOf(InvalidParameterException.class);
+    }
 }
@@ -0,0 +1,52 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.InvalidParameterException;
+import com.opensource.projectu.repository.ProjectProjection;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.opensource.projectu.util.ProjectionUtil.parseProjection;
+import static com.opensource.projectu.util.ProjectionUtil.removeUnselectedKeys;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static testutil.MockTestingUtil.buildMockProject;
+
+class ProjectionUtilTest {
+
+    @Test
+    void parseProjectionShouldReturnAllWhenNoFieldsAreGiven() {
+        assertThat(parseProjection(null, List.of(" "))).isEqualTo(ProjectProjection.ALL);
+    }
+
+    @Test
+    void parseProjectionShouldReturnTrimmedIncludedFields() {
+        var projection = parseProjection(List.of("id", " title"), null);
+
+        assertThat(projection.getIncludedFields()).containsExactlyInAnyOrder("id", "title");
+        assertThat(projection.selects("title")).isTrue();
+        assertThat(projection.selects("tasks")).isFalse();
+    }
+
+    @Test
+    void parseProjectionShouldThrowExceptionWhenFieldIsUnknown() {
+        assertThatThrownBy(() -> parseProjection(null, List.of("tasks", "secret")))
+                .isInstanceOf(InvalidParameterException.class)
+                .hasMessageContaining("exclude");
+    }
+
+    @Test
+    void parseProjectionShouldThrowExceptionWhenFieldsAndExcludeAreCombined() {
+        assertThatThrownBy(() -> parseProjection(List.of("title"), List.of("tasks")))
+                .isInstanceOf(InvalidParameterException.class);
+    }
+
+    @Test
+    void removeUnselectedKeysShouldKeepSelectedKeys() {
+        var project = removeUnselectedKeys(buildMockProject(), new ProjectProjection(Set.of("id"), Set.of()));
+
+        assertThat(project.getId()).isNotNull();
+        assertThat(project.getCreatedAt()).isNull();
+    }
+}
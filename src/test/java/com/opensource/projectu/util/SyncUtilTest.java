@@ -0,0 +1,76 @@
+package com.opensource.projectu.util;
+
+import com.opensource.projectu.exception.SyncTokenExpiredException;
+import com.opensource.projectu.openapi.model.Project;
+import com.opensource.projectu.repository.SyncToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static com.opensource.projectu.util.CursorUtil.decodeSyncToken;
+import static com.opensource.projectu.util.CursorUtil.encodeSyncToken;
+import static com.opensource.projectu.util.SyncUtil.parseSyncToken;
+import static com.opensource.projectu.util.SyncUtil.projectTombstone;
+import static com.opensource.projectu.util.SyncUtil.taskTombstone;
+import static com.opensource.projectu.util.SyncUtil.toProjectDelta;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static testutil.MockTestingUtil.buildMockProject;
+
+class SyncUtilTest {
+
+    @Test
+    void toProjectDeltaShouldOrderChangesByTimeWithProjectsFirst() {
+        var first = projectModifiedAt(100);
+        var second = projectModifiedAt(200);
+        var deletedProject = projectTombstone(UUID.randomUUID(), 200);
+        var deletedTask = taskTombstone(UUID.randomUUID(), UUID.randomUUID(), 150);
+
+        var delta = toProjectDelta(null, List.of(first, second), List.of(deletedTask, deletedProject), 3, 1000);
+
+        assertThat(delta.getProjects()).containsExactly(first, second);
+        assertThat(delta.getDeleted()).containsExactly(deletedTask);
+        assertThat(delta.getHasMore()).isTrue();
+        assertThat(decodeSyncToken(delta.getNextToken()))
+                .isEqualTo(new SyncToken(200, SyncToken.Source.PROJECT, second.getId()));
+    }
+
+    @Test
+    void toProjectDeltaShouldContinueAtSyncedTimeWhenNoMoreChanges() {
+        var project = projectModifiedAt(100);
+
+        var delta = toProjectDelta(SyncToken.at(50), List.of(project), List.of(), 10, 1000);
+
+        assertThat(delta.getProjects()).containsExactly(project);
+        assertThat(delta.getHasMore()).isFalse();
+        assertThat(decodeSyncToken(delta.getNextToken())).isEqualTo(SyncToken.at(999));
+    }
+
+    @Test
+    void toProjectDeltaShouldKeepTokenWhenItIsNewerThanSyncedTime() {
+        var since = new SyncToken(2000, SyncToken.Source.TOMBSTONE, UUID.randomUUID());
+
+        var delta = toProjectDelta(since, List.of(), List.of(), 10, 1000);
+
+        assertThat(decodeSyncToken(delta.getNextToken())).isEqualTo(since);
+    }
+
+    @Test
+    void parseSyncTokenShouldThrowExceptionWhenOlderThanTombstones() {
+        var now = System.currentTimeMillis();
+        var expired = encodeSyncToken(SyncToken.at(now - Duration.ofDays(31).toMillis()));
+        var retained = encodeSyncToken(SyncToken.at(now - Duration.ofDays(29).toMillis()));
+
+        assertThatThrownBy(
+                () -> parseSyncToken(expired, now))
+                .isInstanceOf(SyncTokenExpiredException.class);
+        assertThat(parseSyncToken(retained, now)).isNotNull();
+        assertThat(parseSyncToken(null, now)).isNull();
+    }
+
+    private static Project projectModifiedAt(long modifiedAt) {
+        return buildMockProject().id(UUID.randomUUID()).modifiedAt(modifiedAt);
+    }
+}
@@ -0,0 +1,55 @@
+package com.opensource.projectu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void generateIdShouldReturnVersion7Uuid() {
+        var returnedId = new TimeOrderedIdGenerator().generateId();
+
+        assertThat(returnedId.version()).isEqualTo(7);
+        assertThat(returnedId.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void generateIdShouldStartWithTimestampInMilliseconds() {
+        var timestamp = 1649693507720L;
+        var clock = Clock.fixed(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC);
+
+        var returnedId = new TimeOrderedIdGenerator(clock).generateId();
+
+        assertThat(returnedId.getMostSignificantBits() >>> 16).isEqualTo(timestamp);
+    }
+
+    @Test
+    void generateIdShouldReturnLaterIdsInAscendingOrder() {
+        var earlierId = new TimeOrderedIdGenerator(
+                Clock.fixed(Instant.ofEpochMilli(1649693507720L), ZoneOffset.UTC)).generateId();
+        var laterId = new TimeOrderedIdGenerator(
+                Clock.fixed(Instant.ofEpochMilli(1649693507721L), ZoneOffset.UTC)).generateId();
+
+        assertThat(earlierId.toString()).isLessThan(laterId.toString());
+    }
+
+    @Test
+    void generateIdShouldReturnDifferentIdsWithinSameMillisecond() {
+        var generator = new TimeOrderedIdGenerator(
+                Clock.fixed(Instant.ofEpochMilli(1649693507720L), ZoneOffset.UTC));
+        var ids = new HashSet<UUID>();
+
+        for(int i = 0; i < 1000; i++) {
+            ids.add(generator.generateId());
+        }
+
+        assertThat(ids).hasSize(1000);
+    }
+}
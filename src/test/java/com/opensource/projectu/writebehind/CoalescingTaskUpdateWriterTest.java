@@ -0,0 +1,124 @@
+package com.opensource.projectu.writebehind;
+
+import com.opensource.projectu.repository.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static testutil.MockTestingUtil.buildMockProject;
+import static testutil.MockTestingUtil.buildMockTask;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingTaskUpdateWriterTest {
+
+    @Mock
+    ProjectRepository projectRepository;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    CoalescingTaskUpdateWriter taskUpdateWriter;
+
+    @AfterEach
+    void tearDown() {
+        taskUpdateWriter.stop();
+    }
+
+    @Test
+    void replaceTaskShouldWriteUpdatesOfSameProjectOnce() throws Exception {
+        taskUpdateWriter = new CoalescingTaskUpdateWriter(projectRepository, Duration.ofMinutes(1), 2, meterRegistry);
+        var project = buildMockProject().version(5L);
+        var task = buildMockTask();
+        var otherTask = buildMockTask();
+
+        when(projectRepository.findProjectIdsByTaskIds(any()))
+                .thenReturn(Map.of(task.getId(), project.getId(), otherTask.getId(), project.getId()));
+        when(projectRepository.replaceTasks(eq(project.getId()), anyList()))
+                .thenReturn(Optional.of(project));
+
+        var result = CompletableFuture.supplyAsync(() -> taskUpdateWriter.replaceTask(task.getId(), null, task));
+        var otherResult = CompletableFuture.supplyAsync(() -> taskUpdateWriter.replaceTask(otherTask.getId(), null, otherTask));
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).contains(project);
+        assertThat(otherResult.get(5, TimeUnit.SECONDS)).contains(project);
+        verify(projectRepository).replaceTasks(eq(project.getId()), anyList());
+        verify(projectRepository, never()).replaceTask(any(), any(), any());
+        taskUpdateWriter.stop();
+        assertThat(meterRegistry.get("projectu.tasks.write-behind.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void replaceTaskShouldWriteRightAwayWhenVersionIsGiven() {
+        taskUpdateWriter = new CoalescingTaskUpdateWriter(projectRepository, Duration.ofMinutes(1), 100, meterRegistry);
+        var task = buildMockTask();
+
+        when(projectRepository.replaceTask(task.getId(), 3L, task))
+                .thenReturn(Optional.empty());
+
+        assertThat(taskUpdateWriter.replaceTask(task.getId(), 3L, task)).isEmpty();
+        verify(projectRepository, never()).findProjectIdsByTaskIds(any());
+    }
+
+    @Test
+    void replaceTaskShouldReturnEmptyWhenTaskDoesNotExist() {
+        taskUpdateWriter = new CoalescingTaskUpdateWriter(projectRepository, Duration.ofMillis(10), 100, meterRegistry);
+        var task = buildMockTask();
+
+        when(projectRepository.findProjectIdsByTaskIds(any()))
+                .thenReturn(Map.of());
+
+        assertThat(taskUpdateWriter.replaceTask(task.getId(), null, task)).isEmpty();
+        verify(projectRepository, never()).replaceTasks(any(), any());
+    }
+
+    @Test
+    void replaceTaskShouldWriteUpdatesOneByOneWhenProjectDoesNotContainEveryTask() {
+        taskUpdateWriter = new CoalescingTaskUpdateWriter(projectRepository, Duration.ofMillis(10), 100, meterRegistry);
+        var project = buildMockProject();
+        var task = buildMockTask();
+
+        when(projectRepository.findProjectIdsByTaskIds(any()))
+                .thenReturn(Map.of(task.getId(), project.getId()));
+        when(projectRepository.replaceTasks(project.getId(), List.of(task)))
+                .thenReturn(Optional.empty());
+        when(projectRepository.replaceTask(task.getId(), null, task))
+                .thenReturn(Optional.of(project));
+
+        assertThat(taskUpdateWriter.replaceTask(task.getId(), null, task)).contains(project);
+    }
+
+    @Test
+    void stopShouldWritePendingUpdates() throws Exception {
+        taskUpdateWriter = new CoalescingTaskUpdateWriter(projectRepository, Duration.ofMinutes(1), 100, meterRegistry);
+        var project = buildMockProject();
+        var task = buildMockTask();
+
+        when(projectRepository.findProjectIdsByTaskIds(any()))
+                .thenReturn(Map.of(task.getId(), project.getId()));
+        when(projectRepository.replaceTasks(project.getId(), List.of(task)))
+                .thenReturn(Optional.of(project));
+
+        var result = CompletableFuture.supplyAsync(() -> taskUpdateWriter.replaceTask(task.getId(), null, task));
+        while(taskUpdateWriter.pendingCount() == 0) {
+            Thread.onSpinWait();
+        }
+        taskUpdateWriter.stop();
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).contains(project);
+    }
+}